@@ -2,8 +2,10 @@ package com.pitang.car_users_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CarUsersBackendApplication {
 
 	public static void main(String[] args) {
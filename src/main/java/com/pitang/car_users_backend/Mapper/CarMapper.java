@@ -80,6 +80,7 @@ public class CarMapper {
         response.setColor(car.getColor());
         response.setUsageCount(car.getUsageCount());
         response.setPhotoUrl(car.getPhotoUrl());
+        response.setVersion(car.getVersion());
         return response;
     }
 
@@ -1,13 +1,18 @@
 package com.pitang.car_users_backend.Mapper;
 
 import com.pitang.car_users_backend.dto.CarRequest;
+import com.pitang.car_users_backend.dto.UserFieldSelection;
 import com.pitang.car_users_backend.dto.UserRequest;
 import com.pitang.car_users_backend.dto.UserRequestUpdate;
 import com.pitang.car_users_backend.dto.UserResponse;
+import com.pitang.car_users_backend.model.Car;
 import com.pitang.car_users_backend.model.UserEntity;
+import jakarta.persistence.Tuple;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -78,9 +83,26 @@ public class UserMapper {
         response.setCreatedAt(user.getCreatedAt());
         response.setLastLogin(user.getLastLogin());
         response.setPhotoUrl(user.getPhotoUrl());
+        response.setVersion(user.getVersion());
         if (user.getCars() != null) {
             response.setCars(user.getCars().stream().map(CarMapper::toResponse).collect(Collectors.toList()));
         }
         return response;
     }
+    /**
+     * Converte as colunas selecionadas de um usuário em uma representação parcial,
+     * com as mesmas chaves de {@link UserResponse}.
+     * @param row colunas selecionadas (aliases iguais aos nomes dos campos)
+     * @param selection campos e associações selecionados
+     * @param cars carros do usuário (usados apenas se incluídos na seleção)
+     * @return mapa ordenado com os campos selecionados
+     */
+    public static Map<String, Object> toView(Tuple row, UserFieldSelection selection, List<Car> cars) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        selection.fields().forEach(field -> view.put(field, row.get(field)));
+        if (selection.includeCars()) {
+            view.put(UserFieldSelection.CARS, cars.stream().map(CarMapper::toResponse).collect(Collectors.toList()));
+        }
+        return view;
+    }
 }
@@ -0,0 +1,39 @@
+package com.pitang.car_users_backend.cache;
+
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.model.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Invalida regiões do cache de segundo nível que o Hibernate não mantém sozinho.
+ * A coleção {@link UserEntity#getCars()} é o lado inverso da associação, então carros
+ * criados ou removidos diretamente pelo {@code CarService} não atualizam a coleção em cache
+ * do dono; ela é descartada após o commit.
+ */
+@Component
+public class SecondLevelCacheInvalidator {
+
+    static final String USER_CARS_ROLE = UserEntity.class.getName() + ".cars";
+
+    private final Cache cache;
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Descarta a coleção de carros em cache do dono do carro alterado.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.userId() != null) {
+            cache.evictCollectionData(USER_CARS_ROLE, event.userId());
+        }
+    }
+}
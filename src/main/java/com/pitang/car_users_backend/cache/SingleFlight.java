@@ -0,0 +1,122 @@
+package com.pitang.car_users_backend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa leituras simultâneas da mesma chave: a primeira chamada executa a carga e as que chegam enquanto
+ * ela está em andamento aguardam o mesmo {@link CompletableFuture}, recebendo o mesmo objeto (ou a mesma
+ * exceção) sem uma nova consulta. Nada é guardado depois que a carga termina.
+ * <p>
+ * Quem recebe o resultado compartilhado não deve alterá-lo. Depois de uma alteração confirmada,
+ * {@link #forget(Object)} impede que chamadas novas aguardem uma carga iniciada antes dela.
+ * <p>
+ * As chamadas são contadas em {@code singleflight.calls} ({@code result=executed|shared}) e a fração
+ * atendida por cargas de outras chamadas é exportada em {@code singleflight.collapse.ratio}, ambas com a
+ * tag {@code name}.
+ *
+ * @param <K> tipo da chave
+ * @param <V> tipo do valor carregado
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter shared;
+
+    /**
+     * @param name nome da leitura, usado na tag {@code name} das métricas
+     * @param meterRegistry registro das métricas
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("singleflight.calls")
+                .description("Leituras agrupadas por chave")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.shared = Counter.builder("singleflight.calls")
+                .description("Leituras agrupadas por chave")
+                .tag("name", name)
+                .tag("result", "shared")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.collapse.ratio", this, SingleFlight::collapseRatio)
+                .description("Fração das leituras atendidas pela carga de outra chamada")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna o resultado da carga em andamento para a chave ou executa a carga na thread atual.
+     * @param key chave da leitura
+     * @param loader carga executada se não houver outra em andamento
+     * @return valor carregado
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            created.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Desassocia a carga em andamento da chave: ela termina normalmente para quem já a aguarda, mas as
+     * chamadas seguintes executam uma carga nova.
+     * @param key chave alterada
+     */
+    public void forget(K key) {
+        if (key != null) {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Desassocia todas as cargas em andamento.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Fração das chamadas que receberam o resultado da carga de outra chamada.
+     * @return valor entre 0 e 1 (0 sem chamadas)
+     */
+    public double collapseRatio() {
+        double total = executed.count() + shared.count();
+        return total == 0 ? 0 : shared.count() / total;
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            // repassa a exceção da carga, para que seja tratada como se a chamada a tivesse lançado
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
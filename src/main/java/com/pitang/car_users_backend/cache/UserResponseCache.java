@@ -0,0 +1,188 @@
+package com.pitang.car_users_backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.UserResponse;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.util.ETagUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache do JSON já serializado de {@link UserResponse} por ID de usuário, usado por
+ * {@code GET /api/users/{id}} e {@code GET /api/me}. Em um acerto, os bytes são escritos
+ * diretamente na resposta, sem carregar a entidade, mapear ou serializar novamente.
+ * <p>
+ * O cache é um LRU por ordem de acesso limitado a {@code app.cache.user-response.max-entries}
+ * entradas. Antes de carregar, a chamada reserva a entrada com um carimbo único; o valor carregado só é
+ * armazenado se a reserva continuar lá, pois uma invalidação durante a carga a remove e impede que um JSON
+ * obsoleto seja guardado. O ETag da representação é calculado uma única vez e guardado junto com os bytes.
+ */
+@Component
+public class UserResponseCache {
+
+    private final ObjectMapper objectMapper;
+    // ordem de acesso: get também reordena, por isso toda operação passa pelo lock
+    private final Map<Long, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastStamp;
+
+    public UserResponseCache(ObjectMapper objectMapper,
+                             @Value("${app.cache.user-response.max-entries:10000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Retorna o JSON em cache do usuário ou o carrega, serializa e armazena.
+     * @param userId ID do usuário
+     * @param loader carrega e mapeia o usuário em caso de falta
+     * @return JSON codificado em UTF-8 e seu ETag
+     */
+    public CachedResponse get(Long userId, Supplier<UserResponse> loader) {
+        long stamp;
+        lock.lock();
+        try {
+            Entry cached = entries.get(userId);
+            if (cached != null && cached.response() != null) {
+                return cached.response();
+            }
+            stamp = ++lastStamp;
+            entries.put(userId, new Entry(stamp, null));
+        } finally {
+            lock.unlock();
+        }
+
+        CachedResponse response = null;
+        try {
+            UserResponse loaded = loader.get();
+            response = new CachedResponse(serialize(loaded), ETagUtil.forUser(loaded));
+            return response;
+        } finally {
+            complete(userId, stamp, response);
+        }
+    }
+
+    /**
+     * Monta a resposta HTTP do usuário a partir do cache: JSON em bytes com o ETag da representação.
+     * Com {@code If-None-Match} igual ao ETag, o Spring responde 304 sem corpo.
+     * @param userId ID do usuário
+     * @param loader carrega e mapeia o usuário em caso de falta
+     * @return resposta 200 com o JSON e o ETag
+     */
+    public ResponseEntity<byte[]> toResponseEntity(Long userId, Supplier<UserResponse> loader) {
+        CachedResponse cached = get(userId, loader);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(cached.eTag())
+                .body(cached.body());
+    }
+
+    /**
+     * Troca a reserva pelo valor carregado, ou a descarta se a carga falhou. Uma reserva que já não está
+     * lá (invalidada, expulsa ou substituída por uma carga mais nova) não é recriada.
+     */
+    private void complete(Long userId, long stamp, CachedResponse response) {
+        lock.lock();
+        try {
+            Entry reserved = entries.get(userId);
+            if (reserved != null && reserved.stamp() == stamp) {
+                if (response != null) {
+                    entries.put(userId, new Entry(stamp, response));
+                } else {
+                    entries.remove(userId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Descarta o JSON em cache do usuário.
+     * @param userId ID do usuário
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            entries.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Quantidade de entradas, incluindo reservas de cargas em andamento.
+     * @return entradas no cache
+     */
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Invalida o usuário alterado (dados cadastrais, foto, remoção).
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * Invalida o dono do carro alterado, já que a resposta do usuário embute seus carros
+     * (inclusive o contador de uso).
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    private byte[] serialize(UserResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Representação serializada de um usuário.
+     * @param body JSON codificado em UTF-8
+     * @param eTag ETag forte da representação
+     */
+    public record CachedResponse(byte[] body, String eTag) {
+    }
+
+    /**
+     * Entrada do cache; sem {@code response}, é a reserva de uma carga em andamento.
+     * @param stamp carimbo da carga que criou a entrada
+     * @param response representação carregada, ou null
+     */
+    private record Entry(long stamp, CachedResponse response) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.pitang.car_users_backend.config;
+
+import com.pitang.car_users_backend.datasource.ConnectionAcquisitionTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração dos DataSources da aplicação.
+ * Transações somente leitura são roteadas para o pool da réplica (quando configurada
+ * via {@code app.datasource.replica.*}); as demais vão para o pool primário.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /** Isolamento assumido quando o pool não define um (padrão do H2 e da maioria dos bancos). */
+    static final String DEFAULT_ISOLATION = "TRANSACTION_READ_COMMITTED";
+
+    /**
+     * Pool primário, configurado por {@code spring.datasource.*} e {@code spring.datasource.hikari.*}.
+     * @param properties propriedades do DataSource
+     * @param environment ambiente para bind das propriedades do Hikari
+     * @return pool primário
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryPool(DataSourceProperties properties, Environment environment) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    /**
+     * Pool da réplica de leitura, configurado por {@code app.datasource.replica.*}
+     * (mesmas chaves do Hikari, ex.: {@code jdbc-url}, {@code username}, {@code maximum-pool-size}).
+     * @param environment ambiente para bind das propriedades
+     * @return pool da réplica
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.datasource.replica.jdbc-url")
+    public HikariDataSource replicaPool(Environment environment) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("app.datasource.replica", Bindable.ofInstance(pool));
+        pool.setPoolName("replica");
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    /**
+     * DataSource usado pelo JPA, com roteamento de leitura e contagem de conexões por requisição.
+     * @param primaryPool pool primário
+     * @param replicaPool pool da réplica, se configurado
+     * @param tracker contador de conexões obtidas
+     * @return DataSource roteado
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryPool") HikariDataSource primaryPool,
+                                 @Qualifier("replicaPool") ObjectProvider<HikariDataSource> replicaPool,
+                                 ConnectionAcquisitionTracker tracker) {
+        HikariDataSource replica = replicaPool.getIfAvailable();
+        String isolation = primaryPool.getTransactionIsolation() != null
+                ? primaryPool.getTransactionIsolation() : DEFAULT_ISOLATION;
+        return routingDataSource(tracker.track(primaryPool), replica == null ? null : tracker.track(replica),
+                primaryPool.isAutoCommit(), isolation);
+    }
+
+    /**
+     * Cria o DataSource que adia a obtenção da conexão física até o primeiro comando,
+     * quando o flag de somente leitura da transação já é conhecido, e escolhe o pool
+     * da réplica para transações {@code readOnly}.
+     * <p>
+     * Os padrões de auto-commit e isolamento são informados ao proxy; sem eles, o proxy obtém uma conexão
+     * física extra na primeira utilização só para descobri-los.
+     * @param primary DataSource de escrita
+     * @param replica DataSource de leitura, ou null para usar sempre o primário
+     * @param defaultAutoCommit auto-commit das conexões entregues pelos pools
+     * @param defaultIsolation nome da constante de isolamento de {@link java.sql.Connection}
+     *                         (ex.: {@code TRANSACTION_READ_COMMITTED})
+     * @return DataSource roteado
+     */
+    static DataSource routingDataSource(DataSource primary, DataSource replica, boolean defaultAutoCommit,
+                                        String defaultIsolation) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(primary);
+        proxy.setDefaultAutoCommit(defaultAutoCommit);
+        proxy.setDefaultTransactionIsolationName(defaultIsolation);
+        if (replica != null) {
+            proxy.setReadOnlyDataSource(replica);
+        }
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+}
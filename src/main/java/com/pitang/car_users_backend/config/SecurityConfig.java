@@ -3,6 +3,7 @@ package com.pitang.car_users_backend.config;
 import com.pitang.car_users_backend.security.JwtAuthEntryPoint;
 import com.pitang.car_users_backend.security.JwtAuthFilter;
 import com.pitang.car_users_backend.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -96,6 +97,8 @@ public class SecurityConfig {
                     auth.requestMatchers("/swagger-ui.html", "/swagger-ui.index.html", "/swagger-ui/**",
                             "/swagger-resources/**", "/v3/api-docs/**", "/v3/api-docs.yaml").permitAll();
                     auth.requestMatchers("/h2-console/**", "/webjars/**").permitAll();
+                    // o despacho ASYNC (fim dos streams SSE) pertence a uma requisição já autorizada
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
                     auth.anyRequest().authenticated();
                 });
 
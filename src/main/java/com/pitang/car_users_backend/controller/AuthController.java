@@ -61,7 +61,7 @@ public class AuthController {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            UserEntity user = usuarioRepository.findByLogin(loginRequest.getLogin())
+            UserEntity user = usuarioRepository.findByNaturalLogin(loginRequest.getLogin())
                     .orElseThrow(() -> new UserException(UserErrorCode.INVALID_LOGIN_OR_PASSWORD));
 
             // Gera o token passando o username e o id do usuário
@@ -1,26 +1,44 @@
 package com.pitang.car_users_backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.pitang.car_users_backend.Mapper.CarMapper;
+import com.pitang.car_users_backend.dto.CarBatchRequest;
+import com.pitang.car_users_backend.dto.CarBatchResult;
 import com.pitang.car_users_backend.dto.CarRequest;
 import com.pitang.car_users_backend.dto.CarResponse;
+import com.pitang.car_users_backend.dto.CarStats;
+import com.pitang.car_users_backend.dto.CarUsageHistory;
+import com.pitang.car_users_backend.dto.UsageGranularity;
+import com.pitang.car_users_backend.dto.UsageSort;
 import com.pitang.car_users_backend.exception.CarErrorCode;
 import com.pitang.car_users_backend.exception.CarException;
 import com.pitang.car_users_backend.model.Car;
 import com.pitang.car_users_backend.model.UserEntity;
 import com.pitang.car_users_backend.service.CarService;
+import com.pitang.car_users_backend.service.CarUsageHistoryService;
+import com.pitang.car_users_backend.service.EventStreamService;
+import com.pitang.car_users_backend.service.TrendingService;
 import com.pitang.car_users_backend.service.UserService;
+import com.pitang.car_users_backend.stats.FleetStatistics;
+import com.pitang.car_users_backend.util.ETagUtil;
 import jakarta.validation.Valid;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -30,12 +48,25 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/cars")
 public class CarController {
 
+    /** Tamanho máximo das páginas das listagens paginadas. */
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CarService service;
     private final UserService userService;
+    private final EventStreamService eventStreamService;
+    private final CarUsageHistoryService usageHistoryService;
+    private final TrendingService trendingService;
+    private final FleetStatistics fleetStatistics;
 
-    public CarController(CarService service, UserService userService) {
+    public CarController(CarService service, UserService userService, EventStreamService eventStreamService,
+                         CarUsageHistoryService usageHistoryService, TrendingService trendingService,
+                         FleetStatistics fleetStatistics) {
         this.service = service;
         this.userService = userService;
+        this.eventStreamService = eventStreamService;
+        this.usageHistoryService = usageHistoryService;
+        this.trendingService = trendingService;
+        this.fleetStatistics = fleetStatistics;
     }
 
     /**
@@ -61,12 +92,50 @@ public class CarController {
     public ResponseEntity<CarResponse> getById(@PathVariable Long id, @RequestParam Long userId) {
         validateUser(userId);
         Car car = service.getCarUserById(id);
+        requireOwner(car, userId);
 
-        if (car.getUser() == null || !car.getUser().getId().equals(userId)) {
-            throw new CarException(CarErrorCode.CAR_NOT_FOUND);
+        CarResponse response = CarMapper.toResponse(car);
+        return ResponseEntity.ok().eTag(ETagUtil.forCar(response)).body(response);
+    }
+
+    /**
+     * Retorna vários carros do usuário logado em uma única requisição, incrementando o uso de cada um
+     * como {@code GET /api/cars/{id}}, com uma única consulta e escritas em lote.
+     * @param ids IDs dos carros (máximo {@value CarBatchRequest#MAX_BATCH_SIZE})
+     * @param userId o id do usuário
+     * @return resultado por ID, na ordem pedida (400 CAR_NOT_FOUND para IDs inexistentes ou de outro usuário)
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<CarBatchResult>> getBatch(@RequestParam List<Long> ids, @RequestParam Long userId) {
+        validateUser(userId);
+        if (ids.isEmpty() || ids.size() > CarBatchRequest.MAX_BATCH_SIZE) {
+            throw new CarException(CarErrorCode.INVALID_FIELDS);
         }
 
-        return ResponseEntity.ok(CarMapper.toResponse(car));
+        Map<Long, Car> cars = service.getCarsUserByIds(ids, userId);
+        List<CarBatchResult> results = new ArrayList<>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            Long id = ids.get(index);
+            Car car = cars.get(id);
+            results.add(car == null
+                    ? CarBatchResult.failure(index, null, id, CarErrorCode.CAR_NOT_FOUND)
+                    : CarBatchResult.success(index, null, 200, id, CarMapper.toResponse(car)));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Executa criações, atualizações e remoções de carros do usuário logado em uma única transação.
+     * @param userId o id do usuário
+     * @param request operações do lote
+     * @return resultado de cada operação, na mesma ordem
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<CarBatchResult>> executeBatch(@RequestParam Long userId,
+                                                             @Valid @RequestBody CarBatchRequest request) {
+        validateUser(userId);
+        UserEntity user = userService.getUserById(userId);
+        return ResponseEntity.ok(service.executeBatch(user, request.getOperations()));
     }
 
     /**
@@ -90,16 +159,38 @@ public class CarController {
      * @param id o id do carro
      * @param userId o id do usuário
      * @param request objeto de requisição do carro
+     * @param ifMatch ETag esperado do carro (opcional); se não corresponder, retorna 412
      * @return o objeto de resposta do carro atualizado
      */
     @PutMapping("/{id}")
     public ResponseEntity<CarResponse> update(@PathVariable Long id, @RequestParam Long userId,
-                                              @Valid @RequestBody CarRequest request) {
+                                              @Valid @RequestBody CarRequest request,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         validateUser(userId);
         UserEntity user = userService.getUserById(userId);
         Car carEntity = CarMapper.toEntity(request, user);
-        Car updated = service.updateCar(id, carEntity);
-        return ResponseEntity.ok(CarMapper.toResponse(updated));
+        Car updated = service.updateCar(id, carEntity, ifMatch);
+        CarResponse response = CarMapper.toResponse(updated);
+        return ResponseEntity.ok().eTag(ETagUtil.forCar(response)).body(response);
+    }
+
+    /**
+     * Atualiza parcialmente um carro do usuário logado com um JSON Merge Patch (RFC 7396).
+     * Apenas as colunas alteradas são escritas.
+     * @param id o id do carro
+     * @param userId o id do usuário
+     * @param patch documento de merge patch
+     * @param ifMatch ETag esperado do carro (opcional); se não corresponder, retorna 412
+     * @return o objeto de resposta do carro atualizado
+     */
+    @PatchMapping(path = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<CarResponse> patch(@PathVariable Long id, @RequestParam Long userId,
+                                             @RequestBody JsonNode patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        validateUser(userId);
+        Car updated = service.patchCar(id, userId, patch, ifMatch);
+        CarResponse response = CarMapper.toResponse(updated);
+        return ResponseEntity.ok().eTag(ETagUtil.forCar(response)).body(response);
     }
 
     /**
@@ -115,6 +206,65 @@ public class CarController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Remove, em massa, todos os carros do usuário logado.
+     * @param userId o id do usuário
+     * @return resposta sem conteúdo
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> deleteAll(@RequestParam Long userId) {
+        validateUser(userId);
+        service.deleteCarsByUserId(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Abre um stream SSE com as alterações dos carros do usuário logado (inclusive incrementos de uso).
+     * Eventos: {@code car}, {@code car-deleted} e {@code resync}.
+     * @param userId o id do usuário
+     * @return stream de eventos
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam Long userId) {
+        validateUser(userId);
+        return eventStreamService.subscribeCars(userId);
+    }
+
+    /**
+     * Retorna o histórico de uso de um carro no período (padrão: últimas 24 horas, por hora).
+     * @param id o id do carro
+     * @param userId o id do usuário
+     * @param from início do período, ISO-8601 (inclusive)
+     * @param to fim do período, ISO-8601 (exclusive)
+     * @param granularity hour, day ou month
+     * @return intervalos com uso no período
+     */
+    @GetMapping("/{id}/usage")
+    public ResponseEntity<CarUsageHistory> getUsage(@PathVariable Long id, @RequestParam Long userId,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                    @RequestParam(defaultValue = "hour") String granularity) {
+        validateUser(userId);
+        requireOwner(service.getCarById(id), userId);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        return ResponseEntity.ok(usageHistoryService.getHistory(id, start, end, UsageGranularity.from(granularity)));
+    }
+
+    /**
+     * Retorna a quantidade de carros e o total de uso da frota, gerais e por modelo, ano e cor,
+     * a partir dos totais mantidos em memória.
+     * @param userId o id do usuário
+     * @return estatísticas da frota
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<CarStats> getStats(@RequestParam Long userId) {
+        validateUser(userId);
+        return ResponseEntity.ok(fleetStatistics.getStats());
+    }
+
     /**
      * Retorna a foto de um carro.
      * @param id o id do carro
@@ -153,13 +303,26 @@ public class CarController {
     }
 
     /**
-     * Retorna os carros do usuário ordenados por uso.
+     * Retorna os carros do usuário ordenados por uso. Com {@code sort=trending}, a ordem é a do uso
+     * recente (decaimento exponencial) e a lista é paginada no banco.
      * @param userId o id do usuário
+     * @param sort {@code usage} (padrão, uso acumulado) ou {@code trending}
+     * @param page página, a partir de 0 (apenas com {@code sort=trending})
+     * @param size tamanho da página, de 1 a {@value #MAX_PAGE_SIZE} (apenas com {@code sort=trending})
      * @return a lista ordenada de carros
      */
     @GetMapping("/ordered")
-    public ResponseEntity<List<CarResponse>> getCarsOrderedByUsage(@RequestParam Long userId) {
+    public ResponseEntity<List<CarResponse>> getCarsOrderedByUsage(@RequestParam Long userId,
+                                                                   @RequestParam(defaultValue = "usage") String sort,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "20") int size) {
         validateUser(userId);
+        if (UsageSort.from(sort) == UsageSort.TRENDING) {
+            validatePage(page, size);
+            return ResponseEntity.ok(trendingService.getTrendingCars(userId, page, size).stream()
+                    .map(CarMapper::toResponse)
+                    .collect(Collectors.toList()));
+        }
         List<Car> cars = service.getCarsByLoggedUser(userId);
         List<CarResponse> ordered = cars.stream()
                 .sorted(Comparator.comparingInt(Car::getUsageCount)
@@ -170,6 +333,28 @@ public class CarController {
         return ResponseEntity.ok(ordered);
     }
 
+    /**
+     * Valida os parâmetros de paginação.
+     * @param page página
+     * @param size tamanho da página
+     */
+    private void validatePage(int page, int size) {
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page deve ser >= 0 e size entre 1 e " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Garante que o carro pertence ao usuário; caso contrário, responde como se o carro não existisse.
+     * @param car carro consultado
+     * @param userId id do usuário
+     */
+    private void requireOwner(Car car, Long userId) {
+        if (car.getUser() == null || !car.getUser().getId().equals(userId)) {
+            throw new CarException(CarErrorCode.CAR_NOT_FOUND);
+        }
+    }
+
     /**
      * Valida se o usuário (token) está presente e é válido.
      * @param userId id do usuário
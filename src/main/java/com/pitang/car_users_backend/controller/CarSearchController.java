@@ -0,0 +1,148 @@
+package com.pitang.car_users_backend.controller;
+
+import com.pitang.car_users_backend.Mapper.CarMapper;
+import com.pitang.car_users_backend.dto.CarFacetQuery;
+import com.pitang.car_users_backend.dto.CarFacetResponse;
+import com.pitang.car_users_backend.dto.CarResponse;
+import com.pitang.car_users_backend.dto.CarSearchCriteria;
+import com.pitang.car_users_backend.dto.CarSearchResponse;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import com.pitang.car_users_backend.exception.CarException;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.search.CarFacetIndex;
+import com.pitang.car_users_backend.service.CarService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Controlador responsável pelas buscas de carros.
+ */
+@RestController
+@RequestMapping("/api/cars")
+public class CarSearchController {
+
+    /** Tamanho máximo das páginas de busca. */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CarService service;
+    private final CarFacetIndex facetIndex;
+
+    /**
+     * Construtor que injeta o serviço de carros e o índice de busca facetada.
+     * @param service instância de CarService
+     * @param facetIndex índice em memória dos atributos dos carros
+     */
+    public CarSearchController(CarService service, CarFacetIndex facetIndex) {
+        this.service = service;
+        this.facetIndex = facetIndex;
+    }
+
+    /**
+     * Busca facetada nos carros do usuário: cores e prefixos de modelo aceitam vários valores (OU) e os
+     * filtros se combinam com E. Os IDs e as contagens por cor, ano e modelo vêm do índice em memória; os
+     * carros da página são carregados com uma única consulta.
+     * @param userId o id do usuário (simula token)
+     * @param color cores aceitas
+     * @param yearFrom menor ano de fabricação (inclusive)
+     * @param yearTo maior ano de fabricação (inclusive)
+     * @param model prefixos do modelo (por palavra)
+     * @param after ID do último carro da página anterior
+     * @param size tamanho da página (máximo {@value #MAX_PAGE_SIZE})
+     * @return carros da página, por ID, e contagens por faceta (503 enquanto o índice é carregado)
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<CarFacetResponse> facets(@RequestParam Long userId,
+                                                   @RequestParam(required = false) List<String> color,
+                                                   @RequestParam(required = false) Integer yearFrom,
+                                                   @RequestParam(required = false) Integer yearTo,
+                                                   @RequestParam(required = false) List<String> model,
+                                                   @RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        validateUser(userId);
+        validateSize(size);
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            throw new IllegalArgumentException("yearFrom deve ser menor ou igual a yearTo");
+        }
+        if (!facetIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+
+        CarFacetIndex.Page page = facetIndex.search(userId,
+                new CarFacetQuery(color, yearFrom, yearTo, model, after, size));
+        // o índice é atualizado depois do commit: a posse é conferida de novo nas linhas carregadas
+        List<CarResponse> cars = service.getCarsByIds(page.ids()).stream()
+                .filter(car -> car.getUser() != null && car.getUser().getId().equals(userId))
+                .sorted(Comparator.comparing(Car::getId))
+                .map(CarMapper::toResponse)
+                .toList();
+        return ResponseEntity.ok(new CarFacetResponse(cars, page.nextAfter(), page.total(), page.colors(),
+                page.years(), page.models()));
+    }
+
+    /**
+     * Busca os carros do usuário no banco por modelo, cor, faixa de ano e prefixo da placa, paginada pelo ID.
+     * A busca é sempre restrita aos carros do próprio usuário, o que também garante um filtro indexado.
+     * @param userId o id do usuário (simula token)
+     * @param model modelo
+     * @param color cor
+     * @param yearFrom menor ano de fabricação (inclusive)
+     * @param yearTo maior ano de fabricação (inclusive)
+     * @param plate prefixo da placa
+     * @param ownerId id do dono; se informado, deve ser o próprio usuário
+     * @param after ID do último carro da página anterior
+     * @param size tamanho da página (máximo {@value #MAX_PAGE_SIZE})
+     * @return carros da página, por ID (400 se ownerId for de outro usuário)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CarSearchResponse> search(@RequestParam Long userId,
+                                                    @RequestParam(required = false) String model,
+                                                    @RequestParam(required = false) String color,
+                                                    @RequestParam(required = false) Integer yearFrom,
+                                                    @RequestParam(required = false) Integer yearTo,
+                                                    @RequestParam(required = false) String plate,
+                                                    @RequestParam(required = false) Long ownerId,
+                                                    @RequestParam(defaultValue = "0") long after,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        validateUser(userId);
+        validateSize(size);
+        if (ownerId != null && !ownerId.equals(userId)) {
+            throw new IllegalArgumentException("ownerId deve ser o próprio usuário");
+        }
+        List<Car> cars = service.searchCars(new CarSearchCriteria(blankToNull(model), blankToNull(color), yearFrom,
+                yearTo, blankToNull(plate), userId, after, size));
+        Long nextAfter = cars.size() == size ? cars.get(cars.size() - 1).getId() : null;
+        return ResponseEntity.ok(new CarSearchResponse(cars.stream().map(CarMapper::toResponse).toList(),
+                nextAfter));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static void validateSize(int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Valida se o usuário (token) está presente e é válido.
+     * @param userId id do usuário
+     */
+    private void validateUser(Long userId) {
+        if (userId == null) {
+            throw new CarException(CarErrorCode.UNAUTHORIZED);
+        }
+        if (userId <= 0) {
+            throw new CarException(CarErrorCode.UNAUTHORIZED_SESSION);
+        }
+    }
+}
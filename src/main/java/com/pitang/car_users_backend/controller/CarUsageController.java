@@ -0,0 +1,87 @@
+package com.pitang.car_users_backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.UsageBatchAck;
+import com.pitang.car_users_backend.dto.UsageEncoding;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import com.pitang.car_users_backend.exception.CarException;
+import com.pitang.car_users_backend.service.UsageIngestionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Controlador responsável pela ingestão de uso dos carros enviada pelos gateways de telemetria.
+ */
+@RestController
+@RequestMapping("/api/cars/usage")
+public class CarUsageController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UsageIngestionService service;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Construtor que injeta o serviço de ingestão e o ObjectMapper usado na resposta.
+     * @param service instância de UsageIngestionService
+     * @param objectMapper serializador das confirmações
+     */
+    public CarUsageController(UsageIngestionService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registra eventos de uso (carro, quantidade e instante) dos carros do usuário, em NDJSON ou no formato
+     * binário de {@link UsageEncoding#BINARY}. O corpo é lido em fluxo e a resposta, em NDJSON, traz uma
+     * confirmação por lote, enviada assim que o lote é registrado. Eventos de carros de outro usuário são
+     * rejeitados.
+     * @param userId o id do usuário (simula token)
+     * @param request requisição com os eventos
+     * @param response resposta onde as confirmações são escritas
+     * @throws IOException em caso de falha na leitura ou escrita
+     */
+    @PostMapping(consumes = {NDJSON, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public void ingest(@RequestParam Long userId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        validateUser(userId);
+        UsageEncoding encoding = UsageEncoding.fromContentType(request.getContentType());
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        service.ingest(userId, request.getInputStream(), encoding, ack -> write(out, ack));
+    }
+
+    private void write(OutputStream out, UsageBatchAck ack) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(ack));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Valida se o usuário (token) está presente e é válido.
+     * @param userId id do usuário
+     */
+    private void validateUser(Long userId) {
+        if (userId == null) {
+            throw new CarException(CarErrorCode.UNAUTHORIZED);
+        }
+        if (userId <= 0) {
+            throw new CarException(CarErrorCode.UNAUTHORIZED_SESSION);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.pitang.car_users_backend.controller;
+
+import com.pitang.car_users_backend.dto.ChangeFeedResponse;
+import com.pitang.car_users_backend.exception.UserErrorCode;
+import com.pitang.car_users_backend.exception.UserException;
+import com.pitang.car_users_backend.service.ChangeFeedService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller do feed incremental de alterações, usado pelos clientes no lugar de recarregar
+ * {@code /api/users/me} e {@code /api/cars} a cada consulta.
+ */
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeFeedController {
+
+    private final ChangeFeedService service;
+
+    public ChangeFeedController(ChangeFeedService service) {
+        this.service = service;
+    }
+
+    /**
+     * Retorna as alterações do usuário logado desde o último token.
+     * Sem token (ou com token anterior à compactação) a resposta pede uma recarga completa
+     * ({@code resetRequired}) e traz o token a partir do qual seguir.
+     * @param userId o id do usuário (simula token)
+     * @param since último {@code nextToken} recebido (opcional)
+     * @return alterações e próximo token
+     */
+    @GetMapping
+    public ResponseEntity<ChangeFeedResponse> getChanges(@RequestParam(required = false) Long userId,
+                                                         @RequestParam(required = false) Long since) {
+        validateUser(userId);
+        return ResponseEntity.ok(service.getChanges(userId, since));
+    }
+
+    /**
+     * Valida o "token" recebido como userId.
+     * @param userId identificador do usuário
+     * @throws UserException caso não exista userId ou seja menor/igual a zero
+     */
+    private void validateUser(Long userId) {
+        if (userId == null) {
+            throw new UserException(UserErrorCode.UNAUTHORIZED);
+        }
+        if (userId <= 0) {
+            throw new UserException(UserErrorCode.UNAUTHORIZED_SESSION);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.pitang.car_users_backend.controller;
+
+import com.pitang.car_users_backend.dto.ExportFormat;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import com.pitang.car_users_backend.exception.CarException;
+import com.pitang.car_users_backend.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Controlador responsável pelas exportações completas (relatórios) de usuários e dos carros do usuário logado.
+ * As respostas são enviadas em blocos (chunked), comprimidas com gzip quando o cliente aceita.
+ */
+@RestController
+public class ExportController {
+
+    private final ExportService service;
+
+    /**
+     * Construtor que injeta o serviço de exportação.
+     * @param service instância de ExportService
+     */
+    public ExportController(ExportService service) {
+        this.service = service;
+    }
+
+    /**
+     * Exporta todos os usuários (sem senha e sem carros).
+     * @param format {@code ndjson} (padrão) ou {@code csv}
+     * @param acceptEncoding cabeçalho Accept-Encoding do cliente
+     * @param response resposta onde os dados são escritos
+     * @throws IOException em caso de falha na escrita
+     */
+    @GetMapping("/api/users/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        try (OutputStream out = open(response, exportFormat, acceptEncoding, "users")) {
+            service.exportUsers(exportFormat, out);
+        }
+    }
+
+    /**
+     * Exporta os carros do usuário logado, com o ID do dono.
+     * @param userId o id do usuário (simula token)
+     * @param format {@code ndjson} (padrão) ou {@code csv}
+     * @param acceptEncoding cabeçalho Accept-Encoding do cliente
+     * @param response resposta onde os dados são escritos
+     * @throws IOException em caso de falha na escrita
+     */
+    @GetMapping("/api/cars/export")
+    public void exportCars(@RequestParam Long userId,
+                           @RequestParam(defaultValue = "ndjson") String format,
+                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                           HttpServletResponse response) throws IOException {
+        validateUser(userId);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        try (OutputStream out = open(response, exportFormat, acceptEncoding, "cars")) {
+            service.exportCars(userId, exportFormat, out);
+        }
+    }
+
+    /**
+     * Prepara os cabeçalhos e abre o fluxo da resposta, com gzip sob demanda.
+     * O gzip usa sync flush, para que cada bloco descarregado chegue ao cliente imediatamente.
+     * @param response resposta HTTP
+     * @param format formato da exportação
+     * @param acceptEncoding cabeçalho Accept-Encoding do cliente
+     * @param name nome base do arquivo
+     * @return fluxo de saída da resposta
+     * @throws IOException em caso de falha ao abrir o fluxo
+     */
+    private OutputStream open(HttpServletResponse response, ExportFormat format, String acceptEncoding, String name)
+            throws IOException {
+        response.setContentType(format.getMediaType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.getExtension() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 8192, true);
+        }
+        return response.getOutputStream();
+    }
+
+    /**
+     * Valida se o usuário (token) está presente e é válido.
+     * @param userId id do usuário
+     */
+    private void validateUser(Long userId) {
+        if (userId == null) {
+            throw new CarException(CarErrorCode.UNAUTHORIZED);
+        }
+        if (userId <= 0) {
+            throw new CarException(CarErrorCode.UNAUTHORIZED_SESSION);
+        }
+    }
+}
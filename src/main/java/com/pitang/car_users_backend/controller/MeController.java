@@ -1,16 +1,22 @@
 package com.pitang.car_users_backend.controller;
 
 import com.pitang.car_users_backend.Mapper.UserMapper;
+import com.pitang.car_users_backend.cache.UserResponseCache;
+import com.pitang.car_users_backend.dto.UserFieldSelection;
 import com.pitang.car_users_backend.dto.UserResponse;
 import com.pitang.car_users_backend.exception.UserErrorCode;
 import com.pitang.car_users_backend.exception.UserException;
-import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.service.EventStreamService;
 import com.pitang.car_users_backend.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
 
 /**
  * Controlador responsável pelas operações relacionadas ao Usuário logado.
@@ -21,13 +27,19 @@ import org.springframework.web.bind.annotation.RestController;
 public class MeController {
 
     private final UserService service;
+    private final UserResponseCache responseCache;
+    private final EventStreamService eventStreamService;
 
     /**
-     * Construtor que injeta o UserService.
+     * Construtor que injeta o UserService, o cache de respostas serializadas e o serviço de streams SSE.
      * @param service instância de UserService
+     * @param responseCache cache do JSON de usuários
+     * @param eventStreamService streams de alterações em tempo real
      */
-    public MeController(UserService service) {
+    public MeController(UserService service, UserResponseCache responseCache, EventStreamService eventStreamService) {
         this.service = service;
+        this.responseCache = responseCache;
+        this.eventStreamService = eventStreamService;
     }
 
     /**
@@ -36,13 +48,32 @@ public class MeController {
      * ou inválido (UNAUTHORIZED_SESSION).
      *
      * @param userId ID do usuário logado, representando o "token"
-     * @return UserResponse com as informações do usuário
+     * @param fields campos a retornar, separados por vírgula (opcional)
+     * @param include associações a embutir, ex.: {@code cars} (opcional)
+     * @return JSON de {@link UserResponse} com as informações do usuário
      */
     @GetMapping()
-    public ResponseEntity<UserResponse> getMe(@RequestParam(required = false) Long userId) {
+    public ResponseEntity<?> getMe(@RequestParam(required = false) Long userId,
+                                   @RequestParam(required = false) String fields,
+                                   @RequestParam(required = false) String include) {
+        validateUser(userId);
+        Optional<UserFieldSelection> selection = UserFieldSelection.parse(fields, include);
+        if (selection.isPresent()) {
+            return ResponseEntity.ok(service.getUserView(userId, selection.get()));
+        }
+        return responseCache.toResponseEntity(userId, () -> UserMapper.toResponse(service.getUserById(userId)));
+    }
+
+    /**
+     * Abre um stream SSE com as alterações do perfil do usuário logado.
+     * Eventos: {@code user}, {@code user-deleted} e {@code resync}.
+     * @param userId ID do usuário logado, representando o "token"
+     * @return stream de eventos
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam(required = false) Long userId) {
         validateUser(userId);
-        UserEntity user = service.getUserById(userId);
-        return ResponseEntity.ok(UserMapper.toResponse(user));
+        return eventStreamService.subscribeUser(userId);
     }
 
     /**
@@ -1,15 +1,27 @@
 package com.pitang.car_users_backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.pitang.car_users_backend.Mapper.UserMapper;
+import com.pitang.car_users_backend.cache.UserResponseCache;
+import com.pitang.car_users_backend.dto.LeaderboardEntry;
+import com.pitang.car_users_backend.dto.UsageSort;
+import com.pitang.car_users_backend.dto.UserFieldSelection;
 import com.pitang.car_users_backend.dto.UserRequest;
 import com.pitang.car_users_backend.dto.UserRequestUpdate;
 import com.pitang.car_users_backend.dto.UserResponse;
+import com.pitang.car_users_backend.dto.UserSearchHit;
+import com.pitang.car_users_backend.dto.UserSearchResponse;
 import com.pitang.car_users_backend.exception.UserErrorCode;
 import com.pitang.car_users_backend.exception.UserException;
+import com.pitang.car_users_backend.leaderboard.UsageLeaderboard;
 import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.search.UserSearchIndex;
+import com.pitang.car_users_backend.service.TrendingService;
 import com.pitang.car_users_backend.service.UserService;
+import com.pitang.car_users_backend.util.ETagUtil;
 import jakarta.validation.Valid;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +33,9 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -31,14 +46,34 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/users")
 public class UserController {
 
+    /** Tamanho máximo das páginas das listagens paginadas. */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /** Tamanho máximo do texto da busca de usuários. */
+    private static final int MAX_QUERY_LENGTH = 100;
+
     private final UserService service;
+    private final UserResponseCache responseCache;
+    private final UsageLeaderboard leaderboard;
+    private final TrendingService trendingService;
+    private final UserSearchIndex searchIndex;
 
     /**
-     * Construtor que injeta o UserService.
+     * Construtor que injeta o UserService, o cache de respostas serializadas, o ranking de uso, a tendência
+     * e o índice de busca textual.
      * @param service instância de UserService
+     * @param responseCache cache do JSON de usuários
+     * @param leaderboard ranking de uso em memória
+     * @param trendingService pontuação de tendência (uso recente)
+     * @param searchIndex índice em memória de nome, e-mail e login
      */
-    public UserController(UserService service) {
+    public UserController(UserService service, UserResponseCache responseCache, UsageLeaderboard leaderboard,
+                          TrendingService trendingService, UserSearchIndex searchIndex) {
         this.service = service;
+        this.responseCache = responseCache;
+        this.leaderboard = leaderboard;
+        this.trendingService = trendingService;
+        this.searchIndex = searchIndex;
     }
 
     /**
@@ -47,21 +82,36 @@ public class UserController {
      * ou inválido (UNAUTHORIZED_SESSION).
      *
      * @param userId ID do usuário logado, representando o "token"
-     * @return UserResponse com as informações do usuário
+     * @param fields campos a retornar, separados por vírgula (opcional)
+     * @param include associações a embutir, ex.: {@code cars} (opcional)
+     * @return JSON de UserResponse com as informações do usuário
      */
     @GetMapping("/me")
-    public ResponseEntity<UserResponse> getMe(@RequestParam(required = false) Long userId) {
+    public ResponseEntity<?> getMe(@RequestParam(required = false) Long userId,
+                                   @RequestParam(required = false) String fields,
+                                   @RequestParam(required = false) String include) {
         validateUser(userId);
-        UserEntity user = service.getUserById(userId);
-        return ResponseEntity.ok(UserMapper.toResponse(user));
+        Optional<UserFieldSelection> selection = UserFieldSelection.parse(fields, include);
+        if (selection.isPresent()) {
+            return ResponseEntity.ok(service.getUserView(userId, selection.get()));
+        }
+        return responseCache.toResponseEntity(userId, () -> UserMapper.toResponse(service.getUserById(userId)));
     }
 
     /**
      * Retorna todos os usuários do sistema (apenas como exemplo).
+     * Com {@code fields}/{@code include}, apenas as colunas e associações pedidas são buscadas.
+     * @param fields campos a retornar, separados por vírgula (opcional)
+     * @param include associações a embutir, ex.: {@code cars} (opcional)
      * @return lista de UserResponse
      */
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(required = false) String fields,
+                                    @RequestParam(required = false) String include) {
+        Optional<UserFieldSelection> selection = UserFieldSelection.parse(fields, include);
+        if (selection.isPresent()) {
+            return ResponseEntity.ok(service.getUserViews(selection.get(), false, null));
+        }
         List<UserResponse> responses = service.getAllUsers().stream()
                 .map(UserMapper::toResponse)
                 .collect(Collectors.toList());
@@ -71,12 +121,19 @@ public class UserController {
     /**
      * Retorna um usuário específico pelo ID.
      * @param id id do usuário
-     * @return UserResponse com os dados do usuário
+     * @param fields campos a retornar, separados por vírgula (opcional)
+     * @param include associações a embutir, ex.: {@code cars} (opcional)
+     * @return JSON de UserResponse com os dados do usuário
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponse> getById(@PathVariable Long id) {
-        UserEntity user = service.getUserById(id);
-        return ResponseEntity.ok(UserMapper.toResponse(user));
+    public ResponseEntity<?> getById(@PathVariable Long id,
+                                     @RequestParam(required = false) String fields,
+                                     @RequestParam(required = false) String include) {
+        Optional<UserFieldSelection> selection = UserFieldSelection.parse(fields, include);
+        if (selection.isPresent()) {
+            return ResponseEntity.ok(service.getUserView(id, selection.get()));
+        }
+        return responseCache.toResponseEntity(id, () -> UserMapper.toResponse(service.getUserById(id)));
     }
 
     /**
@@ -93,15 +150,35 @@ public class UserController {
 
     /**
      * Atualiza os dados de um usuário existente.
+     * Se o cabeçalho If-Match for informado e não corresponder ao ETag atual, retorna 412.
      * @param id id do usuário a ser atualizado
      * @param updatedUser objeto de requisição com dados para atualizar
+     * @param ifMatch ETag esperado do usuário (opcional)
      * @return UserResponse com os dados do usuário atualizado
      */
     @PutMapping("/{id}")
-    public ResponseEntity<UserResponse> update(@PathVariable Long id, @Valid @RequestBody UserRequestUpdate updatedUser) {
+    public ResponseEntity<UserResponse> update(@PathVariable Long id, @Valid @RequestBody UserRequestUpdate updatedUser,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         UserEntity userEntity = UserMapper.toEntity(updatedUser);
-        UserEntity updated = service.updateUser(id, userEntity);
-        return ResponseEntity.ok(UserMapper.toResponse(updated));
+        UserEntity updated = service.updateUser(id, userEntity, ifMatch);
+        UserResponse response = UserMapper.toResponse(updated);
+        return ResponseEntity.ok().eTag(ETagUtil.forUser(response)).body(response);
+    }
+
+    /**
+     * Atualiza parcialmente um usuário com um JSON Merge Patch (RFC 7396).
+     * Apenas as colunas alteradas são escritas e a senha só é recodificada quando presente no patch.
+     * @param id id do usuário a ser atualizado
+     * @param patch documento de merge patch
+     * @param ifMatch ETag esperado do usuário (opcional); se não corresponder, retorna 412
+     * @return UserResponse com os dados do usuário atualizado
+     */
+    @PatchMapping(path = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<UserResponse> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserEntity updated = service.patchUser(id, patch, ifMatch);
+        UserResponse response = UserMapper.toResponse(updated);
+        return ResponseEntity.ok().eTag(ETagUtil.forUser(response)).body(response);
     }
 
     /**
@@ -153,18 +230,123 @@ public class UserController {
 
     /**
      * Retorna a lista de usuários ordenados pelo total de uso (desc),
-     * desempate pelo login (asc).
+     * desempate pelo login (asc). A ordem vem do ranking em memória; com {@code limit},
+     * apenas os K primeiros são carregados do banco.
+     * Com {@code sort=trending}, a ordem é a do uso recente (decaimento exponencial) e a lista é
+     * paginada no banco com {@code page} e {@code size}.
+     * @param fields campos a retornar, separados por vírgula (opcional)
+     * @param include associações a embutir, ex.: {@code cars} (opcional)
+     * @param limit quantidade máxima de usuários (opcional)
+     * @param sort {@code usage} (padrão, uso acumulado) ou {@code trending}
+     * @param page página, a partir de 0 (apenas com {@code sort=trending})
+     * @param size tamanho da página, de 1 a {@value #MAX_PAGE_SIZE} (apenas com {@code sort=trending})
      * @return lista de UserResponse ordenada
      */
     @GetMapping("/ordered")
-    public ResponseEntity<List<UserResponse>> getUsersOrdered() {
-        List<UserResponse> ordered = service.getAllUsers().stream()
-                .sorted(Comparator.comparingInt(UserEntity::getTotalUsageCount)
-                        .reversed()
-                        .thenComparing(UserEntity::getLogin))
-                .map(UserMapper::toResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ordered);
+    public ResponseEntity<?> getUsersOrdered(@RequestParam(required = false) String fields,
+                                             @RequestParam(required = false) String include,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(defaultValue = "usage") String sort,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "20") int size) {
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("limit deve ser maior que zero");
+        }
+        if (UsageSort.from(sort) == UsageSort.TRENDING) {
+            if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("page deve ser >= 0 e size entre 1 e " + MAX_PAGE_SIZE);
+            }
+            if (fields != null || include != null) {
+                throw new IllegalArgumentException("fields e include não são suportados com sort=trending");
+            }
+            return ResponseEntity.ok(trendingService.getTrendingUsers(page, size).stream()
+                    .map(UserMapper::toResponse)
+                    .collect(Collectors.toList()));
+        }
+        Optional<UserFieldSelection> selection = UserFieldSelection.parse(fields, include);
+        if (selection.isPresent()) {
+            // o limite vai para a consulta: só os K primeiros usuários (e os seus carros) são carregados
+            return ResponseEntity.ok(service.getUserViews(selection.get(), true, limit));
+        }
+
+        List<UserEntity> users;
+        if (!leaderboard.isReady()) {
+            // ranking ainda em carga: ordena em memória
+            users = service.getAllUsers().stream()
+                    .sorted(Comparator.comparingInt(UserEntity::getTotalUsageCount)
+                            .reversed()
+                            .thenComparing(UserEntity::getLogin))
+                    .limit(limit == null ? Long.MAX_VALUE : limit)
+                    .collect(Collectors.toList());
+        } else if (limit != null) {
+            users = service.getUsersByIds(leaderboard.topIds(limit));
+        } else {
+            Map<Long, UserEntity> byId = service.getAllUsers().stream()
+                    .collect(Collectors.toMap(UserEntity::getId, user -> user));
+            users = leaderboard.topIds(Integer.MAX_VALUE).stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+        return ResponseEntity.ok(users.stream().map(UserMapper::toResponse).collect(Collectors.toList()));
+    }
+
+    /**
+     * Busca usuários por trechos de nome, sobrenome, e-mail ou login, tolerando erros de digitação.
+     * A ordem e os IDs da página vêm do índice em memória; os usuários são carregados com uma única consulta.
+     * @param q texto da busca (até {@value #MAX_QUERY_LENGTH} caracteres)
+     * @param page página pedida (a partir de 0)
+     * @param size tamanho da página, de 1 a {@value #MAX_PAGE_SIZE}
+     * @return usuários da página, do mais ao menos relevante (503 enquanto o índice é carregado)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchResponse> search(@RequestParam String q,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank() || q.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q deve ter entre 1 e " + MAX_QUERY_LENGTH + " caracteres");
+        }
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page deve ser >= 0 e size entre 1 e " + MAX_PAGE_SIZE);
+        }
+        if (!searchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+
+        UserSearchIndex.Page result = searchIndex.search(q, page, size);
+        Map<Long, Double> scores = result.matches().stream()
+                .collect(Collectors.toMap(UserSearchIndex.Match::id, UserSearchIndex.Match::score));
+        List<UserSearchHit> hits = service.getUsersByIds(result.matches().stream()
+                        .map(UserSearchIndex.Match::id)
+                        .toList()).stream()
+                .map(user -> new UserSearchHit(scores.get(user.getId()), UserMapper.toResponse(user)))
+                .toList();
+        return ResponseEntity.ok(new UserSearchResponse(hits, result.total(), page, size));
+    }
+
+    /**
+     * Retorna os K primeiros do ranking de uso, sem acessar o banco.
+     * @param limit quantidade de posições (padrão 10)
+     * @return posições em ordem de ranking
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit deve ser maior que zero");
+        }
+        return ResponseEntity.ok(leaderboard.top(limit));
+    }
+
+    /**
+     * Retorna a posição de um usuário no ranking de uso, sem acessar o banco.
+     * @param id id do usuário
+     * @return posição do usuário
+     */
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<LeaderboardEntry> getRank(@PathVariable Long id) {
+        return leaderboard.rankOf(id)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new UserException(UserErrorCode.USER_NOT_FOUND));
     }
 
     /**
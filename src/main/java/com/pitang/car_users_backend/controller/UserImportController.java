@@ -0,0 +1,69 @@
+package com.pitang.car_users_backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.UserImportSummary;
+import com.pitang.car_users_backend.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Controlador responsável pela importação em massa de usuários.
+ */
+@RestController
+@RequestMapping("/api/users/import")
+public class UserImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserImportService service;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Construtor que injeta o serviço de importação e o ObjectMapper usado na resposta.
+     * @param service instância de UserImportService
+     * @param objectMapper serializador dos resultados
+     */
+    public UserImportController(UserImportService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Importa usuários enviados em NDJSON (um {@code UserRequest} por linha).
+     * O corpo é lido em fluxo e a resposta, também em NDJSON, traz um resultado por linha,
+     * enviado ao cliente assim que cada bloco é gravado; a última linha traz os totais
+     * ({@code {"imported": n, "failed": m}}).
+     * @param request requisição com o corpo NDJSON
+     * @param response resposta onde os resultados são escritos
+     * @throws IOException em caso de falha na leitura ou escrita
+     */
+    @PostMapping(consumes = NDJSON)
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        UserImportSummary summary = service.importUsers(request.getInputStream(), results -> write(out, results));
+        write(out, List.of(summary));
+    }
+
+    private void write(OutputStream out, List<?> lines) {
+        try {
+            for (Object line : lines) {
+                out.write(objectMapper.writeValueAsBytes(line));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.pitang.car_users_backend.datasource;
+
+import io.micrometer.common.lang.NonNull;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtro que reporta quantas conexões de banco cada requisição HTTP obteve,
+ * publicando a distribuição na métrica {@code http.server.requests.db.connections}.
+ */
+@Component
+public class ConnectionAcquisitionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionAcquisitionFilter.class);
+
+    private final ConnectionAcquisitionTracker tracker;
+    private final DistributionSummary connectionsPerRequest;
+
+    public ConnectionAcquisitionFilter(ConnectionAcquisitionTracker tracker, MeterRegistry meterRegistry) {
+        this.tracker = tracker;
+        this.connectionsPerRequest = DistributionSummary.builder("http.server.requests.db.connections")
+                .description("Conexões de banco obtidas por requisição")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        tracker.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int acquired = tracker.end();
+            connectionsPerRequest.record(acquired);
+            logger.debug("{} {} obteve {} conexão(ões) de banco", request.getMethod(), request.getRequestURI(), acquired);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pitang.car_users_backend.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Contabiliza, por requisição, quantas conexões físicas foram obtidas dos pools.
+ * A contagem é mantida na thread da requisição entre {@link #begin()} e {@link #end()}.
+ */
+@Component
+public class ConnectionAcquisitionTracker {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Inicia a contagem para a thread atual.
+     */
+    public void begin() {
+        CURRENT.set(new int[1]);
+    }
+
+    /**
+     * Encerra a contagem da thread atual.
+     * @return número de conexões obtidas desde {@link #begin()}
+     */
+    public int end() {
+        int[] counter = CURRENT.get();
+        CURRENT.remove();
+        return counter == null ? 0 : counter[0];
+    }
+
+    /**
+     * Envolve um DataSource para que cada conexão obtida seja contabilizada.
+     * @param target DataSource real (pool)
+     * @return DataSource instrumentado
+     */
+    public DataSource track(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                record();
+                return super.getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                record();
+                return super.getConnection(username, password);
+            }
+        };
+    }
+
+    private void record() {
+        int[] counter = CURRENT.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+    }
+}
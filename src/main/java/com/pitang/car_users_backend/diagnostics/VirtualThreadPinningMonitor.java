@@ -0,0 +1,120 @@
+package com.pitang.car_users_backend.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exporta como métricas os eventos JFR {@code jdk.VirtualThreadPinned}: uma thread virtual que bloqueia
+ * dentro de {@code synchronized} (ou de código nativo) prende a thread portadora, reduzindo a quantidade de
+ * requisições atendidas em paralelo.
+ * <p>
+ * Cada fixação com duração a partir de {@code app.virtual-threads.pinned-threshold-ms} é registrada no
+ * timer {@code jvm.threads.virtual.pinned}, com a tag {@code site} apontando o primeiro método fora do JDK
+ * na pilha. Para limitar a cardinalidade, apenas os primeiros {@value #MAX_SITES} locais distintos recebem
+ * tag própria; os demais são agrupados em {@code other}. Ativo apenas com
+ * {@code spring.threads.virtual.enabled=true}.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /** Quantidade máxima de locais de fixação com tag própria. */
+    static final int MAX_SITES = 50;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${app.virtual-threads.pinned-threshold-ms:20}") long thresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    /**
+     * Inicia a leitura contínua dos eventos de fixação.
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::record);
+            stream.startAsync();
+        } catch (RuntimeException ex) {
+            // JFR indisponível na JVM: a aplicação segue sem a métrica
+            stream = null;
+            logger.warn("Monitoramento de fixação de threads virtuais desativado: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Registra uma fixação no timer do local em que ocorreu.
+     * @param event evento {@code jdk.VirtualThreadPinned}
+     */
+    void record(RecordedEvent event) {
+        String site = site(event.getStackTrace());
+        if (!sites.contains(site)) {
+            if (sites.size() < MAX_SITES) {
+                sites.add(site);
+            } else {
+                site = "other";
+            }
+        }
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Tempo em que threads virtuais prenderam a thread portadora")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        logger.debug("Thread virtual fixada por {} ms em {}", event.getDuration().toMillis(), site);
+    }
+
+    /**
+     * Primeiro método da pilha fora do JDK, onde está o {@code synchronized} ou a chamada que bloqueou.
+     * @param stackTrace pilha do evento (pode ser null)
+     * @return {@code Classe.metodo}, ou {@code unknown}
+     */
+    static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,29 @@
+package com.pitang.car_users_backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO de uma operação de {@code POST /api/cars/batch}.
+ * {@code CREATE} exige {@code car}; {@code UPDATE} exige {@code id} e {@code car}; {@code DELETE} exige {@code id}.
+ * Os dados do carro são validados por item, para que um item inválido não rejeite o lote inteiro.
+ */
+@Setter
+@Getter
+public class CarBatchOperation {
+
+    /**
+     * Tipos de operação aceitos no lote.
+     */
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+
+    @NotNull(message = "A operação não pode ser nula")
+    private Type op;
+
+    private Long id;
+
+    private CarRequest car;
+}
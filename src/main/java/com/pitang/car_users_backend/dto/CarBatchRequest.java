@@ -0,0 +1,26 @@
+package com.pitang.car_users_backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO de {@code POST /api/cars/batch}: operações executadas em uma única transação.
+ */
+@Setter
+@Getter
+public class CarBatchRequest {
+
+    /**
+     * Quantidade máxima de itens por lote (operações ou IDs).
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
+    @NotEmpty(message = "A lista de operações não pode ser vazia")
+    @Size(max = MAX_BATCH_SIZE, message = "O lote pode ter no máximo 100 operações")
+    private List<@Valid CarBatchOperation> operations;
+}
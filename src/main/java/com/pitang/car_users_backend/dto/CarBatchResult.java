@@ -0,0 +1,61 @@
+package com.pitang.car_users_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO com o resultado de um item de lote de carros.
+ * {@code status} segue os códigos HTTP que a operação isolada retornaria (200, 201, 204 ou 400).
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CarBatchResult {
+    private int index;
+    private CarBatchOperation.Type op;
+    private Long id;
+    private int status;
+    private CarResponse car;
+    private String message;
+    private Integer errorCode;
+
+    /**
+     * Cria um resultado de sucesso.
+     * @param index posição do item no lote
+     * @param op tipo de operação
+     * @param status código HTTP equivalente
+     * @param id ID do carro
+     * @param car carro resultante (null para remoções)
+     * @return resultado do item
+     */
+    public static CarBatchResult success(int index, CarBatchOperation.Type op, int status, Long id, CarResponse car) {
+        CarBatchResult result = new CarBatchResult();
+        result.setIndex(index);
+        result.setOp(op);
+        result.setStatus(status);
+        result.setId(id);
+        result.setCar(car);
+        return result;
+    }
+
+    /**
+     * Cria um resultado de falha com o mesmo código e mensagem de {@link com.pitang.car_users_backend.exception.CarException}.
+     * @param index posição do item no lote
+     * @param op tipo de operação
+     * @param id ID do carro (pode ser null)
+     * @param errorCode código do erro
+     * @return resultado do item
+     */
+    public static CarBatchResult failure(int index, CarBatchOperation.Type op, Long id, CarErrorCode errorCode) {
+        CarBatchResult result = new CarBatchResult();
+        result.setIndex(index);
+        result.setOp(op);
+        result.setId(id);
+        result.setStatus(400);
+        result.setMessage(errorCode.getMessage());
+        result.setErrorCode(errorCode.getCode());
+        return result;
+    }
+}
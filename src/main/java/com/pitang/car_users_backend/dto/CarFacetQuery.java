@@ -0,0 +1,18 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.List;
+
+/**
+ * Filtros da busca facetada de carros. Valores de um mesmo filtro são combinados com OU e
+ * filtros diferentes, com E; filtros vazios ou nulos não restringem a busca.
+ *
+ * @param colors cores aceitas (sem diferenciar maiúsculas)
+ * @param yearFrom menor ano de fabricação (inclusive)
+ * @param yearTo maior ano de fabricação (inclusive)
+ * @param modelPrefixes prefixos de palavras do modelo; palavras de um mesmo prefixo devem todas casar
+ * @param after ID do último carro da página anterior (0 na primeira página)
+ * @param size tamanho da página
+ */
+public record CarFacetQuery(List<String> colors, Integer yearFrom, Integer yearTo, List<String> modelPrefixes,
+                            long after, int size) {
+}
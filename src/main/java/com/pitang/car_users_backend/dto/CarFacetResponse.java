@@ -0,0 +1,18 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.List;
+
+/**
+ * Página da busca facetada de carros com as contagens por faceta. A contagem de cada faceta considera
+ * os demais filtros, mas não o da própria faceta.
+ *
+ * @param cars carros da página, por ID
+ * @param nextAfter valor de {@code after} para a próxima página (null na última)
+ * @param total quantidade de carros que atendem aos filtros
+ * @param colors contagens por cor
+ * @param years contagens por ano de fabricação
+ * @param models contagens por modelo
+ */
+public record CarFacetResponse(List<CarResponse> cars, Long nextAfter, int total, List<FacetCount<String>> colors,
+                               List<FacetCount<Integer>> years, List<FacetCount<String>> models) {
+}
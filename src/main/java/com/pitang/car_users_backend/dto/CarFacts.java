@@ -0,0 +1,26 @@
+package com.pitang.car_users_backend.dto;
+
+import com.pitang.car_users_backend.model.Car;
+
+/**
+ * Dados de um carro usados pelas estatísticas da frota e pelo índice de busca.
+ *
+ * @param id ID do carro
+ * @param userId ID do dono (pode ser null)
+ * @param model modelo
+ * @param year ano de fabricação
+ * @param color cor
+ * @param usageCount contador de uso
+ */
+public record CarFacts(Long id, Long userId, String model, Integer year, String color, int usageCount) {
+
+    /**
+     * Copia os dados de um carro.
+     * @param car carro
+     * @return dados do carro
+     */
+    public static CarFacts of(Car car) {
+        Long userId = car.getUser() == null ? null : car.getUser().getId();
+        return new CarFacts(car.getId(), userId, car.getModel(), car.getYear(), car.getColor(), car.getUsageCount());
+    }
+}
@@ -0,0 +1,13 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Quantidade de carros e total de uso de uma combinação de modelo, ano e cor.
+ *
+ * @param model modelo
+ * @param year ano de fabricação
+ * @param color cor
+ * @param cars quantidade de carros
+ * @param usage soma do contador de uso
+ */
+public record CarGroupTotals(String model, Integer year, String color, long cars, long usage) {
+}
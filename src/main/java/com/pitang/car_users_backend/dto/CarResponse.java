@@ -16,4 +16,5 @@ public class CarResponse {
     private String color;
     private int usageCount;
     private String photoUrl;
+    private Long version;
 }
\ No newline at end of file
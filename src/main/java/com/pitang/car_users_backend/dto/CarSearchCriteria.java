@@ -0,0 +1,29 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Filtros da busca de carros no banco, paginada pelo ID (keyset). Filtros nulos não restringem a busca.
+ * <p>
+ * Modelo, cor, dono e prefixo da placa são filtros de entrada de índices; ao menos um deles é obrigatório.
+ * A faixa de ano apenas refina o resultado.
+ *
+ * @param model modelo (igualdade)
+ * @param color cor (igualdade)
+ * @param yearFrom menor ano de fabricação (inclusive)
+ * @param yearTo maior ano de fabricação (inclusive)
+ * @param platePrefix prefixo da placa
+ * @param ownerId ID do dono
+ * @param after ID do último carro da página anterior (0 na primeira página)
+ * @param size tamanho da página
+ */
+public record CarSearchCriteria(String model, String color, Integer yearFrom, Integer yearTo, String platePrefix,
+                                Long ownerId, long after, int size) {
+
+    /**
+     * Indica se a busca tem algum filtro atendido pela coluna inicial de um índice.
+     * O prefixo da placa é atendido por {@code idx_car_license_plate} ({@code LIKE 'x%'}).
+     * @return true se modelo, cor, dono ou prefixo da placa foram informados
+     */
+    public boolean hasIndexedFilter() {
+        return model != null || color != null || ownerId != null || platePrefix != null;
+    }
+}
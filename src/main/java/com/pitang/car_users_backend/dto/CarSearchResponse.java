@@ -0,0 +1,12 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.List;
+
+/**
+ * Página da busca de carros no banco.
+ *
+ * @param cars carros da página, por ID
+ * @param nextAfter valor de {@code after} para a próxima página (null quando a página veio incompleta)
+ */
+public record CarSearchResponse(List<CarResponse> cars, Long nextAfter) {
+}
@@ -0,0 +1,16 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.List;
+
+/**
+ * Estatísticas da frota: totais gerais e por modelo, ano e cor (mais carros primeiro).
+ *
+ * @param cars quantidade de carros
+ * @param usage soma do contador de uso
+ * @param byModel totais por modelo
+ * @param byYear totais por ano de fabricação
+ * @param byColor totais por cor
+ */
+public record CarStats(long cars, long usage, List<CarStatsGroup<String>> byModel,
+                       List<CarStatsGroup<Integer>> byYear, List<CarStatsGroup<String>> byColor) {
+}
@@ -0,0 +1,12 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Quantidade de carros e total de uso de um valor (modelo, ano ou cor).
+ *
+ * @param value valor agrupado
+ * @param cars quantidade de carros
+ * @param usage soma do contador de uso
+ * @param <T> tipo do valor
+ */
+public record CarStatsGroup<T>(T value, long cars, long usage) {
+}
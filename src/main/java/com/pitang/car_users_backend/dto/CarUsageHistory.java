@@ -0,0 +1,17 @@
+package com.pitang.car_users_backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Histórico de uso de um carro em um período.
+ *
+ * @param carId ID do carro
+ * @param granularity granularidade dos intervalos
+ * @param from início do período (inclusive)
+ * @param to fim do período (exclusive)
+ * @param buckets intervalos com uso, em ordem cronológica (intervalos sem uso são omitidos)
+ */
+public record CarUsageHistory(Long carId, UsageGranularity granularity, LocalDateTime from, LocalDateTime to,
+                              List<UsageBucket> buckets) {
+}
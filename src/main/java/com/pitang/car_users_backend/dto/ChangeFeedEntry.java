@@ -0,0 +1,19 @@
+package com.pitang.car_users_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.model.ChangeLogEntry;
+
+/**
+ * Alteração entregue pelo feed incremental: a última alteração de cada entidade desde o token.
+ *
+ * @param entity tipo da entidade
+ * @param id ID da entidade
+ * @param change tipo da alteração
+ * @param user estado atual do usuário (apenas para usuários não removidos)
+ * @param car estado atual do carro (apenas para carros não removidos)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeFeedEntry(ChangeLogEntry.EntityType entity, Long id, ChangeType change,
+                              UserResponse user, CarResponse car) {
+}
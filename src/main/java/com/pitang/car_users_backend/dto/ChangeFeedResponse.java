@@ -0,0 +1,16 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.List;
+
+/**
+ * Resposta do feed incremental de alterações.
+ *
+ * @param changes alterações desde o token informado (vazia quando nada mudou)
+ * @param nextToken token a enviar na próxima chamada
+ * @param hasMore true se há mais alterações além deste bloco
+ * @param resetRequired true se o token é anterior à compactação do log (ou ausente): o cliente deve
+ *                      recarregar tudo e seguir com {@code nextToken}
+ */
+public record ChangeFeedResponse(List<ChangeFeedEntry> changes, long nextToken, boolean hasMore,
+                                 boolean resetRequired) {
+}
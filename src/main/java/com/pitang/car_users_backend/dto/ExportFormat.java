@@ -0,0 +1,49 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.Locale;
+
+/**
+ * Formatos aceitos pelas exportações ({@code ?format=ndjson|csv}).
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Retorna o tipo de mídia da resposta.
+     * @return tipo de mídia
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Retorna a extensão do arquivo exportado.
+     * @return extensão sem ponto
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Converte o parâmetro da requisição.
+     * @param value nome do formato (sem diferenciar maiúsculas)
+     * @return formato correspondente
+     * @throws IllegalArgumentException se o formato não for suportado
+     */
+    public static ExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+}
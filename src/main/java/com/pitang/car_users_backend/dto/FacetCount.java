@@ -0,0 +1,11 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Quantidade de carros com um valor de faceta (cor, ano ou modelo).
+ *
+ * @param value valor da faceta
+ * @param count quantidade de carros
+ * @param <T> tipo do valor
+ */
+public record FacetCount<T>(T value, int count) {
+}
@@ -0,0 +1,13 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Posição de um usuário no ranking de uso.
+ *
+ * @param rank posição (a partir de 1)
+ * @param id ID do usuário
+ * @param login login do usuário
+ * @param totalUsageCount total de uso
+ * @param total quantidade de usuários no ranking
+ */
+public record LeaderboardEntry(int rank, Long id, String login, int totalUsageCount, int total) {
+}
@@ -0,0 +1,18 @@
+package com.pitang.car_users_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Confirmação de um lote de {@code POST /api/cars/usage}, enviada assim que o lote é registrado.
+ *
+ * @param batch número do lote na requisição (a partir de 1)
+ * @param accepted eventos aceitos
+ * @param rejected eventos rejeitados (malformados, inválidos ou de carros de outro usuário)
+ * @param lsn posição do último evento aceito no log de uso (ausente se nenhum foi aceito)
+ * @param durable true se os eventos aceitos já estão em disco
+ * @param eventsPerSecond taxa de ingestão da requisição até este lote
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UsageBatchAck(int batch, int accepted, int rejected, Long lsn, boolean durable,
+                            double eventsPerSecond) {
+}
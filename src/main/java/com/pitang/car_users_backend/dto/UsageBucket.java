@@ -0,0 +1,12 @@
+package com.pitang.car_users_backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Quantidade de usos de um carro em um intervalo de tempo.
+ *
+ * @param start início do intervalo
+ * @param count quantidade de usos
+ */
+public record UsageBucket(LocalDateTime start, long count) {
+}
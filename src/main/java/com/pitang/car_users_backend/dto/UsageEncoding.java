@@ -0,0 +1,48 @@
+package com.pitang.car_users_backend.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos aceitos pela ingestão de uso ({@code POST /api/cars/usage}), escolhidos pelo Content-Type.
+ */
+public enum UsageEncoding {
+    /** Um objeto {@code {"carId":1,"count":1,"timestamp":1700000000000}} por linha. */
+    NDJSON("application/x-ndjson"),
+    /** Registros de 20 bytes, big-endian: carId (int64), count (int32) e timestamp em milissegundos (int64). */
+    BINARY(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+    /** Tamanho de um evento no formato binário. */
+    public static final int BINARY_EVENT_SIZE = 20;
+
+    private final String mediaType;
+
+    UsageEncoding(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Retorna o tipo de mídia do formato.
+     * @return tipo de mídia
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Converte o Content-Type da requisição.
+     * @param contentType Content-Type recebido
+     * @return formato correspondente
+     * @throws IllegalArgumentException se o formato não for suportado
+     */
+    public static UsageEncoding fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (UsageEncoding encoding : values()) {
+                if (type.isCompatibleWith(MediaType.parseMediaType(encoding.mediaType))) {
+                    return encoding;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported usage encoding: " + contentType);
+    }
+}
@@ -0,0 +1,11 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Uso de um carro reportado em lote.
+ *
+ * @param carId ID do carro
+ * @param count quantidade de usos
+ * @param timestamp instante do uso, em milissegundos desde a época (UTC)
+ */
+public record UsageEvent(long carId, int count, long timestamp) {
+}
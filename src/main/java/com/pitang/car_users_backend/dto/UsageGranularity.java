@@ -0,0 +1,41 @@
+package com.pitang.car_users_backend.dto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Granularidades do histórico de uso dos carros ({@code ?granularity=hour|day|month}).
+ */
+public enum UsageGranularity {
+    HOUR,
+    DAY,
+    MONTH;
+
+    /**
+     * Retorna o início do intervalo que contém o instante informado.
+     * @param time instante
+     * @return início da hora, do dia ou do mês
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Converte o parâmetro da requisição.
+     * @param value nome da granularidade (sem diferenciar maiúsculas)
+     * @return granularidade correspondente
+     * @throws IllegalArgumentException se a granularidade não for suportada
+     */
+    public static UsageGranularity from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported granularity: " + value);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Totais de uma requisição de {@code POST /api/cars/usage}.
+ *
+ * @param accepted eventos aceitos
+ * @param rejected eventos rejeitados
+ * @param batches quantidade de lotes
+ * @param eventsPerSecond taxa de ingestão da requisição
+ */
+public record UsageIngestSummary(long accepted, long rejected, int batches, double eventsPerSecond) {
+}
@@ -0,0 +1,27 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.Locale;
+
+/**
+ * Ordenações das listagens por uso ({@code ?sort=usage|trending}).
+ */
+public enum UsageSort {
+    /** Uso acumulado desde o cadastro. */
+    USAGE,
+    /** Uso com decaimento exponencial: usos recentes pesam mais. */
+    TRENDING;
+
+    /**
+     * Converte o parâmetro da requisição.
+     * @param value nome da ordenação (sem diferenciar maiúsculas)
+     * @return ordenação correspondente
+     * @throws IllegalArgumentException se a ordenação não for suportada
+     */
+    public static UsageSort from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort: " + value);
+        }
+    }
+}
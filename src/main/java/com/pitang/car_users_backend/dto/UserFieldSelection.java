@@ -0,0 +1,86 @@
+package com.pitang.car_users_backend.dto;
+
+import com.pitang.car_users_backend.exception.UserErrorCode;
+import com.pitang.car_users_backend.exception.UserException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Seleção de campos (sparse fieldset) das respostas de usuário, vinda de
+ * {@code ?fields=id,firstName,photoUrl} e {@code ?include=cars}.
+ * Os nomes são validados contra uma lista fixa de atributos de {@link UserResponse},
+ * o que permite usá-los diretamente na montagem da consulta.
+ *
+ * @param fields campos escalares selecionados, na ordem de {@link #SCALAR_FIELDS}
+ * @param includeCars se os carros devem ser carregados e embutidos
+ */
+public record UserFieldSelection(Set<String> fields, boolean includeCars) {
+
+    /**
+     * Campos escalares disponíveis (mesmos nomes dos atributos da entidade).
+     */
+    public static final List<String> SCALAR_FIELDS = List.of("id", "firstName", "lastName", "email", "birthday",
+            "login", "phone", "createdAt", "lastLogin", "photoUrl", "version");
+
+    /**
+     * Nome da associação de carros, aceito em {@code include} e em {@code fields}.
+     */
+    public static final String CARS = "cars";
+
+    /**
+     * Interpreta os parâmetros da requisição.
+     * Sem nenhum dos dois parâmetros, retorna vazio (resposta completa de sempre);
+     * sem {@code fields}, todos os campos escalares são selecionados.
+     * @param fields lista separada por vírgulas (pode ser null)
+     * @param include lista separada por vírgulas de associações (pode ser null)
+     * @return seleção de campos, se algum parâmetro foi informado
+     * @throws UserException INVALID_FIELDS para nomes desconhecidos ou seleção vazia
+     */
+    public static Optional<UserFieldSelection> parse(String fields, String include) {
+        if (fields == null && include == null) {
+            return Optional.empty();
+        }
+
+        boolean includeCars = false;
+        for (String name : split(include)) {
+            if (!CARS.equals(name)) {
+                throw new UserException(UserErrorCode.INVALID_FIELDS);
+            }
+            includeCars = true;
+        }
+
+        Set<String> selected = new LinkedHashSet<>();
+        if (fields == null) {
+            selected.addAll(SCALAR_FIELDS);
+        } else {
+            Set<String> requested = new LinkedHashSet<>(split(fields));
+            if (requested.remove(CARS)) {
+                includeCars = true;
+            }
+            if (!SCALAR_FIELDS.containsAll(requested)) {
+                throw new UserException(UserErrorCode.INVALID_FIELDS);
+            }
+            SCALAR_FIELDS.stream().filter(requested::contains).forEach(selected::add);
+        }
+
+        if (selected.isEmpty() && !includeCars) {
+            throw new UserException(UserErrorCode.INVALID_FIELDS);
+        }
+        return Optional.of(new UserFieldSelection(Collections.unmodifiableSet(selected), includeCars));
+    }
+
+    private static List<String> split(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+}
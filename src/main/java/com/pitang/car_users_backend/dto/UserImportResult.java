@@ -0,0 +1,55 @@
+package com.pitang.car_users_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO com o resultado de uma linha de {@code POST /api/users/import}.
+ * {@code status} segue os códigos HTTP que {@code POST /api/users} retornaria (201 ou 400),
+ * ou 500 quando o lote da linha não pôde ser gravado.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+    private long line;
+    private int status;
+    private Long id;
+    private String login;
+    private String message;
+    private Integer errorCode;
+
+    /**
+     * Cria o resultado de uma linha importada.
+     * @param line número da linha no arquivo (a partir de 1)
+     * @param id ID do usuário criado
+     * @param login login do usuário criado
+     * @return resultado da linha
+     */
+    public static UserImportResult created(long line, Long id, String login) {
+        UserImportResult result = new UserImportResult();
+        result.setLine(line);
+        result.setStatus(201);
+        result.setId(id);
+        result.setLogin(login);
+        return result;
+    }
+
+    /**
+     * Cria o resultado de uma linha rejeitada.
+     * @param line número da linha no arquivo (a partir de 1)
+     * @param status código HTTP equivalente
+     * @param message mensagem de erro
+     * @param errorCode código do erro (pode ser null)
+     * @return resultado da linha
+     */
+    public static UserImportResult failed(long line, int status, String message, Integer errorCode) {
+        UserImportResult result = new UserImportResult();
+        result.setLine(line);
+        result.setStatus(status);
+        result.setMessage(message);
+        result.setErrorCode(errorCode);
+        return result;
+    }
+}
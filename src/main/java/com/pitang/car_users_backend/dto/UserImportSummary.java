@@ -0,0 +1,10 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Totais de uma importação de usuários.
+ *
+ * @param imported linhas importadas
+ * @param failed linhas rejeitadas
+ */
+public record UserImportSummary(long imported, long failed) {
+}
@@ -24,4 +24,5 @@ public class UserResponse {
     private LocalDateTime createdAt;
     private LocalDateTime lastLogin;
     private String photoUrl;
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Projeção com os campos do usuário usados pela busca textual.
+ *
+ * @param id ID do usuário
+ * @param firstName primeiro nome
+ * @param lastName sobrenome
+ * @param email e-mail
+ * @param login login
+ */
+public record UserSearchFields(Long id, String firstName, String lastName, String email, String login) {
+}
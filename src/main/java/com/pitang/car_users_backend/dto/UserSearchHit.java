@@ -0,0 +1,10 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Usuário encontrado pela busca textual, com a pontuação usada na ordenação.
+ *
+ * @param score pontuação (maior primeiro)
+ * @param user dados do usuário
+ */
+public record UserSearchHit(double score, UserResponse user) {
+}
@@ -0,0 +1,14 @@
+package com.pitang.car_users_backend.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados da busca textual de usuários.
+ *
+ * @param results usuários da página, do mais ao menos relevante
+ * @param total quantidade de usuários encontrados
+ * @param page página retornada
+ * @param size tamanho da página
+ */
+public record UserSearchResponse(List<UserSearchHit> results, int total, int page, int size) {
+}
@@ -0,0 +1,11 @@
+package com.pitang.car_users_backend.dto;
+
+/**
+ * Projeção com os dados do usuário usados pelo ranking de uso.
+ *
+ * @param id ID do usuário
+ * @param login login do usuário
+ * @param totalUsageCount total de uso
+ */
+public record UserUsage(Long id, String login, int totalUsageCount) {
+}
@@ -0,0 +1,22 @@
+package com.pitang.car_users_backend.event;
+
+import com.pitang.car_users_backend.dto.CarFacts;
+
+/**
+ * Evento publicado pela camada de serviço quando um carro é criado, alterado ou removido.
+ * @param carId ID do carro
+ * @param userId ID do dono do carro (pode ser null)
+ * @param type tipo da alteração
+ * @param facts dados do carro após a alteração (null na remoção ou quando o carro não foi carregado)
+ * @param origin origem da alteração
+ */
+public record CarChangedEvent(Long carId, Long userId, ChangeType type, CarFacts facts, ChangeOrigin origin) {
+
+    public CarChangedEvent(Long carId, Long userId, ChangeType type) {
+        this(carId, userId, type, null);
+    }
+
+    public CarChangedEvent(Long carId, Long userId, ChangeType type, CarFacts facts) {
+        this(carId, userId, type, facts, ChangeOrigin.EDIT);
+    }
+}
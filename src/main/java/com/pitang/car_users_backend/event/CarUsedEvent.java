@@ -0,0 +1,13 @@
+package com.pitang.car_users_backend.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado a cada incremento de uso de um carro.
+ * @param carId ID do carro
+ * @param userId ID do dono do carro (null se o carro não tiver dono)
+ * @param usedAt instante do uso
+ * @param count quantidade de usos no instante
+ */
+public record CarUsedEvent(Long carId, Long userId, LocalDateTime usedAt, long count) {
+}
@@ -0,0 +1,13 @@
+package com.pitang.car_users_backend.event;
+
+/**
+ * Origem da alteração de um carro, para ouvintes que tratam de forma diferente escritas frequentes ou em massa.
+ */
+public enum ChangeOrigin {
+    /** Criação, edição ou remoção pelo usuário. */
+    EDIT,
+    /** Apenas o contador de uso mudou. */
+    USAGE,
+    /** Remoção de todos os carros do dono em um único comando. */
+    BULK_DELETE
+}
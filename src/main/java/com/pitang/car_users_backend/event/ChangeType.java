@@ -0,0 +1,10 @@
+package com.pitang.car_users_backend.event;
+
+/**
+ * Tipo de alteração sofrida por uma entidade.
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
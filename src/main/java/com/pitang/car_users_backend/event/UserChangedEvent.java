@@ -0,0 +1,9 @@
+package com.pitang.car_users_backend.event;
+
+/**
+ * Evento publicado pela camada de serviço quando um usuário é criado, alterado ou removido.
+ * @param userId ID do usuário
+ * @param type tipo da alteração
+ */
+public record UserChangedEvent(Long userId, ChangeType type) {
+}
@@ -0,0 +1,10 @@
+package com.pitang.car_users_backend.event;
+
+/**
+ * Evento publicado quando o total de uso de um usuário é recalculado (incremento de uso de um carro).
+ * @param userId ID do usuário
+ * @param login login do usuário
+ * @param totalUsageCount novo total de uso
+ */
+public record UserUsageChangedEvent(Long userId, String login, int totalUsageCount) {
+}
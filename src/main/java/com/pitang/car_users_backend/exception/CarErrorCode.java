@@ -14,7 +14,8 @@ public enum CarErrorCode {
     MISSING_FIELDS(5, "Missing fields"),
     CAR_NOT_FOUND(6, "Car not found"),
     UPLOAD_FAILED(7, "Failed to upload car photo"),
-    INVALID_PHOTO(8, "Invalid photo");
+    INVALID_PHOTO(8, "Invalid photo"),
+    PRECONDITION_FAILED(9, "Car was modified by another request");
 
     /**
      * -- GETTER --
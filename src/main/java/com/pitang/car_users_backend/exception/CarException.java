@@ -17,6 +17,14 @@ public class CarException extends RuntimeException {
         this.errorCode = errorCode;
     }
 
+    /**
+     * Retorna o código de erro do enum.
+     * @return código de erro
+     */
+    public CarErrorCode getErrorCode() {
+        return errorCode;
+    }
+
     /**
      * Retorna o código numérico do erro.
      * @return código do erro
@@ -1,6 +1,8 @@
 package com.pitang.car_users_backend.exception;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -14,14 +16,17 @@ import java.util.Map;
 public class GlobalExceptionHandler {
 
     /**
-     * Trata exceções de {@link UserException}, retornando status 400 e um JSON com mensagem e código.
+     * Trata exceções de {@link UserException}, retornando status 400 (ou 412 para pré-condição
+     * If-Match não satisfeita) e um JSON com mensagem e código.
      * @param ex exceção do tipo UserException
      * @return ResponseEntity com corpo JSON
      */
     @ExceptionHandler(UserException.class)
     public ResponseEntity<Map<String, Object>> handleUserException(UserException ex) {
+        HttpStatus status = ex.getErrorCode() == UserErrorCode.PRECONDITION_FAILED
+                ? HttpStatus.PRECONDITION_FAILED : HttpStatus.BAD_REQUEST;
         return ResponseEntity
-                .badRequest()
+                .status(status)
                 .body(Map.of(
                         "message", ex.getCustomMessage(),
                         "errorCode", ex.getCode()
@@ -44,18 +49,37 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Trata exceções de {@link CarException}, retornando status 400 e corpo JSON padronizado.
+     * Trata exceções de {@link CarException}, retornando status 400 (ou 412 para pré-condição
+     * If-Match não satisfeita) e corpo JSON padronizado.
      * @param ex exceção do tipo CarException
      * @return ResponseEntity com corpo JSON
      */
     @ExceptionHandler(CarException.class)
     public ResponseEntity<Map<String, Object>> handleCarException(CarException ex) {
+        HttpStatus status = ex.getErrorCode() == CarErrorCode.PRECONDITION_FAILED
+                ? HttpStatus.PRECONDITION_FAILED : HttpStatus.BAD_REQUEST;
         return ResponseEntity
-                .badRequest()
+                .status(status)
                 .body(Map.of(
                         "message", ex.getCustomMessage(),
                         "errorCode", ex.getCode()
                 ));
     }
 
+    /**
+     * Trata conflitos de versão detectados no flush (alteração concorrente entre a leitura
+     * e a escrita), retornando status 412.
+     * @param ex exceção de lock otimista
+     * @return ResponseEntity com corpo JSON
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(Map.of(
+                        "message", "Resource was modified by another request",
+                        "errorCode", HttpStatus.PRECONDITION_FAILED.value()
+                ));
+    }
+
 }
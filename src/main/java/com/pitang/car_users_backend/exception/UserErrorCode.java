@@ -16,7 +16,8 @@ public enum UserErrorCode {
     UPLOAD_FAILED(7, "Failed to upload user photo"),
     UNAUTHORIZED(8, "Unauthorized"),
     UNAUTHORIZED_SESSION(9, "Unauthorized - invalid session"),
-    INVALID_PHOTO(10, "Invalid photo");
+    INVALID_PHOTO(10, "Invalid photo"),
+    PRECONDITION_FAILED(11, "User was modified by another request");
 
     /**
      * -- GETTER --
@@ -0,0 +1,197 @@
+package com.pitang.car_users_backend.leaderboard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Treap com o tamanho de cada subárvore, ordenada por {@link Key}.
+ * Inserção, remoção e posição de uma chave custam O(log n) esperado; os K primeiros, O(log n + K).
+ * Não é thread-safe: o acesso é sincronizado por {@link UsageLeaderboard}.
+ */
+final class OrderStatisticTree {
+
+    /**
+     * Chave do ranking: maior total de uso primeiro, depois login e ID em ordem crescente.
+     * @param totalUsageCount total de uso
+     * @param login login do usuário
+     * @param id ID do usuário
+     */
+    record Key(int totalUsageCount, String login, long id) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Integer.compare(other.totalUsageCount, totalUsageCount);
+            if (result != 0) {
+                return result;
+            }
+            result = compareLogin(login, other.login);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+
+        private static int compareLogin(String a, String b) {
+            if (a == null || b == null) {
+                return a == null ? (b == null ? 0 : 1) : -1;
+            }
+            return a.compareTo(b);
+        }
+    }
+
+    private static final class Node {
+        private final Key key;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Key key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    /**
+     * Insere uma chave (que não pode já estar presente).
+     * @param key chave a inserir
+     */
+    void insert(Key key) {
+        root = insert(root, new Node(key, random.nextInt()));
+    }
+
+    /**
+     * Remove uma chave, se presente.
+     * @param key chave a remover
+     */
+    void remove(Key key) {
+        root = remove(root, key);
+    }
+
+    /**
+     * Retorna a posição (a partir de 1) de uma chave presente na árvore.
+     * @param key chave procurada
+     * @return posição da chave, ou 0 se ela não estiver na árvore
+     */
+    int rank(Key key) {
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                before += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return before + size(node.left) + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Retorna as K primeiras chaves, em ordem.
+     * @param limit quantidade máxima de chaves
+     * @return chaves em ordem de ranking
+     */
+    List<Key> first(int limit) {
+        List<Key> keys = new ArrayList<>(Math.min(limit, size()));
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (keys.size() < limit && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            keys.add(node.key);
+            node = node.right;
+        }
+        return keys;
+    }
+
+    private Node insert(Node node, Node created) {
+        if (node == null) {
+            return created;
+        }
+        if (created.priority > node.priority) {
+            split(node, created.key, created);
+            return update(created);
+        }
+        if (created.key.compareTo(node.key) < 0) {
+            node.left = insert(node.left, created);
+        } else {
+            node.right = insert(node.right, created);
+        }
+        return update(node);
+    }
+
+    private Node remove(Node node, Key key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = key.compareTo(node.key);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, key);
+        } else {
+            node.right = remove(node.right, key);
+        }
+        return update(node);
+    }
+
+    /**
+     * Divide a subárvore em chaves menores que {@code key} ({@code target.left}) e as demais ({@code target.right}).
+     */
+    private void split(Node node, Key key, Node target) {
+        if (node == null) {
+            target.left = null;
+            target.right = null;
+            return;
+        }
+        if (node.key.compareTo(key) < 0) {
+            split(node.right, key, target);
+            node.right = target.left;
+            target.left = update(node);
+        } else {
+            split(node.left, key, target);
+            node.left = target.right;
+            target.right = update(node);
+        }
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null || right == null) {
+            return left == null ? right : left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
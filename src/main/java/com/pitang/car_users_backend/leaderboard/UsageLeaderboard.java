@@ -0,0 +1,225 @@
+package com.pitang.car_users_backend.leaderboard;
+
+import com.pitang.car_users_backend.dto.LeaderboardEntry;
+import com.pitang.car_users_backend.dto.UserUsage;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.event.UserUsageChangedEvent;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Ranking de usuários por total de uso (maior primeiro, depois login), mantido em memória.
+ * <p>
+ * Cada incremento de uso atualiza o ranking em O(log n) a partir de {@link UserUsageChangedEvent};
+ * os K primeiros e a posição de um usuário são respondidos sem acessar o banco.
+ * O ranking é reconstruído do banco na inicialização; até lá, {@link #isReady()} retorna false.
+ */
+@Component
+public class UsageLeaderboard {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageLeaderboard.class);
+
+    private final UserRepository repository;
+    private final OrderStatisticTree tree = new OrderStatisticTree();
+    private final Map<Long, OrderStatisticTree.Key> keys = new HashMap<>();
+    // usuários removidos por eventos durante a leitura da reconstrução, que não podem voltar com ela
+    private final Set<Long> removedWhileRebuilding = new HashSet<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    public UsageLeaderboard(UserRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Reconstrói o ranking a partir do banco. Usuários atualizados por eventos durante a leitura
+     * mantêm o valor do evento, mais recente que o da consulta, e os removidos não voltam.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            tree.clear();
+            keys.clear();
+            removedWhileRebuilding.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<UserUsage> usages;
+        try {
+            usages = repository.findAllUsage();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (UserUsage usage : usages) {
+                if (!keys.containsKey(usage.id()) && !removedWhileRebuilding.contains(usage.id())) {
+                    put(usage.id(), usage.login(), usage.totalUsageCount());
+                }
+            }
+            rebuilding = false;
+            removedWhileRebuilding.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Ranking de uso reconstruído com {} usuários", usages.size());
+    }
+
+    /**
+     * Indica se o ranking já foi carregado do banco.
+     * @return true se o ranking estiver completo
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Insere ou reposiciona um usuário no ranking.
+     * @param id ID do usuário
+     * @param login login do usuário
+     * @param totalUsageCount total de uso
+     */
+    public void update(Long id, String login, int totalUsageCount) {
+        lock.writeLock().lock();
+        try {
+            put(id, login, totalUsageCount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um usuário do ranking.
+     * @param id ID do usuário
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            OrderStatisticTree.Key key = keys.remove(id);
+            if (key != null) {
+                tree.remove(key);
+            }
+            if (rebuilding) {
+                removedWhileRebuilding.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna os K primeiros do ranking.
+     * @param limit quantidade máxima de usuários
+     * @return posições em ordem de ranking
+     */
+    public List<LeaderboardEntry> top(int limit) {
+        lock.readLock().lock();
+        try {
+            int total = tree.size();
+            List<OrderStatisticTree.Key> first = tree.first(limit);
+            return IntStream.range(0, first.size())
+                    .mapToObj(i -> toEntry(i + 1, first.get(i), total))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna os IDs dos K primeiros do ranking.
+     * @param limit quantidade máxima de usuários
+     * @return IDs em ordem de ranking
+     */
+    public List<Long> topIds(int limit) {
+        lock.readLock().lock();
+        try {
+            return tree.first(limit).stream().map(OrderStatisticTree.Key::id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna a posição de um usuário no ranking.
+     * @param id ID do usuário
+     * @return posição, se o usuário estiver no ranking
+     */
+    public Optional<LeaderboardEntry> rankOf(Long id) {
+        lock.readLock().lock();
+        try {
+            OrderStatisticTree.Key key = keys.get(id);
+            return key == null ? Optional.empty() : Optional.of(toEntry(tree.rank(key), key, tree.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reposiciona o usuário com o novo total de uso.
+     * @param event evento de recálculo do total de uso
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsageChanged(UserUsageChangedEvent event) {
+        update(event.userId(), event.login(), event.totalUsageCount());
+    }
+
+    /**
+     * Inclui usuários criados, atualiza login/total de usuários alterados e remove os excluídos.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            remove(event.userId());
+            return;
+        }
+        repository.findUsageById(event.userId())
+                .ifPresentOrElse(usage -> update(usage.id(), usage.login(), usage.totalUsageCount()),
+                        () -> remove(event.userId()));
+    }
+
+    private void put(Long id, String login, int totalUsageCount) {
+        OrderStatisticTree.Key key = new OrderStatisticTree.Key(totalUsageCount, login, id);
+        OrderStatisticTree.Key previous = keys.put(id, key);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            tree.remove(previous);
+        }
+        tree.insert(key);
+    }
+
+    private static LeaderboardEntry toEntry(int rank, OrderStatisticTree.Key key, int total) {
+        return new LeaderboardEntry(rank, key.id(), key.login(), key.totalUsageCount(), total);
+    }
+}
@@ -4,20 +4,37 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.Objects;
 
 /**
  * Entidade que representa um carro no sistema.
+ * O UPDATE gerado contém apenas as colunas alteradas ({@link DynamicUpdate}).
+ * Os índices compostos atendem à busca de {@code GET /api/cars/search}: modelo, cor ou dono, seguidos do ano.
+ * Com filtro de dono, o banco pode preferir o índice da chave estrangeira {@code fk_car_user}, que segue a ordem do ID.
  */
 @Entity
+@Table(name = "car", indexes = {
+        @Index(name = "idx_car_model_year", columnList = "model, fabrication_year"),
+        @Index(name = "idx_car_color_year", columnList = "color, fabrication_year"),
+        @Index(name = "idx_car_user_year", columnList = "user_id, fabrication_year"),
+        @Index(name = "idx_car_license_plate", columnList = "license_plate")
+})
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "car")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Car {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_seq")
+    @SequenceGenerator(name = "car_seq", sequenceName = "car_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "fabrication_year")
@@ -32,16 +49,22 @@ public class Car {
     @Column(name = "color")
     private String color;
 
-    @ManyToOne
-    @JoinColumn(name = "user_id")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(name = "fk_car_user"))
     private UserEntity user;
 
+    // incrementado a cada uso sem alterar a versão, para não invalidar o If-Match de quem edita o carro
+    @OptimisticLock(excluded = true)
     @Column(name = "usage_count")
     private int usageCount;
 
     @Column(name = "photo_url")
     private String photoUrl;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
@@ -0,0 +1,42 @@
+package com.pitang.car_users_backend.model;
+
+import com.pitang.car_users_backend.dto.UsageGranularity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Total de usos de um carro em um intervalo (hora, dia ou mês).
+ * As horas antigas são agregadas em dias, e os dias antigos em meses.
+ */
+@Entity
+@Table(name = "car_usage_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_car_usage_rollup_bucket",
+                columnNames = {"car_id", "granularity", "bucket_start"}),
+        indexes = @Index(name = "idx_car_usage_rollup_granularity", columnList = "granularity, bucket_start"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CarUsageRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_usage_rollup_seq")
+    @SequenceGenerator(name = "car_usage_rollup_seq", sequenceName = "car_usage_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false)
+    private UsageGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "usage_count", nullable = false)
+    private long count;
+}
@@ -0,0 +1,57 @@
+package com.pitang.car_users_backend.model;
+
+import com.pitang.car_users_backend.event.ChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada do log de alterações consumido pelo feed incremental ({@code GET /api/changes}).
+ * O ID, crescente, é o token de sincronização devolvido aos clientes.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_change_log_created_at", columnList = "created_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeLogEntry {
+
+    /**
+     * Tipo da entidade alterada.
+     */
+    public enum EntityType {
+        USER,
+        CAR
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_seq")
+    @SequenceGenerator(name = "change_log_seq", sequenceName = "change_log_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /**
+     * Usuário a quem a alteração é entregue (o próprio usuário ou o dono do carro).
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ChangeType changeType;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package com.pitang.car_users_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pontuação de tendência (uso com decaimento exponencial) de um carro ou usuário.
+ * <p>
+ * A pontuação é guardada em "decaimento adiantado": {@code score = log2(Σ count · 2^((t - época) / meia-vida))}.
+ * A ordem entre as linhas não muda com o passar do tempo, então o banco ordena e pagina pela coluna
+ * diretamente; o valor decaído no instante {@code t} é {@code 2^(score - (t - época) / meia-vida)}.
+ */
+@Entity
+@Table(name = "trending_score",
+        uniqueConstraints = @UniqueConstraint(name = "uk_trending_score_entity",
+                columnNames = {"entity_type", "entity_id"}),
+        indexes = @Index(name = "idx_trending_score_rank", columnList = "entity_type, score"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingScore {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trending_score_seq")
+    @SequenceGenerator(name = "trending_score_seq", sequenceName = "trending_score_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private ChangeLogEntry.EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "score", nullable = false)
+    private double score;
+}
@@ -0,0 +1,27 @@
+package com.pitang.car_users_backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Último registro do log de uso aplicado ao banco. Gravado na mesma transação que os incrementos,
+ * para que a reaplicação na inicialização não conte um uso duas vezes.
+ */
+@Entity
+@Table(name = "usage_log_checkpoint")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsageLogCheckpoint {
+
+    /** Identificador da única linha da tabela. */
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "applied_lsn", nullable = false)
+    private long appliedLsn;
+}
@@ -4,6 +4,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,15 +20,21 @@ import java.util.Objects;
 /**
  * Entidade que representa um usuário do sistema.
  * Agora possui um campo persistido para armazenar o total de utilizações.
+ * O UPDATE gerado contém apenas as colunas alteradas ({@link DynamicUpdate}).
  */
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-login")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class UserEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_entity_seq")
+    @SequenceGenerator(name = "user_entity_seq", sequenceName = "user_entity_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "first_name")
@@ -37,6 +49,7 @@ public class UserEntity {
     @Column(name = "birthday")
     private LocalDate birthday;
 
+    @NaturalId(mutable = true)
     @Column(name = "login")
     private String login;
 
@@ -49,15 +62,24 @@ public class UserEntity {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // atualizado a cada login; não invalida o ETag/If-Match da edição do perfil
+    @OptimisticLock(excluded = true)
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-cars")
     private List<Car> cars = new ArrayList<>();
 
     @Column(name = "photo_url")
     private String photoUrl;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    // contador de uso, fora do controle de versão: usar um carro não conflita com a edição do usuário
+    @OptimisticLock(excluded = true)
     @Column(name = "total_usage_count")
     private int totalUsageCount;
 
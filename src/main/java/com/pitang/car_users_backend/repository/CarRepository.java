@@ -1,14 +1,24 @@
 package com.pitang.car_users_backend.repository;
 
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.CarGroupTotals;
 import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Repositório JPA para acesso à entidade {@link Car}.
  */
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car>, CarRepositoryCustom {
 
     /**
      * Retorna todos os carros de um usuário específico.
@@ -17,10 +27,102 @@ public interface CarRepository extends JpaRepository<Car, Long> {
      */
     List<Car> findAllByUser_Id(Long id);
 
+    /**
+     * Retorna, em uma única consulta, os carros de vários usuários.
+     * @param ids IDs dos usuários
+     * @return lista de carros ordenada pelo ID
+     */
+    List<Car> findAllByUser_IdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Retorna os carros informados já com o dono carregado, em uma única consulta.
+     * @param ids IDs dos carros
+     * @return carros encontrados
+     */
+    @Query("select c from Car c left join fetch c.user where c.id in :ids")
+    List<Car> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retorna uma página dos carros de um usuário, da maior para a menor pontuação de tendência;
+     * carros sem uso vêm por último, pelo ID.
+     * @param userId ID do usuário
+     * @param entityType tipo {@code CAR} das pontuações
+     * @param page página pedida
+     * @return carros da página
+     */
+    @Query("select c from Car c left join TrendingScore t on t.entityType = :entityType and t.entityId = c.id "
+            + "where c.user.id = :userId order by t.score desc nulls last, c.id")
+    List<Car> findByUserOrderByTrending(@Param("userId") Long userId,
+                                        @Param("entityType") ChangeLogEntry.EntityType entityType, Pageable page);
+
+    /**
+     * Retorna dono, modelo, ano, cor e uso de todos os carros, sem carregar as entidades.
+     * @return projeções dos carros
+     */
+    @Query("select new com.pitang.car_users_backend.dto.CarFacts(c.id, u.id, c.model, c.year, c.color, "
+            + "c.usageCount) from Car c left join c.user u")
+    List<CarFacts> findAllFacts();
+
+    /**
+     * Agrupa os carros por modelo, ano e cor, com a quantidade e a soma do uso de cada grupo.
+     * @return totais por grupo
+     */
+    @Query("select new com.pitang.car_users_backend.dto.CarGroupTotals(c.model, c.year, c.color, count(c), "
+            + "coalesce(sum(c.usageCount), 0L)) from Car c group by c.model, c.year, c.color")
+    List<CarGroupTotals> findGroupTotals();
+
     /**
      * Verifica se existe um carro pela placa.
      * @param licensePlate placa do carro
      * @return true se existir, false caso contrário
      */
     boolean existsByLicensePlate(String licensePlate);
+
+    /**
+     * Retorna, dentre as placas informadas, aquelas que já estão cadastradas.
+     * @param licensePlates placas a serem verificadas
+     * @return conjunto de placas já existentes
+     */
+    @Query("select c.licensePlate from Car c where c.licensePlate in :licensePlates")
+    Set<String> findExistingLicensePlates(@Param("licensePlates") Collection<String> licensePlates);
+
+    /**
+     * Retorna apenas os IDs dos carros de um usuário.
+     * @param userId ID do usuário
+     * @return IDs dos carros
+     */
+    @Query("select c.id from Car c where c.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Retorna, dentre os IDs informados, os dos carros que pertencem ao usuário.
+     * @param userId ID do usuário
+     * @param ids IDs dos carros
+     * @return IDs dos carros do usuário
+     */
+    @Query("select c.id from Car c where c.user.id = :userId and c.id in :ids")
+    Set<Long> findOwnedIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Remove, em um único comando, todos os carros de um usuário.
+     * O contexto de persistência é descarregado antes e limpo depois, já que o comando não passa por ele.
+     * @param userId ID do usuário
+     * @return quantidade de carros removidos
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Car c where c.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Soma {@code delta} ao contador de uso dos carros em um único comando, sem ler o valor atual, de modo
+     * que usos simultâneos não se sobrescrevem. O contador satura em {@link Integer#MAX_VALUE}.
+     * O contexto de persistência é descarregado antes e limpo depois; releia os carros para obter os novos valores.
+     * @param ids IDs dos carros
+     * @param delta incremento, não negativo
+     * @return quantidade de carros atualizados
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Car c set c.usageCount = case when c.usageCount > 2147483647 - :delta then 2147483647 "
+            + "else c.usageCount + :delta end where c.id in :ids")
+    int incrementUsage(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
 }
@@ -0,0 +1,21 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.model.Car;
+
+import java.util.function.Consumer;
+
+/**
+ * Consultas de {@link Car} implementadas manualmente em {@link CarRepositoryImpl}.
+ */
+public interface CarRepositoryCustom {
+
+    /**
+     * Percorre os carros de um usuário, ordenados pelo ID, com cursor somente-avanço e memória constante.
+     * O dono de cada carro não é carregado; apenas seu ID fica disponível.
+     * @param userId ID do dono
+     * @param fetchSize linhas buscadas por ida ao banco
+     * @param consumer consumidor de cada carro (entidade já desanexada após o bloco)
+     * @return quantidade de carros lidos
+     */
+    long scrollByUserId(Long userId, int fetchSize, Consumer<Car> consumer);
+}
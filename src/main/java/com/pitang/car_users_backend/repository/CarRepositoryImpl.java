@@ -0,0 +1,25 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.model.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Implementação de {@link CarRepositoryCustom}.
+ */
+public class CarRepositoryImpl implements CarRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long scrollByUserId(Long userId, int fetchSize, Consumer<Car> consumer) {
+        return ScrollSupport.scroll(entityManager, "select c from Car c where c.user.id = :userId order by c.id",
+                Car.class, Map.of("userId", userId), fetchSize, consumer);
+    }
+}
@@ -0,0 +1,65 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.dto.CarSearchCriteria;
+import com.pitang.car_users_backend.model.Car;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicados da busca de carros ({@link CarSearchCriteria}). Todos comparam colunas sem funções, para que
+ * os índices de {@link Car} possam atendê-los: igualdade em modelo, cor e dono, faixa de ano, prefixo da
+ * placa ({@code LIKE 'prefixo%'}) e o ID da página anterior.
+ */
+public final class CarSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private CarSpecifications() {
+    }
+
+    /**
+     * Combina os filtros informados com E.
+     * @param criteria filtros da busca
+     * @return especificação da busca
+     */
+    public static Specification<Car> matching(CarSearchCriteria criteria) {
+        Specification<Car> spec = idAfter(criteria.after());
+        if (criteria.model() != null) {
+            spec = spec.and(attributeEquals("model", criteria.model()));
+        }
+        if (criteria.color() != null) {
+            spec = spec.and(attributeEquals("color", criteria.color()));
+        }
+        if (criteria.ownerId() != null) {
+            spec = spec.and(ownedBy(criteria.ownerId()));
+        }
+        if (criteria.yearFrom() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("year"), criteria.yearFrom()));
+        }
+        if (criteria.yearTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("year"), criteria.yearTo()));
+        }
+        if (criteria.platePrefix() != null) {
+            spec = spec.and(plateStartsWith(criteria.platePrefix()));
+        }
+        return spec;
+    }
+
+    private static Specification<Car> attributeEquals(String attribute, String value) {
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    private static Specification<Car> ownedBy(Long ownerId) {
+        // user.id é lido da própria coluna user_id, sem junção
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), ownerId);
+    }
+
+    private static Specification<Car> plateStartsWith(String prefix) {
+        String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return (root, query, cb) -> cb.like(root.get("licensePlate"), escaped + "%", LIKE_ESCAPE);
+    }
+
+    private static Specification<Car> idAfter(long after) {
+        // sem condição na primeira página: o ID só ordena
+        return (root, query, cb) -> after > 0 ? cb.greaterThan(root.get("id"), after) : cb.conjunction();
+    }
+}
@@ -0,0 +1,59 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.dto.UsageGranularity;
+import com.pitang.car_users_backend.model.CarUsageRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório JPA para acesso ao histórico agregado de uso ({@link CarUsageRollup}).
+ */
+public interface CarUsageRollupRepository extends JpaRepository<CarUsageRollup, Long> {
+
+    /**
+     * Retorna os intervalos de um carro, de qualquer granularidade, que começam no período.
+     * @param carId ID do carro
+     * @param from início do período (inclusive)
+     * @param to fim do período (exclusive)
+     * @return intervalos em ordem cronológica
+     */
+    @Query("select r from CarUsageRollup r where r.carId = :carId and r.bucketStart >= :from "
+            + "and r.bucketStart < :to order by r.bucketStart")
+    List<CarUsageRollup> findBuckets(@Param("carId") Long carId, @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    /**
+     * Retorna os intervalos de uma granularidade dos carros informados a partir de um instante.
+     * @param granularity granularidade
+     * @param carIds IDs dos carros
+     * @param from início (inclusive)
+     * @return intervalos encontrados
+     */
+    @Query("select r from CarUsageRollup r where r.granularity = :granularity and r.carId in :carIds "
+            + "and r.bucketStart >= :from")
+    List<CarUsageRollup> findBuckets(@Param("granularity") UsageGranularity granularity,
+                                     @Param("carIds") Collection<Long> carIds, @Param("from") LocalDateTime from);
+
+    /**
+     * Retorna os intervalos de uma granularidade anteriores a um instante (candidatos à agregação).
+     * @param granularity granularidade
+     * @param before limite (exclusive)
+     * @return intervalos encontrados
+     */
+    List<CarUsageRollup> findByGranularityAndBucketStartBefore(UsageGranularity granularity, LocalDateTime before);
+
+    /**
+     * Remove, em um único comando, todo o histórico de um carro.
+     * @param carId ID do carro
+     * @return quantidade de intervalos removidos
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CarUsageRollup r where r.carId = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
+}
@@ -0,0 +1,54 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositório JPA para acesso ao log de alterações ({@link ChangeLogEntry}).
+ */
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    /**
+     * Retorna as alterações de um usuário posteriores ao token, em ordem de ID.
+     * @param userId ID do usuário
+     * @param since último token já recebido pelo cliente
+     * @param settledBefore apenas entradas gravadas até este instante
+     * @param page limite de entradas
+     * @return entradas do log
+     */
+    @Query("select e from ChangeLogEntry e where e.userId = :userId and e.id > :since "
+            + "and e.createdAt <= :settledBefore order by e.id")
+    List<ChangeLogEntry> findChanges(@Param("userId") Long userId, @Param("since") long since,
+                                     @Param("settledBefore") LocalDateTime settledBefore, Pageable page);
+
+    /**
+     * Retorna o maior ID já gravado até o instante informado.
+     * @param settledBefore limite de gravação
+     * @return maior ID, ou null se o log estiver vazio
+     */
+    @Query("select max(e.id) from ChangeLogEntry e where e.createdAt <= :settledBefore")
+    Long findMaxId(@Param("settledBefore") LocalDateTime settledBefore);
+
+    /**
+     * Retorna o menor ID presente no log.
+     * @return menor ID, ou null se o log estiver vazio
+     */
+    @Query("select min(e.id) from ChangeLogEntry e")
+    Long findMinId();
+
+    /**
+     * Remove as entradas até o ID informado.
+     * @param maxId maior ID a remover
+     * @return quantidade de entradas removidas
+     */
+    @Modifying
+    @Query("delete from ChangeLogEntry e where e.id <= :maxId")
+    int deleteUpTo(@Param("maxId") Long maxId);
+}
@@ -0,0 +1,71 @@
+package com.pitang.car_users_backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Leitura de consultas grandes com cursor somente-avanço, usada pelas exportações.
+ * As entidades são carregadas como somente leitura, sem passar pelo cache de segundo nível, e o
+ * contexto de persistência é limpo a cada {@code fetchSize} linhas, para que a memória não cresça
+ * com o tamanho da tabela.
+ */
+final class ScrollSupport {
+
+    private ScrollSupport() {
+    }
+
+    /**
+     * Percorre o resultado da consulta entregando cada linha ao consumidor.
+     * Se o consumidor lançar uma exceção (ex.: cliente desconectado), o cursor e o statement são
+     * fechados imediatamente, interrompendo a consulta.
+     * @param entityManager EntityManager da transação corrente
+     * @param hql consulta de seleção
+     * @param type tipo do resultado
+     * @param fetchSize linhas buscadas por ida ao banco
+     * @param consumer consumidor de cada linha
+     * @param <T> tipo do resultado
+     * @return quantidade de linhas lidas
+     */
+    static <T> long scroll(EntityManager entityManager, String hql, Class<T> type, int fetchSize, Consumer<T> consumer) {
+        return scroll(entityManager, hql, type, Map.of(), fetchSize, consumer);
+    }
+
+    /**
+     * Como {@link #scroll(EntityManager, String, Class, int, Consumer)}, para uma consulta com parâmetros.
+     * @param entityManager EntityManager da transação corrente
+     * @param hql consulta de seleção
+     * @param type tipo do resultado
+     * @param parameters valores dos parâmetros nomeados da consulta
+     * @param fetchSize linhas buscadas por ida ao banco
+     * @param consumer consumidor de cada linha
+     * @param <T> tipo do resultado
+     * @return quantidade de linhas lidas
+     */
+    static <T> long scroll(EntityManager entityManager, String hql, Class<T> type, Map<String, ?> parameters,
+                           int fetchSize, Consumer<T> consumer) {
+        Session session = entityManager.unwrap(Session.class);
+        SelectionQuery<T> query = session.createSelectionQuery(hql, type);
+        parameters.forEach(query::setParameter);
+        long rows = 0;
+        try (ScrollableResults<T> results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept(results.get());
+                if (++rows % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.model.ChangeLogEntry;
+import com.pitang.car_users_backend.model.TrendingScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório JPA para acesso às pontuações de tendência ({@link TrendingScore}).
+ */
+public interface TrendingScoreRepository extends JpaRepository<TrendingScore, Long> {
+
+    /**
+     * Retorna as pontuações já gravadas das entidades informadas.
+     * @param entityType tipo das entidades
+     * @param entityIds IDs das entidades
+     * @return pontuações encontradas
+     */
+    List<TrendingScore> findByEntityTypeAndEntityIdIn(ChangeLogEntry.EntityType entityType,
+                                                      Collection<Long> entityIds);
+
+    /**
+     * Remove as pontuações de entidades excluídas.
+     * @param entityType tipo das entidades
+     * @param entityIds IDs das entidades
+     * @return quantidade de linhas removidas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TrendingScore t where t.entityType = :entityType and t.entityId in :entityIds")
+    int deleteByEntityIds(@Param("entityType") ChangeLogEntry.EntityType entityType,
+                          @Param("entityIds") Collection<Long> entityIds);
+}
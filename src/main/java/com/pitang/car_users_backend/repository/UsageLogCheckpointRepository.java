@@ -0,0 +1,10 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.model.UsageLogCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositório JPA para acesso ao ponto de aplicação do log de uso ({@link UsageLogCheckpoint}).
+ */
+public interface UsageLogCheckpointRepository extends JpaRepository<UsageLogCheckpoint, Long> {
+}
@@ -1,14 +1,93 @@
 package com.pitang.car_users_backend.repository;
 
+import com.pitang.car_users_backend.dto.UserSearchFields;
+import com.pitang.car_users_backend.dto.UserUsage;
+import com.pitang.car_users_backend.model.ChangeLogEntry;
 import com.pitang.car_users_backend.model.UserEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repositório JPA para acesso à entidade {@link UserEntity}.
  */
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository extends JpaRepository<UserEntity, Long>, UserRepositoryCustom {
+
+    /**
+     * Busca um usuário pelo ID já com a coleção de carros carregada.
+     * @param id ID do usuário
+     * @return usuário encontrado, se existir
+     */
+    @EntityGraph(attributePaths = "cars")
+    Optional<UserEntity> findWithCarsById(Long id);
+
+    /**
+     * Retorna todos os usuários já com a coleção de carros carregada.
+     * @return lista de usuários
+     */
+    @EntityGraph(attributePaths = "cars")
+    @Query("select u from UserEntity u")
+    List<UserEntity> findAllWithCars();
+
+    /**
+     * Retorna, em uma única consulta, os usuários informados já com a coleção de carros carregada.
+     * @param ids IDs dos usuários
+     * @return usuários encontrados (sem ordem definida)
+     */
+    @EntityGraph(attributePaths = "cars")
+    List<UserEntity> findWithCarsByIdIn(Collection<Long> ids);
+
+    /**
+     * Retorna ID, login e total de uso de todos os usuários, sem carregar as entidades.
+     * @return projeções de uso
+     */
+    @Query("select new com.pitang.car_users_backend.dto.UserUsage(u.id, u.login, u.totalUsageCount) from UserEntity u")
+    List<UserUsage> findAllUsage();
+
+    /**
+     * Retorna os IDs de uma página de usuários, da maior para a menor pontuação de tendência;
+     * usuários sem uso vêm por último, pelo ID.
+     * @param entityType tipo {@code USER} das pontuações
+     * @param page página pedida
+     * @return IDs dos usuários da página, em ordem
+     */
+    @Query("select u.id from UserEntity u left join TrendingScore t on t.entityType = :entityType and t.entityId = u.id "
+            + "order by t.score desc nulls last, u.id")
+    List<Long> findIdsOrderByTrending(@Param("entityType") ChangeLogEntry.EntityType entityType, Pageable page);
+
+    /**
+     * Retorna ID, login e total de uso de um usuário, sem carregar a entidade.
+     * @param id ID do usuário
+     * @return projeção de uso, se o usuário existir
+     */
+    @Query("select new com.pitang.car_users_backend.dto.UserUsage(u.id, u.login, u.totalUsageCount) "
+            + "from UserEntity u where u.id = :id")
+    Optional<UserUsage> findUsageById(@Param("id") Long id);
+
+    /**
+     * Retorna os campos pesquisáveis de todos os usuários, sem carregar as entidades.
+     * @return projeções da busca textual
+     */
+    @Query("select new com.pitang.car_users_backend.dto.UserSearchFields(u.id, u.firstName, u.lastName, u.email, "
+            + "u.login) from UserEntity u")
+    List<UserSearchFields> findAllSearchFields();
+
+    /**
+     * Retorna os campos pesquisáveis de um usuário, sem carregar a entidade.
+     * @param id ID do usuário
+     * @return projeção da busca textual, se o usuário existir
+     */
+    @Query("select new com.pitang.car_users_backend.dto.UserSearchFields(u.id, u.firstName, u.lastName, u.email, "
+            + "u.login) from UserEntity u where u.id = :id")
+    Optional<UserSearchFields> findSearchFieldsById(@Param("id") Long id);
 
     /**
      * Busca um usuário pelo login.
@@ -30,4 +109,42 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      * @return true se existir, false caso contrário
      */
     boolean existsByLogin(String login);
+
+    /**
+     * Retorna, em uma única consulta, quais dos e-mails informados já estão cadastrados.
+     * @param emails e-mails a serem verificados
+     * @return conjunto de e-mails já existentes
+     */
+    @Query("select u.email from UserEntity u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Retorna, em uma única consulta, quais dos logins informados já estão cadastrados.
+     * @param logins logins a serem verificados
+     * @return conjunto de logins já existentes
+     */
+    @Query("select u.login from UserEntity u where u.login in :logins")
+    Set<String> findExistingLogins(@Param("logins") Collection<String> logins);
+
+    /**
+     * Remove o usuário em um único comando, sem carregar a entidade nem a coleção de carros.
+     * Os carros devem ter sido removidos antes (ver {@link CarRepository#deleteAllByUserId(Long)}).
+     * @param id ID do usuário
+     * @return quantidade de usuários removidos
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from UserEntity u where u.id = :id")
+    int deleteByIdInBulk(@Param("id") Long id);
+
+    /**
+     * Soma {@code delta} ao total de uso do usuário em um único comando, sem ler o valor atual, de modo
+     * que usos simultâneos não se sobrescrevem. O total satura em {@link Integer#MAX_VALUE}.
+     * @param id ID do usuário
+     * @param delta incremento, não negativo
+     * @return quantidade de usuários atualizados
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserEntity u set u.totalUsageCount = case when u.totalUsageCount > 2147483647 - :delta "
+            + "then 2147483647 else u.totalUsageCount + :delta end where u.id = :id")
+    int incrementTotalUsage(@Param("id") Long id, @Param("delta") int delta);
 }
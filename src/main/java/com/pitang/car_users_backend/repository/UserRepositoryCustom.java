@@ -0,0 +1,44 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.dto.UserFieldSelection;
+import com.pitang.car_users_backend.model.UserEntity;
+import jakarta.persistence.Tuple;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Consultas de {@link UserEntity} implementadas manualmente em {@link UserRepositoryImpl}.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Busca um usuário pelo login usando o identificador natural, o que permite
+     * resolver a consulta pelo cache de natural-id sem ir ao banco.
+     * @param login login do usuário
+     * @return usuário encontrado, se existir
+     */
+    Optional<UserEntity> findByNaturalLogin(String login);
+
+    /**
+     * Busca apenas as colunas selecionadas dos usuários, sem carregar entidades nem associações.
+     * O ID é sempre selecionado (alias {@code id}); os demais campos usam o próprio nome como alias.
+     * @param fields campos escalares já validados por {@link UserFieldSelection}
+     * @param id ID do usuário, ou null para todos
+     * @param orderByUsage ordena pelo total de uso (desc) e login (asc); caso contrário, pelo ID
+     * @param limit quantidade máxima de linhas, aplicada no banco, ou null para todas
+     * @return tuplas com as colunas selecionadas
+     */
+    List<Tuple> findUserColumns(Collection<String> fields, Long id, boolean orderByUsage, Integer limit);
+
+    /**
+     * Percorre todos os usuários, ordenados pelo ID, com cursor somente-avanço e memória constante.
+     * Os carros não são carregados.
+     * @param fetchSize linhas buscadas por ida ao banco
+     * @param consumer consumidor de cada usuário (entidade já desanexada após o bloco)
+     * @return quantidade de usuários lidos
+     */
+    long scrollAll(int fetchSize, Consumer<UserEntity> consumer);
+}
@@ -0,0 +1,67 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.dto.UserFieldSelection;
+import com.pitang.car_users_backend.model.UserEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Implementação de {@link UserRepositoryCustom}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserEntity> findByNaturalLogin(String login) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(UserEntity.class)
+                .loadOptional(login);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Tuple> findUserColumns(Collection<String> fields, Long id, boolean orderByUsage, Integer limit) {
+        StringBuilder jpql = new StringBuilder("select u.id as id");
+        for (String field : fields) {
+            if (!UserFieldSelection.SCALAR_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown user field: " + field);
+            }
+            if (!"id".equals(field)) {
+                jpql.append(", u.").append(field).append(" as ").append(field);
+            }
+        }
+        jpql.append(" from UserEntity u");
+        if (id != null) {
+            jpql.append(" where u.id = :id");
+        }
+        jpql.append(orderByUsage ? " order by u.totalUsageCount desc, u.login asc" : " order by u.id");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (id != null) {
+            query.setParameter("id", id);
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long scrollAll(int fetchSize, Consumer<UserEntity> consumer) {
+        return ScrollSupport.scroll(entityManager, "select u from UserEntity u order by u.id", UserEntity.class,
+                fetchSize, consumer);
+    }
+}
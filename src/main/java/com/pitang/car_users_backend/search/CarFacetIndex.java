@@ -0,0 +1,384 @@
+package com.pitang.car_users_backend.search;
+
+import com.pitang.car_users_backend.dto.CarFacetQuery;
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.FacetCount;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.repository.CarRepository;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória dos atributos dos carros para a busca facetada, com um {@link RoaringBitmap} de IDs
+ * por dono, cor, ano, modelo e palavra do modelo.
+ * <p>
+ * Os filtros viram uniões (valores de um filtro) e interseções (filtros diferentes) de bitmaps; as
+ * contagens por faceta são cardinalidades de interseções, sem materializar o resultado. A página é lida
+ * do bitmap do resultado a partir do último ID da página anterior. Cada {@link CarChangedEvent} troca as
+ * entradas do carro usando os dados que o evento carrega.
+ * <p>
+ * Os IDs são guardados como {@code int}: carros com ID acima de {@link Integer#MAX_VALUE} não são indexados.
+ * O índice é reconstruído do banco na inicialização; até lá, {@link #isReady()} retorna false.
+ */
+@Component
+public class CarFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarFacetIndex.class);
+
+    private final CarRepository repository;
+    private final Map<Integer, CarFacts> cars = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byUser = new HashMap<>();
+    private final Map<String, RoaringBitmap> byColor = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    private final Map<String, RoaringBitmap> byModel = new HashMap<>();
+    private final NavigableMap<String, RoaringBitmap> byModelToken = new TreeMap<>();
+    // carros removidos por eventos durante a leitura da reconstrução, que não podem voltar com ela
+    private final Set<Integer> removedWhileRebuilding = new HashSet<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    public CarFacetIndex(CarRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Página de IDs de uma busca, com as contagens por faceta.
+     * @param ids IDs dos carros da página, em ordem crescente
+     * @param nextAfter valor de {@code after} para a próxima página (null na última)
+     * @param total quantidade de carros que atendem aos filtros
+     * @param colors contagens por cor
+     * @param years contagens por ano de fabricação
+     * @param models contagens por modelo
+     */
+    public record Page(List<Long> ids, Long nextAfter, int total, List<FacetCount<String>> colors,
+                       List<FacetCount<Integer>> years, List<FacetCount<String>> models) {
+    }
+
+    /**
+     * Reconstrói o índice a partir do banco. Carros alterados por eventos durante a leitura
+     * mantêm o valor do evento, mais recente que o da consulta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            cars.clear();
+            byUser.clear();
+            byColor.clear();
+            byYear.clear();
+            byModel.clear();
+            byModelToken.clear();
+            removedWhileRebuilding.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<CarFacts> facts;
+        try {
+            facts = repository.findAllFacts();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (CarFacts car : facts) {
+                Integer id = toIndexId(car.id());
+                if (id != null && !cars.containsKey(id) && !removedWhileRebuilding.contains(id)) {
+                    put(id, car);
+                }
+            }
+            rebuilding = false;
+            removedWhileRebuilding.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Índice de busca facetada reconstruído com {} carros", facts.size());
+    }
+
+    /**
+     * Indica se o índice já foi carregado do banco.
+     * @return true se o índice estiver completo
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Atualiza as entradas do carro com os dados do evento, ou as remove.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            remove(event.carId());
+        } else if (event.facts() != null) {
+            update(event.facts());
+        }
+    }
+
+    /**
+     * Inclui um carro ou substitui as suas entradas.
+     * @param car dados do carro
+     */
+    public void update(CarFacts car) {
+        Integer id = toIndexId(car.id());
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            put(id, car);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um carro do índice.
+     * @param carId ID do carro
+     */
+    public void remove(Long carId) {
+        Integer id = toIndexId(carId);
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            CarFacts previous = cars.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            if (rebuilding) {
+                removedWhileRebuilding.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os carros do usuário que atendem aos filtros.
+     * @param userId ID do dono
+     * @param query filtros e página
+     * @return página de IDs com as contagens por faceta
+     */
+    public Page search(Long userId, CarFacetQuery query) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap owned = byUser.get(userId);
+            if (owned == null) {
+                return new Page(List.of(), null, 0, List.of(), List.of(), List.of());
+            }
+            RoaringBitmap colorFilter = colorFilter(query.colors());
+            RoaringBitmap yearFilter = yearFilter(query.yearFrom(), query.yearTo());
+            RoaringBitmap modelFilter = modelFilter(query.modelPrefixes());
+
+            RoaringBitmap matches = and(owned, colorFilter, yearFilter, modelFilter);
+            List<Long> ids = new ArrayList<>(query.size());
+            Long nextAfter = null;
+            if (query.after() < Integer.MAX_VALUE) {
+                PeekableIntIterator iterator = matches.getIntIterator();
+                iterator.advanceIfNeeded((int) Math.max(0, query.after() + 1));
+                while (iterator.hasNext() && ids.size() < query.size()) {
+                    ids.add((long) iterator.next());
+                }
+                if (iterator.hasNext() && !ids.isEmpty()) {
+                    nextAfter = ids.get(ids.size() - 1);
+                }
+            }
+
+            // cada faceta conta com os demais filtros, para mostrar as alternativas ao valor escolhido
+            return new Page(ids, nextAfter, matches.getCardinality(),
+                    facetCounts(byColor, and(owned, yearFilter, modelFilter)),
+                    facetCounts(byYear, and(owned, colorFilter, modelFilter)),
+                    facetCounts(byModel, and(owned, colorFilter, yearFilter)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap colorFilter(Collection<String> colors) {
+        if (colors == null || colors.isEmpty()) {
+            return null;
+        }
+        return or(colors.stream().map(color -> byColor.get(normalize(color))).toList());
+    }
+
+    private RoaringBitmap yearFilter(Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        NavigableMap<Integer, RoaringBitmap> range = byYear.subMap(
+                from == null ? Integer.MIN_VALUE : from, true, to == null ? Integer.MAX_VALUE : to, true);
+        return or(range.values());
+    }
+
+    private RoaringBitmap modelFilter(Collection<String> prefixes) {
+        if (prefixes == null || prefixes.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> alternatives = new ArrayList<>(prefixes.size());
+        for (String prefix : prefixes) {
+            Set<String> tokens = tokenize(prefix);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            // todas as palavras do prefixo precisam casar com alguma palavra do modelo
+            RoaringBitmap alternative = null;
+            for (String token : tokens) {
+                RoaringBitmap withToken = or(byModelToken.subMap(token, true, token + Character.MAX_VALUE, false)
+                        .values());
+                alternative = alternative == null ? withToken : RoaringBitmap.and(alternative, withToken);
+            }
+            alternatives.add(alternative);
+        }
+        return alternatives.isEmpty() ? null : or(alternatives);
+    }
+
+    private static <T extends Comparable<T>> List<FacetCount<T>> facetCounts(Map<T, RoaringBitmap> values,
+                                                                          RoaringBitmap filter) {
+        List<FacetCount<T>> counts = new ArrayList<>();
+        values.forEach((value, ids) -> {
+            int count = RoaringBitmap.andCardinality(ids, filter);
+            if (count > 0) {
+                counts.add(new FacetCount<>(value, count));
+            }
+        });
+        counts.sort(Comparator.comparingInt((FacetCount<T> facet) -> facet.count()).reversed()
+                .thenComparing(FacetCount::value));
+        return counts;
+    }
+
+    /**
+     * Interseção dos carros do dono com os filtros informados; filtros null não restringem.
+     * @param owned carros do dono
+     * @param filters filtros
+     * @return carros que atendem a todos os filtros
+     */
+    private static RoaringBitmap and(RoaringBitmap owned, RoaringBitmap... filters) {
+        RoaringBitmap result = owned;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * União dos bitmaps informados; valores sem bitmap (null) são ignorados.
+     * @param bitmaps bitmaps a unir
+     * @return carros presentes em algum dos bitmaps
+     */
+    private static RoaringBitmap or(Collection<RoaringBitmap> bitmaps) {
+        RoaringBitmap[] present = bitmaps.stream().filter(Objects::nonNull).toArray(RoaringBitmap[]::new);
+        return present.length == 0 ? new RoaringBitmap() : FastAggregation.or(present);
+    }
+
+    private void put(int id, CarFacts car) {
+        CarFacts previous = cars.put(id, car);
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        if (car.userId() != null) {
+            byUser.computeIfAbsent(car.userId(), key -> new RoaringBitmap()).add(id);
+        }
+        if (car.color() != null) {
+            byColor.computeIfAbsent(normalize(car.color()), key -> new RoaringBitmap()).add(id);
+        }
+        if (car.year() != null) {
+            byYear.computeIfAbsent(car.year(), key -> new RoaringBitmap()).add(id);
+        }
+        if (car.model() != null) {
+            byModel.computeIfAbsent(normalize(car.model()), key -> new RoaringBitmap()).add(id);
+            for (String token : tokenize(car.model())) {
+                byModelToken.computeIfAbsent(token, key -> new RoaringBitmap()).add(id);
+            }
+        }
+    }
+
+    private void unindex(int id, CarFacts car) {
+        removeFrom(byUser, car.userId(), id);
+        removeFrom(byColor, car.color() == null ? null : normalize(car.color()), id);
+        removeFrom(byYear, car.year(), id);
+        if (car.model() != null) {
+            removeFrom(byModel, normalize(car.model()), id);
+            for (String token : tokenize(car.model())) {
+                removeFrom(byModelToken, token, id);
+            }
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> index, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        RoaringBitmap ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Palavras (letras e dígitos) de um modelo ou prefixo, em minúsculas.
+     * @param value modelo ou prefixo
+     * @return palavras distintas
+     */
+    static Set<String> tokenize(String value) {
+        Set<String> tokens = new HashSet<>();
+        Arrays.stream(value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .forEach(tokens::add);
+        return tokens;
+    }
+
+    private Integer toIndexId(Long id) {
+        if (id == null || id < 0 || id > Integer.MAX_VALUE) {
+            logger.warn("Carro {} fora do intervalo de IDs do índice de busca; não indexado", id);
+            return null;
+        }
+        return id.intValue();
+    }
+}
@@ -0,0 +1,544 @@
+package com.pitang.car_users_backend.search;
+
+import com.pitang.car_users_backend.dto.UserSearchFields;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória de trigramas do nome, sobrenome, e-mail e login dos usuários, para a busca por
+ * trechos e por grafias aproximadas.
+ * <p>
+ * Cada palavra indexada gera os trigramas de {@code "  palavra "} (como o pg_trgm), cada um com um
+ * {@link RoaringBitmap} dos usuários que o contêm. Um termo da busca casa com um usuário quando alguma
+ * palavra dele é igual ao termo, começa com ele ou o contém (termos de uma ou duas letras só por prefixo);
+ * sem isso, casa quando a similaridade de trigramas com alguma palavra atinge
+ * {@value #SIMILARITY_THRESHOLD}. Todos os termos precisam casar; a pontuação é a soma das pontuações
+ * dos termos, e a busca igual ao login ou ao e-mail recebe um bônus.
+ * <p>
+ * Os campos são normalizados (minúsculas, sem acentos) e truncados em {@code app.user-search.max-field-length}
+ * caracteres, o que limita a memória por usuário; a estimativa do total é exportada em
+ * {@code user.search.index.bytes}. Os IDs são guardados como {@code int}: usuários com ID acima de
+ * {@link Integer#MAX_VALUE} não são indexados. O índice é reconstruído do banco na inicialização; até lá,
+ * {@link #isReady()} retorna false.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    /** Similaridade mínima de trigramas dos resultados aproximados (o padrão do pg_trgm). */
+    static final double SIMILARITY_THRESHOLD = 0.3;
+
+    /** Quantidade máxima de termos considerados em uma busca. */
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private static final double EQUAL_SCORE = 3;
+    private static final double PREFIX_SCORE = 2;
+    private static final double CONTAINS_SCORE = 1;
+    private static final double EXACT_LOGIN_OR_EMAIL_BONUS = 5;
+
+    // estimativas de memória para uma JVM de 64 bits com compressed oops
+    private static final int ENTRY_OVERHEAD = 96;   // registro, nó do HashMap e chave Integer
+    private static final int STRING_OVERHEAD = 40;  // String e cabeçalho do byte[]
+    private static final int POSTING_OVERHEAD = 48; // nó do HashMap e objeto RoaringBitmap
+
+    private final UserRepository repository;
+    private final int maxFieldLength;
+    private final Map<Integer, Entry> users = new HashMap<>();
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    // usuários removidos por eventos durante a leitura da reconstrução, que não podem voltar com ela
+    private final Set<Integer> removedWhileRebuilding = new HashSet<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    public UserSearchIndex(UserRepository repository, MeterRegistry meterRegistry,
+                           @Value("${app.user-search.max-field-length:64}") int maxFieldLength) {
+        if (maxFieldLength < 3) {
+            throw new IllegalArgumentException("app.user-search.max-field-length deve ser maior ou igual a 3");
+        }
+        this.repository = repository;
+        this.maxFieldLength = maxFieldLength;
+        Gauge.builder("user.search.index.users", this, UserSearchIndex::size)
+                .description("Usuários no índice de busca textual")
+                .register(meterRegistry);
+        Gauge.builder("user.search.index.bytes", this, UserSearchIndex::estimatedBytes)
+                .description("Memória estimada do índice de busca textual de usuários")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Usuário encontrado pela busca.
+     * @param id ID do usuário
+     * @param score pontuação (maior primeiro)
+     */
+    public record Match(Long id, double score) {
+    }
+
+    /**
+     * Página de resultados de uma busca.
+     * @param matches usuários da página, do mais ao menos relevante
+     * @param total quantidade de usuários encontrados
+     */
+    public record Page(List<Match> matches, int total) {
+    }
+
+    /**
+     * Campos normalizados de um usuário indexado.
+     * @param login login
+     * @param email e-mail
+     * @param tokens palavras distintas de nome, sobrenome, e-mail e login
+     */
+    private record Entry(String login, String email, String[] tokens) {
+    }
+
+    private record Ranked(int id, double score, String login) {
+    }
+
+    /**
+     * Reconstrói o índice a partir do banco. Usuários alterados por eventos durante a leitura
+     * mantêm o valor do evento, mais recente que o da consulta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            users.clear();
+            postings.clear();
+            removedWhileRebuilding.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<UserSearchFields> all;
+        try {
+            all = repository.findAllSearchFields();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (UserSearchFields fields : all) {
+                Integer id = toIndexId(fields.id());
+                if (id != null && !users.containsKey(id) && !removedWhileRebuilding.contains(id)) {
+                    put(id, fields);
+                }
+            }
+            rebuilding = false;
+            removedWhileRebuilding.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int indexed = size();
+        logger.info("Índice de busca de usuários reconstruído com {} usuários (~{} bytes por usuário)", indexed,
+                indexed == 0 ? 0 : estimatedBytes() / indexed);
+    }
+
+    /**
+     * Indica se o índice já foi carregado do banco.
+     * @return true se o índice estiver completo
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Inclui usuários criados, reindexa os alterados e remove os excluídos.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            remove(event.userId());
+            return;
+        }
+        repository.findSearchFieldsById(event.userId())
+                .ifPresentOrElse(this::update, () -> remove(event.userId()));
+    }
+
+    /**
+     * Inclui um usuário ou substitui as suas entradas.
+     * @param fields campos pesquisáveis do usuário
+     */
+    public void update(UserSearchFields fields) {
+        Integer id = toIndexId(fields.id());
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            put(id, fields);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um usuário do índice.
+     * @param userId ID do usuário
+     */
+    public void remove(Long userId) {
+        Integer id = toIndexId(userId);
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Entry previous = users.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            if (rebuilding) {
+                removedWhileRebuilding.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca usuários por trechos de nome, sobrenome, e-mail ou login.
+     * @param query texto da busca
+     * @param page página pedida (a partir de 0)
+     * @param size tamanho da página
+     * @return usuários da página, do mais ao menos relevante, e o total encontrado
+     */
+    public Page search(String query, int page, int size) {
+        String normalized = normalize(query);
+        List<String> terms = tokenize(normalized).stream().limit(MAX_QUERY_TERMS).toList();
+        if (terms.isEmpty()) {
+            return new Page(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (String term : terms) {
+                Map<Integer, Double> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            List<Ranked> ranked = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> {
+                Entry entry = users.get(id);
+                boolean exact = normalized.equals(entry.login()) || normalized.equals(entry.email());
+                ranked.add(new Ranked(id, exact ? score + EXACT_LOGIN_OR_EMAIL_BONUS : score, entry.login()));
+            });
+            ranked.sort(Comparator.comparingDouble(Ranked::score).reversed()
+                    .thenComparing(Ranked::login)
+                    .thenComparingInt(Ranked::id));
+
+            int from = (int) Math.min((long) page * size, ranked.size());
+            int to = (int) Math.min((long) from + size, ranked.size());
+            List<Match> matches = ranked.subList(from, to).stream()
+                    .map(match -> new Match((long) match.id(), match.score()))
+                    .toList();
+            return new Page(matches, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Quantidade de usuários indexados.
+     * @return usuários no índice
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimativa da memória ocupada pelo índice: campos guardados, listas de usuários por trigrama
+     * ({@link RoaringBitmap#getSizeInBytes()}) e estruturas que as referenciam.
+     * @return bytes estimados
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Entry entry : users.values()) {
+                bytes += ENTRY_OVERHEAD + stringBytes(entry.login()) + stringBytes(entry.email())
+                        + 16 + 4L * entry.tokens().length;
+                for (String token : entry.tokens()) {
+                    bytes += stringBytes(token);
+                }
+            }
+            for (Map.Entry<String, RoaringBitmap> posting : postings.entrySet()) {
+                bytes += POSTING_OVERHEAD + stringBytes(posting.getKey()) + posting.getValue().getSizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pontua os usuários que casam com um termo: palavra igual, prefixo ou trecho; se não, similaridade de
+     * trigramas (sempre abaixo de um casamento exato).
+     * @param term termo normalizado
+     * @return pontuação por usuário
+     */
+    private Map<Integer, Double> scoreTerm(String term) {
+        Map<Integer, Double> scores = new HashMap<>();
+        // termos curtos só casam com o início das palavras: os trigramas com espaços à esquerda garantem isso
+        RoaringBitmap candidates = and(term.length() < 3 ? leadingGrams(term) : innerGrams(term));
+        IntIterator iterator = candidates.getIntIterator();
+        while (iterator.hasNext()) {
+            int id = iterator.next();
+            double score = exactScore(users.get(id), term);
+            if (score > 0) {
+                scores.put(id, score);
+            }
+        }
+        if (term.length() >= 3) {
+            addSimilar(term, scores);
+        }
+        return scores;
+    }
+
+    private static double exactScore(Entry entry, String term) {
+        double best = 0;
+        for (String token : entry.tokens()) {
+            if (token.equals(term)) {
+                return EQUAL_SCORE;
+            }
+            if (token.startsWith(term)) {
+                best = Math.max(best, PREFIX_SCORE);
+            } else if (token.contains(term)) {
+                best = Math.max(best, CONTAINS_SCORE);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Inclui os usuários com alguma palavra de grafia parecida com o termo. Para atingir a similaridade
+     * mínima, o usuário precisa ter ao menos essa fração dos trigramas do termo, o que filtra os candidatos
+     * antes de comparar as palavras.
+     * @param term termo normalizado
+     * @param scores pontuações dos casamentos exatos, que não são substituídas
+     */
+    private void addSimilar(String term, Map<Integer, Double> scores) {
+        Set<String> termGrams = paddedGrams(term);
+        int minShared = (int) Math.ceil(termGrams.size() * SIMILARITY_THRESHOLD);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : termGrams) {
+            RoaringBitmap ids = postings.get(gram);
+            if (ids != null) {
+                IntIterator iterator = ids.getIntIterator();
+                while (iterator.hasNext()) {
+                    shared.merge(iterator.next(), 1, Integer::sum);
+                }
+            }
+        }
+        shared.forEach((id, count) -> {
+            if (count < minShared || scores.containsKey(id)) {
+                return;
+            }
+            double best = 0;
+            for (String token : users.get(id).tokens()) {
+                best = Math.max(best, similarity(termGrams, token));
+            }
+            if (best >= SIMILARITY_THRESHOLD) {
+                scores.put(id, Math.min(best, CONTAINS_SCORE - 0.01));
+            }
+        });
+    }
+
+    /**
+     * Similaridade de Jaccard entre os trigramas do termo e os de uma palavra.
+     * @param termGrams trigramas do termo
+     * @param token palavra indexada
+     * @return similaridade entre 0 e 1
+     */
+    static double similarity(Set<String> termGrams, String token) {
+        Set<String> tokenGrams = paddedGrams(token);
+        int shared = 0;
+        for (String gram : tokenGrams) {
+            if (termGrams.contains(gram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (termGrams.size() + tokenGrams.size() - shared);
+    }
+
+    /**
+     * Usuários presentes em todos os bitmaps dos trigramas informados.
+     * @param grams trigramas exigidos
+     * @return usuários candidatos (vazio se algum trigrama não existir)
+     */
+    private RoaringBitmap and(Set<String> grams) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            RoaringBitmap ids = postings.get(gram);
+            if (ids == null) {
+                return new RoaringBitmap();
+            }
+            bitmaps.add(ids);
+        }
+        return bitmaps.size() == 1 ? bitmaps.get(0) : FastAggregation.and(bitmaps.toArray(RoaringBitmap[]::new));
+    }
+
+    private void put(int id, UserSearchFields fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String value : Arrays.asList(fields.firstName(), fields.lastName(), fields.email(), fields.login())) {
+            tokens.addAll(tokenize(indexValue(value)));
+        }
+        Entry entry = new Entry(indexValue(fields.login()), indexValue(fields.email()),
+                tokens.toArray(String[]::new));
+        Entry previous = users.put(id, entry);
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        for (String gram : grams(entry)) {
+            postings.computeIfAbsent(gram, key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void unindex(int id, Entry entry) {
+        for (String gram : grams(entry)) {
+            RoaringBitmap ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(Entry entry) {
+        Set<String> grams = new HashSet<>();
+        for (String token : entry.tokens()) {
+            grams.addAll(paddedGrams(token));
+        }
+        return grams;
+    }
+
+    /**
+     * Trigramas de {@code "  palavra "}: marcam o início e o fim da palavra.
+     * @param token palavra normalizada
+     * @return trigramas distintos
+     */
+    static Set<String> paddedGrams(String token) {
+        return innerGrams("  " + token + " ");
+    }
+
+    /**
+     * Trigramas que uma palavra começando com o termo (de uma ou duas letras) precisa ter.
+     * @param term termo normalizado
+     * @return trigramas distintos
+     */
+    static Set<String> leadingGrams(String term) {
+        return innerGrams("  " + term);
+    }
+
+    /**
+     * Trigramas contidos no texto, sem marcas de início ou fim.
+     * @param text texto normalizado
+     * @return trigramas distintos
+     */
+    static Set<String> innerGrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private String indexValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        String normalized = normalize(value);
+        return normalized.length() > maxFieldLength ? normalized.substring(0, maxFieldLength) : normalized;
+    }
+
+    /**
+     * Minúsculas e sem acentos, para que "João" e "joao" casem.
+     * @param value texto original
+     * @return texto normalizado
+     */
+    static String normalize(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT)
+                .trim();
+    }
+
+    /**
+     * Palavras (letras e dígitos) distintas de um texto normalizado, na ordem em que aparecem.
+     * @param value texto normalizado
+     * @return palavras distintas
+     */
+    static List<String> tokenize(String value) {
+        Set<String> tokens = new LinkedHashSet<>();
+        Arrays.stream(value.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .forEach(tokens::add);
+        return List.copyOf(tokens);
+    }
+
+    private static long stringBytes(String value) {
+        boolean latin1 = value.chars().allMatch(ch -> ch <= 0xFF);
+        return STRING_OVERHEAD + (long) value.length() * (latin1 ? 1 : 2);
+    }
+
+    private Integer toIndexId(Long id) {
+        if (id == null || id < 0 || id > Integer.MAX_VALUE) {
+            logger.warn("Usuário {} fora do intervalo de IDs do índice de busca; não indexado", id);
+            return null;
+        }
+        return id.intValue();
+    }
+}
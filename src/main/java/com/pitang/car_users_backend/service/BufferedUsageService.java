@@ -0,0 +1,36 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.UsageEvent;
+
+import java.util.List;
+
+/**
+ * Serviço de uso acumulado dos carros: os usos são gravados no log de uso e somados em memória,
+ * e chegam ao banco em lote, na próxima aplicação.
+ */
+public interface BufferedUsageService {
+
+    /**
+     * Registra os usos no log e no acumulador. Os eventos já devem ter sido validados.
+     * @param userId ID do dono dos carros
+     * @param events usos a registrar
+     * @return LSN do último evento registrado no log
+     */
+    long record(Long userId, List<UsageEvent> events);
+
+    /**
+     * Aguarda até que o log esteja em disco até o LSN informado.
+     * @param lsn LSN retornado por {@link #record(Long, List)}
+     * @param timeoutMillis tempo máximo de espera
+     * @return true se o LSN está em disco
+     * @throws InterruptedException se a thread for interrompida
+     */
+    boolean awaitDurable(long lsn, long timeoutMillis) throws InterruptedException;
+
+    /**
+     * Aplica ao banco, em uma única transação, os usos acumulados desde a última aplicação e
+     * compacta o log até o ponto aplicado.
+     * @return quantidade de carros atualizados
+     */
+    int flush();
+}
@@ -0,0 +1,207 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.UsageEvent;
+import com.pitang.car_users_backend.event.CarUsedEvent;
+import com.pitang.car_users_backend.model.UsageLogCheckpoint;
+import com.pitang.car_users_backend.repository.UsageLogCheckpointRepository;
+import com.pitang.car_users_backend.wal.UsageEventLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementação de {@link BufferedUsageService}.
+ * <p>
+ * Cada lote vai primeiro para o {@link UsageEventLog} e depois para o acumulador por carro; a aplicação
+ * periódica leva as somas ao banco com {@link CarService#applyUsage(Map)} e grava, na mesma transação,
+ * o último LSN aplicado ({@link UsageLogCheckpoint}). Na inicialização, os registros do log posteriores
+ * a esse LSN voltam ao acumulador e são aplicados assim que a aplicação sobe, reconciliando
+ * {@code usageCount} dos carros e {@code totalUsageCount} dos donos sem contar um uso duas vezes.
+ */
+@Service
+public class BufferedUsageServiceImpl implements BufferedUsageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferedUsageServiceImpl.class);
+
+    private final CarService carService;
+    private final UsageLogCheckpointRepository checkpointRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Path dir;
+    private final long segmentBytes;
+    private final long fsyncIntervalMillis;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // registros (leitura, concorrentes) x retirada do acumulador (escrita): o LSN aplicado cobre
+    // exatamente os usos retirados
+    private final ReentrantReadWriteLock drainLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private UsageEventLog log;
+
+    public BufferedUsageServiceImpl(CarService carService, UsageLogCheckpointRepository checkpointRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.usage-log.dir:data/usage-log}") String dir,
+                                    @Value("${app.usage-log.segment-bytes:67108864}") long segmentBytes,
+                                    @Value("${app.usage-log.fsync-interval-ms:10}") long fsyncIntervalMillis) {
+        this.carService = carService;
+        this.checkpointRepository = checkpointRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.segmentBytes = segmentBytes;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+    }
+
+    /**
+     * Abre o log e devolve ao acumulador os registros ainda não aplicados ao banco.
+     * Sem ponto de aplicação no banco (banco novo), o log pertence a outro banco e é descartado.
+     * @throws IOException em caso de falha na leitura do log
+     */
+    @PostConstruct
+    void open() throws IOException {
+        Long appliedLsn = transactionTemplate.execute(status -> checkpointRepository
+                .findById(UsageLogCheckpoint.SINGLETON_ID)
+                .map(UsageLogCheckpoint::getAppliedLsn)
+                .orElse(null));
+        if (appliedLsn != null) {
+            log = UsageEventLog.open(dir, segmentBytes, fsyncIntervalMillis, appliedLsn,
+                    (event, lsn) -> accumulate(event.carId(), event.count()));
+            return;
+        }
+
+        log = UsageEventLog.open(dir, segmentBytes, fsyncIntervalMillis, -1, (event, lsn) -> { });
+        long lastLsn = log.lastLsn();
+        if (lastLsn >= 0) {
+            logger.warn("Log de uso sem ponto de aplicação no banco; registros até o LSN {} descartados", lastLsn);
+        }
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(
+                new UsageLogCheckpoint(UsageLogCheckpoint.SINGLETON_ID, lastLsn)));
+        log.compact(lastLsn);
+    }
+
+    /**
+     * Aplica ao banco os usos reaplicados do log, assim que a aplicação sobe.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        int updated = flush();
+        if (updated > 0) {
+            logger.info("Log de uso: {} carros reconciliados", updated);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        flush();
+        log.close();
+    }
+
+    @Override
+    public long record(Long userId, List<UsageEvent> events) {
+        long lsn;
+        drainLock.readLock().lock();
+        try {
+            lsn = log.appendAll(events);
+            for (UsageEvent event : events) {
+                accumulate(event.carId(), event.count());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            drainLock.readLock().unlock();
+        }
+
+        // histórico por hora: um evento por carro e hora do lote, não um por uso
+        Map<UsageKey, Long> hourly = new HashMap<>();
+        for (UsageEvent event : events) {
+            long hour = event.timestamp() - Math.floorMod(event.timestamp(), TimeUnit.HOURS.toMillis(1));
+            hourly.merge(new UsageKey(event.carId(), hour), (long) event.count(), Long::sum);
+        }
+        hourly.forEach((key, count) -> eventPublisher.publishEvent(new CarUsedEvent(key.carId(), userId,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(key.hour()), ZoneId.systemDefault()), count)));
+        return lsn;
+    }
+
+    private void accumulate(long carId, long count) {
+        pending.computeIfAbsent(carId, id -> new LongAdder()).add(count);
+    }
+
+    @Override
+    public boolean awaitDurable(long lsn, long timeoutMillis) throws InterruptedException {
+        return log.awaitDurable(lsn, timeoutMillis);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.usage-log.flush-ms:1000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Long> deltas = new HashMap<>();
+            long appliedLsn;
+            drainLock.writeLock().lock();
+            try {
+                pending.forEach((carId, count) -> deltas.put(carId, count.sum()));
+                pending.clear();
+                appliedLsn = log.lastLsn();
+            } finally {
+                drainLock.writeLock().unlock();
+            }
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                Integer updated = transactionTemplate.execute(status -> {
+                    int count = carService.applyUsage(deltas);
+                    checkpointRepository.save(new UsageLogCheckpoint(UsageLogCheckpoint.SINGLETON_ID, appliedLsn));
+                    return count;
+                });
+                log.compact(appliedLsn);
+                return updated == null ? 0 : updated;
+            } catch (RuntimeException ex) {
+                // os usos continuam no log; voltam ao acumulador para a próxima aplicação
+                drainLock.readLock().lock();
+                try {
+                    deltas.forEach(this::accumulate);
+                } finally {
+                    drainLock.readLock().unlock();
+                }
+                logger.error("Erro ao aplicar o uso acumulado de {} carros: {}", deltas.size(), ex.getMessage());
+                return 0;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Carro e hora (início, em milissegundos) de um uso.
+     */
+    private record UsageKey(long carId, long hour) {
+    }
+}
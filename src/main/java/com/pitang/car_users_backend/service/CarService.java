@@ -1,10 +1,18 @@
 package com.pitang.car_users_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pitang.car_users_backend.dto.CarBatchOperation;
+import com.pitang.car_users_backend.dto.CarBatchResult;
+import com.pitang.car_users_backend.dto.CarSearchCriteria;
 import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface que define métodos de negócio relacionados a carros.
@@ -26,12 +34,39 @@ public interface CarService {
      */
     Car updateCar(Long id, Car car);
 
+    /**
+     * Atualiza os dados de um carro existente somente se o ETag atual corresponder ao informado.
+     * @param id ID do carro
+     * @param car dados para atualização
+     * @param ifMatch valor do cabeçalho If-Match (null dispensa a verificação)
+     * @return carro atualizado
+     */
+    Car updateCar(Long id, Car car, String ifMatch);
+
+    /**
+     * Aplica um JSON Merge Patch (RFC 7396) a um carro do usuário: apenas os campos presentes são alterados.
+     * @param id ID do carro
+     * @param userId ID do dono do carro
+     * @param patch documento de merge patch
+     * @param ifMatch valor do cabeçalho If-Match (null dispensa a verificação)
+     * @return carro atualizado
+     */
+    Car patchCar(Long id, Long userId, JsonNode patch, String ifMatch);
+
     /**
      * Deleta um carro pelo ID.
      * @param id ID do carro a ser removido
      */
     void deleteCar(Long id);
 
+    /**
+     * Remove, em massa, todos os carros de um usuário, sem carregá-los.
+     * As fotos são apagadas em segundo plano após o commit.
+     * @param userId ID do usuário
+     * @return IDs dos carros removidos
+     */
+    List<Long> deleteCarsByUserId(Long userId);
+
     /**
      * Retorna todos os carros existentes no banco (todos os usuários).
      * @return lista de todos os carros
@@ -39,12 +74,21 @@ public interface CarService {
     List<Car> getAllCars();
 
     /**
-     * Retorna um carro específico pelo ID.
+     * Retorna um carro específico pelo ID. Chamadas simultâneas para o mesmo ID, fora de uma transação,
+     * compartilham uma única consulta e recebem a mesma instância, que não deve ser alterada.
      * @param id ID do carro
      * @return carro encontrado
      */
     Car getCarById(Long id);
 
+    /**
+     * Retorna os carros correspondentes aos IDs informados em uma única consulta.
+     * IDs inexistentes são ignorados.
+     * @param ids IDs dos carros
+     * @return lista de carros encontrados
+     */
+    List<Car> getCarsByIds(Collection<Long> ids);
+
     /**
      * Retorna todos os carros pertencentes a um usuário específico.
      * @param id ID do usuário
@@ -52,6 +96,22 @@ public interface CarService {
      */
     List<Car> getCarsByLoggedUser(Long id);
 
+    /**
+     * Retorna, em uma única consulta, os carros de vários usuários.
+     * @param userIds IDs dos usuários
+     * @return lista de carros
+     */
+    List<Car> getCarsByUserIds(Collection<Long> userIds);
+
+    /**
+     * Busca carros pelos filtros informados, em ordem de ID, a partir do último ID da página anterior.
+     * @param criteria filtros e página
+     * @return carros da página
+     * @throws IllegalArgumentException se nenhum filtro indexado (modelo, cor, dono ou prefixo da placa)
+     *                                  for informado ou se a faixa de anos for inválida
+     */
+    List<Car> searchCars(CarSearchCriteria criteria);
+
     /**
      * Verifica se uma placa de carro já está cadastrada.
      * @param licensePlate placa do carro
@@ -59,6 +119,13 @@ public interface CarService {
      */
     boolean licensePlateExists(String licensePlate);
 
+    /**
+     * Retorna, em uma única consulta, quais das placas informadas já estão cadastradas.
+     * @param licensePlates placas a serem verificadas
+     * @return conjunto de placas já existentes
+     */
+    Set<String> findExistingLicensePlates(Collection<String> licensePlates);
+
     /**
      * Retorna um carro específico pelo ID e incrementa o uso do carro.
      * @param id ID do carro
@@ -66,6 +133,33 @@ public interface CarService {
      */
     Car getCarUserById(Long id);
 
+    /**
+     * Retorna os carros do usuário correspondentes aos IDs e incrementa o uso de cada um,
+     * com uma única consulta e escritas em lote. IDs inexistentes ou de outro usuário são omitidos.
+     * @param ids IDs dos carros
+     * @param userId ID do dono dos carros
+     * @return carros encontrados, indexados pelo ID
+     */
+    Map<Long, Car> getCarsUserByIds(Collection<Long> ids, Long userId);
+
+    /**
+     * Soma aos carros os usos acumulados e ajusta o total de uso dos donos, com escritas em lote.
+     * Carros inexistentes são ignorados.
+     * @param deltas usos a somar, indexados pelo ID do carro
+     * @return quantidade de carros atualizados
+     */
+    int applyUsage(Map<Long, Long> deltas);
+
+    /**
+     * Executa operações de criação, atualização e remoção de carros do usuário em uma única transação,
+     * com uma única busca dos carros referenciados e escritas em lote. Falhas de validação são
+     * reportadas por item, sem interromper os demais.
+     * @param owner dono dos carros
+     * @param operations operações do lote
+     * @return resultado de cada operação, na mesma ordem
+     */
+    List<CarBatchResult> executeBatch(UserEntity owner, List<CarBatchOperation> operations);
+
     /**
      * Atualiza a imagem do carro
      * @param id ID do carro
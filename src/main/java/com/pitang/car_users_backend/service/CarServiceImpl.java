@@ -1,15 +1,44 @@
 package com.pitang.car_users_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pitang.car_users_backend.Mapper.CarMapper;
+import com.pitang.car_users_backend.cache.SingleFlight;
+import com.pitang.car_users_backend.dto.CarBatchOperation;
+import com.pitang.car_users_backend.dto.CarBatchResult;
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.CarRequest;
+import com.pitang.car_users_backend.dto.CarSearchCriteria;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.CarUsedEvent;
+import com.pitang.car_users_backend.event.ChangeOrigin;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.event.UserUsageChangedEvent;
 import com.pitang.car_users_backend.exception.CarErrorCode;
 import com.pitang.car_users_backend.exception.CarException;
 import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
 import com.pitang.car_users_backend.repository.CarRepository;
+import com.pitang.car_users_backend.repository.CarSpecifications;
+import com.pitang.car_users_backend.repository.UserRepository;
 import com.pitang.car_users_backend.util.CarValidationUtil;
+import com.pitang.car_users_backend.util.ETagUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -17,8 +46,18 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -31,12 +70,23 @@ public class CarServiceImpl implements CarService {
     private static final Logger logger = LoggerFactory.getLogger(CarServiceImpl.class);
 
     private final CarRepository repository;
-
-    public CarServiceImpl(CarRepository repository) {
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, Car> carLoads;
+    private final TransactionTemplate transactionTemplate;
+
+    public CarServiceImpl(CarRepository repository, UserRepository userRepository,
+                          ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                          PlatformTransactionManager transactionManager) {
         this.repository = repository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.carLoads = new SingleFlight<>("car-by-id", meterRegistry);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
+    @Transactional
     public Car createCar(Car car) {
         if (CarValidationUtil.hasMissingFields(car)) {
             throw new CarException(CarErrorCode.MISSING_FIELDS);
@@ -50,14 +100,27 @@ public class CarServiceImpl implements CarService {
             throw new CarException(CarErrorCode.LICENSE_PLATE_EXISTS);
         }
 
-        return repository.save(car);
+        Car saved = repository.save(car);
+        publishCarChanged(saved, ChangeType.CREATED);
+        return saved;
     }
 
     @Override
+    @Transactional
     public Car updateCar(Long id, Car car) {
+        return updateCar(id, car, null);
+    }
+
+    @Override
+    @Transactional
+    public Car updateCar(Long id, Car car, String ifMatch) {
         Car existing = repository.findById(id)
                 .orElseThrow(() -> new CarException(CarErrorCode.CAR_NOT_FOUND));
 
+        if (!ETagUtil.matches(ifMatch, ETagUtil.forCar(existing))) {
+            throw new CarException(CarErrorCode.PRECONDITION_FAILED);
+        }
+
         if (CarValidationUtil.hasMissingFields(car)) {
             throw new CarException(CarErrorCode.MISSING_FIELDS);
         }
@@ -75,63 +138,443 @@ public class CarServiceImpl implements CarService {
         existing.setModel(car.getModel());
         existing.setYear(car.getYear());
 
-        return repository.save(existing);
+        Car saved = repository.save(existing);
+        // sincroniza agora para que a versão (ETag) devolvida já reflita esta alteração
+        repository.flush();
+        publishCarChanged(saved, ChangeType.UPDATED);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public Car patchCar(Long id, Long userId, JsonNode patch, String ifMatch) {
+        if (patch == null || !patch.isObject()) {
+            throw new CarException(CarErrorCode.INVALID_FIELDS);
+        }
+
+        Car existing = repository.findById(id)
+                .filter(car -> car.getUser() != null && car.getUser().getId().equals(userId))
+                .orElseThrow(() -> new CarException(CarErrorCode.CAR_NOT_FOUND));
+
+        if (!ETagUtil.matches(ifMatch, ETagUtil.forCar(existing))) {
+            throw new CarException(CarErrorCode.PRECONDITION_FAILED);
+        }
+
+        // consulta antes de alterar a entidade gerenciada, para que o auto-flush não grave a placa nova
+        JsonNode licensePlate = patch.get("licensePlate");
+        if (licensePlate != null && licensePlate.isTextual()
+                && !licensePlate.asText().equals(existing.getLicensePlate())
+                && repository.existsByLicensePlate(licensePlate.asText())) {
+            throw new CarException(CarErrorCode.LICENSE_PLATE_EXISTS);
+        }
+
+        patch.fields().forEachRemaining(field -> applyPatchField(existing, field.getKey(), field.getValue()));
+
+        if (!CarValidationUtil.isValid(existing)) {
+            throw new CarException(CarErrorCode.INVALID_FIELDS);
+        }
+
+        // o dirty checking só escreve as colunas alteradas (@DynamicUpdate); sem alterações, não há UPDATE
+        repository.flush();
+        publishCarChanged(existing, ChangeType.UPDATED);
+        return existing;
+    }
+
+    /**
+     * Aplica um campo do merge patch ao carro. Campos obrigatórios não aceitam null;
+     * {@code photoUrl: null} remove a foto.
+     * @param car carro gerenciado
+     * @param name nome do campo
+     * @param value valor do campo no patch
+     */
+    private void applyPatchField(Car car, String name, JsonNode value) {
+        switch (name) {
+            case "licensePlate" -> car.setLicensePlate(requiredText(value));
+            case "model" -> car.setModel(requiredText(value));
+            case "color" -> car.setColor(requiredText(value));
+            case "year" -> {
+                if (value.isNull()) {
+                    throw new CarException(CarErrorCode.MISSING_FIELDS);
+                }
+                if (!value.canConvertToInt() || !value.isIntegralNumber()) {
+                    throw new CarException(CarErrorCode.INVALID_FIELDS);
+                }
+                car.setYear(value.intValue());
+            }
+            case "photoUrl" -> car.setPhotoUrl(value.isNull() ? null : requiredText(value));
+            default -> throw new CarException(CarErrorCode.INVALID_FIELDS);
+        }
+    }
+
+    private static String requiredText(JsonNode value) {
+        if (value.isNull()) {
+            throw new CarException(CarErrorCode.MISSING_FIELDS);
+        }
+        if (!value.isTextual()) {
+            throw new CarException(CarErrorCode.INVALID_FIELDS);
+        }
+        if (value.asText().isBlank()) {
+            throw new CarException(CarErrorCode.MISSING_FIELDS);
+        }
+        return value.asText();
     }
 
     @Override
+    @Transactional
     public Car updateCarPhoto(Long id, String photoUrl) {
         Car car = repository.findById(id)
                 .orElseThrow(() -> new CarException(CarErrorCode.CAR_NOT_FOUND));
 
         car.setPhotoUrl(photoUrl);
-        return repository.save(car);
+        Car saved = repository.save(car);
+        publishCarChanged(saved, ChangeType.UPDATED);
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteCar(Long id) {
-        if (!repository.existsById(id)) {
-            throw new CarException(CarErrorCode.CAR_NOT_FOUND);
+        Car car = repository.findById(id)
+                .orElseThrow(() -> new CarException(CarErrorCode.CAR_NOT_FOUND));
+        repository.delete(car);
+        publishCarChanged(car, ChangeType.DELETED);
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deleteCarsByUserId(Long userId) {
+        List<Long> ids = repository.findIdsByUserId(userId);
+        if (ids.isEmpty()) {
+            return ids;
         }
-        repository.deleteById(id);
+        repository.deleteAllByUserId(userId);
+        ids.forEach(id -> eventPublisher.publishEvent(
+                new CarChangedEvent(id, userId, ChangeType.DELETED, null, ChangeOrigin.BULK_DELETE)));
+        // o feed de alterações registra a remoção em massa como uma única alteração do dono
+        eventPublisher.publishEvent(new UserChangedEvent(userId, ChangeType.UPDATED));
+        return ids;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Car> getAllCars() {
         return repository.findAll();
     }
 
     @Override
     public Car getCarById(Long id) {
+        // dentro de uma transação, o chamador espera a entidade do próprio contexto de persistência
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadCarById(id);
+        }
+        return carLoads.execute(id, () -> loadCarById(id));
+    }
+
+    private Car loadCarById(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new CarException(CarErrorCode.CAR_NOT_FOUND));
     }
 
+    /**
+     * Impede que leituras feitas depois do commit aguardem uma carga do carro iniciada antes dele.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCarChanged(CarChangedEvent event) {
+        carLoads.forget(event.carId());
+    }
+
     @Override
+    @Transactional(readOnly = true)
+    public List<Car> getCarsByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return repository.findAllById(ids);
+    }
+
+    @Override
+    @Transactional
     public Car getCarUserById(Long id) {
         Car car = repository.findById(id)
                 .orElseThrow(() -> new CarException(CarErrorCode.CAR_NOT_FOUND));
+        Long ownerId = car.getUser() == null ? null : car.getUser().getId();
+
+        // contadores fora do controle de versão: incremento atômico no banco, nunca ler-modificar-gravar
+        repository.incrementUsage(List.of(id), 1);
+        if (ownerId != null) {
+            userRepository.incrementTotalUsage(ownerId, 1);
+        }
+        eventPublisher.publishEvent(new CarUsedEvent(id, ownerId, LocalDateTime.now(), 1));
+
+        // o contexto foi limpo pelo UPDATE em massa: a releitura traz os contadores já incrementados
+        Car used = repository.findById(id)
+                .orElseThrow(() -> new CarException(CarErrorCode.CAR_NOT_FOUND));
+        if (used.getUser() != null) {
+            publishUsageChanged(used.getUser());
+        }
+        publishCarUsed(used);
+        return used;
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Car> getCarsUserByIds(Collection<Long> ids, Long userId) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<Long> owned = repository.findOwnedIds(userId, ids);
+        if (owned.isEmpty()) {
+            return Map.of();
+        }
+
+        // um único UPDATE para os carros e outro para o total do dono, ambos atômicos
+        repository.incrementUsage(owned, 1);
+        userRepository.incrementTotalUsage(userId, owned.size());
+        LocalDateTime now = LocalDateTime.now();
+        owned.forEach(carId -> eventPublisher.publishEvent(new CarUsedEvent(carId, userId, now, 1)));
+
+        Map<Long, Car> cars = new LinkedHashMap<>();
+        for (Car car : repository.findAllWithUserByIdIn(owned)) {
+            cars.put(car.getId(), car);
+        }
+        if (!cars.isEmpty()) {
+            publishUsageChanged(cars.values().iterator().next().getUser());
+        }
+        cars.values().forEach(this::publishCarUsed);
+        return cars;
+    }
 
-        car.setUsageCount(car.getUsageCount() + 1);
-        this.updateCar(id, car);
+    @Override
+    @Transactional
+    public int applyUsage(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
 
-        if (car.getUser() != null) {
-            car.getUser().recalculateTotalUsage();
+        // agrupa os carros pelo incremento: um UPDATE atômico por valor distinto, outro por dono
+        Map<Integer, List<Long>> idsByDelta = new HashMap<>();
+        Map<Long, Long> ownerDeltas = new HashMap<>();
+        for (Car car : repository.findAllWithUserByIdIn(deltas.keySet())) {
+            long delta = deltas.get(car.getId());
+            if (delta <= 0) {
+                continue;
+            }
+            idsByDelta.computeIfAbsent(saturated(delta), key -> new ArrayList<>()).add(car.getId());
+            if (car.getUser() != null) {
+                ownerDeltas.merge(car.getUser().getId(), delta, Long::sum);
+            }
+        }
+        if (idsByDelta.isEmpty()) {
+            return 0;
+        }
+        idsByDelta.forEach((delta, carIds) -> repository.incrementUsage(carIds, delta));
+        ownerDeltas.forEach((ownerId, delta) -> userRepository.incrementTotalUsage(ownerId, saturated(delta)));
+
+        // o contexto foi limpo pelos UPDATEs em massa: a releitura traz os valores já somados
+        List<Long> updatedIds = idsByDelta.values().stream().flatMap(List::stream).toList();
+        List<Car> cars = repository.findAllWithUserByIdIn(updatedIds);
+        Map<Long, UserEntity> owners = new LinkedHashMap<>();
+        for (Car car : cars) {
+            if (car.getUser() != null) {
+                owners.putIfAbsent(car.getUser().getId(), car.getUser());
+            }
+        }
+        owners.values().forEach(this::publishUsageChanged);
+        cars.forEach(this::publishCarUsed);
+        return cars.size();
+    }
+
+    private static int saturated(long delta) {
+        return (int) Math.min(Integer.MAX_VALUE, delta);
+    }
+
+    @Override
+    @Transactional
+    public List<CarBatchResult> executeBatch(UserEntity owner, List<CarBatchOperation> operations) {
+        Set<Long> referencedIds = operations.stream()
+                .filter(operation -> operation.getOp() != CarBatchOperation.Type.CREATE)
+                .map(CarBatchOperation::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Car> ownedCars = new HashMap<>();
+        for (Car car : getCarsByIds(referencedIds)) {
+            if (car.getUser() != null && car.getUser().getId().equals(owner.getId())) {
+                ownedCars.put(car.getId(), car);
+            }
+        }
+
+        // consulta antes de qualquer alteração, para que o auto-flush não grave placas novas
+        Set<String> requestedPlates = operations.stream()
+                .filter(operation -> operation.getCar() != null && operation.getCar().getLicensePlate() != null)
+                .map(operation -> operation.getCar().getLicensePlate())
+                .collect(Collectors.toSet());
+        Set<String> takenPlates = new HashSet<>(findExistingLicensePlates(requestedPlates));
+
+        List<CarBatchResult> results = new ArrayList<>(operations.size());
+        Map<Integer, Car> created = new LinkedHashMap<>();
+        Map<Integer, Car> updated = new LinkedHashMap<>();
+        List<Car> deleted = new ArrayList<>();
+
+        for (int index = 0; index < operations.size(); index++) {
+            CarBatchOperation operation = operations.get(index);
+            try {
+                switch (operation.getOp()) {
+                    case CREATE -> {
+                        Car car = validateBatchCar(operation.getCar());
+                        claimLicensePlate(takenPlates, null, car.getLicensePlate());
+                        car.setUser(owner);
+                        created.put(index, car);
+                    }
+                    case UPDATE -> {
+                        Car existing = ownedCar(ownedCars, operation.getId());
+                        Car car = validateBatchCar(operation.getCar());
+                        claimLicensePlate(takenPlates, existing.getLicensePlate(), car.getLicensePlate());
+                        if (car.getPhotoUrl() != null && !car.getPhotoUrl().isEmpty()) {
+                            existing.setPhotoUrl(car.getPhotoUrl());
+                        }
+                        existing.setLicensePlate(car.getLicensePlate());
+                        existing.setColor(car.getColor());
+                        existing.setModel(car.getModel());
+                        existing.setYear(car.getYear());
+                        updated.put(index, existing);
+                    }
+                    case DELETE -> {
+                        Car existing = ownedCar(ownedCars, operation.getId());
+                        ownedCars.remove(existing.getId());
+                        takenPlates.remove(existing.getLicensePlate());
+                        deleted.add(existing);
+                    }
+                }
+                results.add(operation.getOp() == CarBatchOperation.Type.DELETE
+                        ? CarBatchResult.success(index, CarBatchOperation.Type.DELETE, 204, operation.getId(), null)
+                        : null);
+            } catch (CarException e) {
+                results.add(CarBatchResult.failure(index, operation.getOp(), operation.getId(), e.getErrorCode()));
+            }
+        }
+
+        repository.saveAll(created.values());
+        repository.deleteAll(deleted);
+        // INSERTs, UPDATEs e DELETEs são enviados em lote (hibernate.jdbc.batch_size)
+        repository.flush();
+
+        created.forEach((index, car) -> {
+            results.set(index, CarBatchResult.success(index, CarBatchOperation.Type.CREATE, 201, car.getId(),
+                    CarMapper.toResponse(car)));
+            publishCarChanged(car, ChangeType.CREATED);
+        });
+        updated.forEach((index, car) -> {
+            results.set(index, CarBatchResult.success(index, CarBatchOperation.Type.UPDATE, 200, car.getId(),
+                    CarMapper.toResponse(car)));
+            publishCarChanged(car, ChangeType.UPDATED);
+        });
+        deleted.forEach(car -> publishCarChanged(car, ChangeType.DELETED));
+        return results;
+    }
+
+    /**
+     * Converte e valida os dados de um carro do lote com as mesmas regras de {@link #createCar(Car)}.
+     * @param request dados do carro
+     * @return carro ainda não persistido
+     */
+    private static Car validateBatchCar(CarRequest request) {
+        if (request == null) {
+            throw new CarException(CarErrorCode.MISSING_FIELDS);
+        }
+        Car car = CarMapper.toEntity(request);
+        if (CarValidationUtil.hasMissingFields(car)) {
+            throw new CarException(CarErrorCode.MISSING_FIELDS);
+        }
+        if (!CarValidationUtil.isValid(car)) {
+            throw new CarException(CarErrorCode.INVALID_FIELDS);
         }
+        return car;
+    }
 
+    /**
+     * Retorna o carro do dono referenciado por um item do lote.
+     * @param ownedCars carros do dono carregados para o lote
+     * @param id ID do carro
+     * @return carro encontrado
+     */
+    private static Car ownedCar(Map<Long, Car> ownedCars, Long id) {
+        if (id == null) {
+            throw new CarException(CarErrorCode.MISSING_FIELDS);
+        }
+        Car car = ownedCars.get(id);
+        if (car == null) {
+            throw new CarException(CarErrorCode.CAR_NOT_FOUND);
+        }
         return car;
     }
 
+    /**
+     * Reserva uma placa para um item do lote, considerando as já cadastradas e as usadas por itens anteriores.
+     * @param takenPlates placas em uso
+     * @param currentPlate placa atual do carro (null na criação)
+     * @param newPlate placa pretendida
+     */
+    private static void claimLicensePlate(Set<String> takenPlates, String currentPlate, String newPlate) {
+        if (newPlate.equals(currentPlate)) {
+            return;
+        }
+        if (!takenPlates.add(newPlate)) {
+            throw new CarException(CarErrorCode.LICENSE_PLATE_EXISTS);
+        }
+        if (currentPlate != null) {
+            takenPlates.remove(currentPlate);
+        }
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<Car> getCarsByLoggedUser(Long id) {
         return repository.findAllByUser_Id(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Car> getCarsByUserIds(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        return repository.findAllByUser_IdInOrderByIdAsc(userIds);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Car> searchCars(CarSearchCriteria criteria) {
+        // sem modelo, cor, dono ou prefixo da placa, nenhum índice delimita a busca
+        if (!criteria.hasIndexedFilter()) {
+            throw new IllegalArgumentException("Informe ao menos um dos filtros model, color, plate ou ownerId");
+        }
+        if (criteria.yearFrom() != null && criteria.yearTo() != null && criteria.yearFrom() > criteria.yearTo()) {
+            throw new IllegalArgumentException("yearFrom deve ser menor ou igual a yearTo");
+        }
+        return repository.findBy(CarSpecifications.matching(criteria),
+                query -> query.sortBy(Sort.by("id")).limit(criteria.size()).all());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean licensePlateExists(String licensePlate) {
         return repository.existsByLicensePlate(licensePlate);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Set<String> findExistingLicensePlates(Collection<String> licensePlates) {
+        if (licensePlates == null || licensePlates.isEmpty()) {
+            return Set.of();
+        }
+        return repository.findExistingLicensePlates(licensePlates);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Resource getCarPhotoResource(Long id) {
         Car car = getCarById(id);
         if (car == null) {
@@ -156,6 +599,9 @@ public class CarServiceImpl implements CarService {
         return null;
     }
 
+    /**
+     * O arquivo é gravado antes de qualquer transação; só a troca da {@code photoUrl} roda em uma.
+     */
     @Override
     public Car uploadCarPhoto(Long id, MultipartFile file) {
 
@@ -194,7 +640,36 @@ public class CarServiceImpl implements CarService {
             throw new CarException(CarErrorCode.UPLOAD_FAILED);
         }
 
-        return updateCarPhoto(id, "/api/cars/" + id + "/photo");
+        return transactionTemplate.execute(status -> updateCarPhoto(id, "/api/cars/" + id + "/photo"));
+    }
+
+    /**
+     * Publica a alteração do carro para os ouvintes (invalidação de caches, estatísticas, etc.).
+     * @param car carro alterado
+     * @param type tipo da alteração
+     */
+    private void publishCarChanged(Car car, ChangeType type) {
+        Long userId = car.getUser() == null ? null : car.getUser().getId();
+        CarFacts facts = type == ChangeType.DELETED ? null : CarFacts.of(car);
+        eventPublisher.publishEvent(new CarChangedEvent(car.getId(), userId, type, facts));
+    }
+
+    /**
+     * Publica a alteração apenas do contador de uso do carro.
+     * @param car carro já relido com o novo contador
+     */
+    private void publishCarUsed(Car car) {
+        Long userId = car.getUser() == null ? null : car.getUser().getId();
+        eventPublisher.publishEvent(new CarChangedEvent(car.getId(), userId, ChangeType.UPDATED, CarFacts.of(car),
+                ChangeOrigin.USAGE));
     }
 
+    /**
+     * Publica o novo total de uso do dono (atualização do ranking de uso).
+     * @param owner dono com o total já recalculado
+     */
+    private void publishUsageChanged(UserEntity owner) {
+        eventPublisher.publishEvent(new UserUsageChangedEvent(owner.getId(), owner.getLogin(),
+                owner.getTotalUsageCount()));
+    }
 }
@@ -0,0 +1,34 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.CarUsageHistory;
+import com.pitang.car_users_backend.dto.UsageGranularity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Serviço do histórico de uso dos carros por hora, dia e mês.
+ */
+public interface CarUsageHistoryService {
+
+    /**
+     * Retorna o uso de um carro no período, agrupado pela granularidade pedida.
+     * Intervalos já agregados (horas antigas viram dias, dias antigos viram meses) são devolvidos
+     * na resolução em que estão guardados.
+     * @param carId ID do carro
+     * @param from início do período (inclusive)
+     * @param to fim do período (exclusive)
+     * @param granularity granularidade dos intervalos
+     * @return histórico de uso
+     */
+    CarUsageHistory getHistory(Long carId, LocalDateTime from, LocalDateTime to, UsageGranularity granularity);
+
+    /**
+     * Grava na tabela de histórico os usos registrados em memória desde a última gravação.
+     */
+    void flush();
+
+    /**
+     * Agrega horas antigas em dias e dias antigos em meses.
+     */
+    void downsample();
+}
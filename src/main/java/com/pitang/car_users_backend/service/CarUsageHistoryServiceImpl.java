@@ -0,0 +1,299 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.CarUsageHistory;
+import com.pitang.car_users_backend.dto.UsageBucket;
+import com.pitang.car_users_backend.dto.UsageGranularity;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.CarUsedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.model.CarUsageRollup;
+import com.pitang.car_users_backend.repository.CarUsageRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação de {@link CarUsageHistoryService}.
+ * <p>
+ * Cada uso é somado, em memória, ao {@link UsageRing} do carro (as últimas {@code ring-hours} horas);
+ * a gravação periódica leva apenas as diferenças para a tabela {@code car_usage_rollup}, uma linha por
+ * carro e hora. Consultas dentro da janela são respondidas da memória; o restante do período vem da
+ * tabela, onde horas com mais de {@code hourly-retention-days} dias são agregadas em dias e dias com
+ * mais de {@code daily-retention-days} dias, em meses.
+ */
+@Service
+public class CarUsageHistoryServiceImpl implements CarUsageHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarUsageHistoryServiceImpl.class);
+
+    private final CarUsageRollupRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate cleanupTemplate;
+    private final Clock clock;
+    private final int ringHours;
+    private final int hourlyRetentionDays;
+    private final int dailyRetentionDays;
+    private final Map<Long, UsageRing> rings = new ConcurrentHashMap<>();
+    private final Queue<PendingUsage> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public CarUsageHistoryServiceImpl(CarUsageRollupRepository repository, PlatformTransactionManager transactionManager,
+                                      @Value("${app.usage.ring-hours:48}") int ringHours,
+                                      @Value("${app.usage.hourly-retention-days:7}") int hourlyRetentionDays,
+                                      @Value("${app.usage.daily-retention-days:90}") int dailyRetentionDays) {
+        this(repository, transactionManager, Clock.systemDefaultZone(), ringHours, hourlyRetentionDays,
+                dailyRetentionDays);
+    }
+
+    CarUsageHistoryServiceImpl(CarUsageRollupRepository repository, PlatformTransactionManager transactionManager,
+                               Clock clock, int ringHours, int hourlyRetentionDays, int dailyRetentionDays) {
+        if (ringHours <= 0 || ringHours > hourlyRetentionDays * 24) {
+            throw new IllegalArgumentException("app.usage.ring-hours deve estar entre 1 e hourly-retention-days * 24");
+        }
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // chamado depois do commit de outra transação: a remoção precisa de uma transação própria
+        this.cleanupTemplate = new TransactionTemplate(transactionManager);
+        this.cleanupTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+        this.ringHours = ringHours;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+        this.dailyRetentionDays = dailyRetentionDays;
+    }
+
+    /**
+     * Registra o uso confirmado no buffer do carro.
+     * @param event evento de uso do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarUsed(CarUsedEvent event) {
+        record(event.carId(), event.usedAt(), event.count());
+    }
+
+    /**
+     * Descarta o buffer e os usos pendentes de carros removidos e apaga o seu histórico gravado.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.type() != ChangeType.DELETED) {
+            return;
+        }
+        Long carId = event.carId();
+        // junto da gravação: nenhuma gravação em curso devolve linhas do carro depois da remoção
+        flushLock.lock();
+        try {
+            rings.remove(carId);
+            pending.removeIf(usage -> usage.carId().equals(carId));
+            cleanupTemplate.executeWithoutResult(status -> repository.deleteByCarId(carId));
+        } catch (RuntimeException e) {
+            logger.error("Erro ao remover o histórico de uso do carro {}: {}", carId, e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    void record(Long carId, LocalDateTime usedAt, long amount) {
+        long hour = toHour(usedAt);
+        UsageRing ring = rings.computeIfAbsent(carId, id -> new UsageRing(ringHours));
+        if (!ring.add(hour, amount, pendingSink(carId))) {
+            pending.add(new PendingUsage(carId, hour, amount));
+        }
+    }
+
+    @Override
+    public CarUsageHistory getHistory(Long carId, LocalDateTime from, LocalDateTime to, UsageGranularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from deve ser anterior a to");
+        }
+        long currentHour = toHour(LocalDateTime.now(clock));
+        long windowStart = currentHour - ringHours + 1;
+        LocalDateTime windowStartTime = toTime(windowStart);
+        long fromHour = toHour(from);
+        long toHour = toHour(to.minusNanos(1)) + 1;
+
+        Map<LocalDateTime, Long> buckets = new TreeMap<>();
+        if (fromHour < windowStart) {
+            // fora da janela em memória: tabela de histórico e usos ainda não gravados
+            LocalDateTime end = to.isBefore(windowStartTime) ? to : windowStartTime;
+            for (CarUsageRollup row : repository.findBuckets(carId, toTime(fromHour), end)) {
+                buckets.merge(granularity.truncate(row.getBucketStart()), row.getCount(), Long::sum);
+            }
+            for (PendingUsage usage : pending) {
+                if (usage.carId().equals(carId) && usage.hour() >= fromHour && usage.hour() < Math.min(toHour, windowStart)) {
+                    buckets.merge(granularity.truncate(toTime(usage.hour())), usage.count(), Long::sum);
+                }
+            }
+        }
+        if (toHour > windowStart) {
+            UsageRing ring = primedRing(carId, windowStart);
+            for (long hour = Math.max(fromHour, windowStart); hour < Math.min(toHour, currentHour + 1); hour++) {
+                long count = ring.get(hour);
+                if (count > 0) {
+                    buckets.merge(granularity.truncate(toTime(hour)), count, Long::sum);
+                }
+            }
+        }
+
+        List<UsageBucket> result = new ArrayList<>(buckets.size());
+        buckets.forEach((start, count) -> result.add(new UsageBucket(start, count)));
+        return new CarUsageHistory(carId, granularity, from, to, result);
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${app.usage.flush-ms:60000}", fixedDelayString = "${app.usage.flush-ms:60000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<BucketKey, Long> deltas = new HashMap<>();
+            for (PendingUsage usage = pending.poll(); usage != null; usage = pending.poll()) {
+                deltas.merge(new BucketKey(usage.carId(), toTime(usage.hour())), usage.count(), Long::sum);
+            }
+            rings.forEach((carId, ring) -> ring.drainUnflushed(
+                    (hour, count) -> deltas.merge(new BucketKey(carId, toTime(hour)), count, Long::sum)));
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> merge(UsageGranularity.HOUR, deltas));
+            } catch (RuntimeException e) {
+                // mantém os usos para a próxima gravação
+                deltas.forEach((key, count) -> pending.add(new PendingUsage(key.carId(), toHour(key.start()), count)));
+                logger.error("Erro ao gravar o histórico de uso: {}", e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${app.usage.downsample-ms:3600000}",
+            fixedDelayString = "${app.usage.downsample-ms:3600000}")
+    public void downsample() {
+        LocalDateTime today = LocalDateTime.now(clock).truncatedTo(ChronoUnit.DAYS);
+        flushLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                rollUp(UsageGranularity.HOUR, UsageGranularity.DAY, today.minusDays(hourlyRetentionDays));
+                rollUp(UsageGranularity.DAY, UsageGranularity.MONTH,
+                        UsageGranularity.MONTH.truncate(today.minusDays(dailyRetentionDays)));
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Substitui os intervalos anteriores ao limite por intervalos mais largos com a mesma soma.
+     * @param source granularidade agregada
+     * @param target granularidade resultante
+     * @param before limite (início de um dia ou mês, exclusive)
+     */
+    private void rollUp(UsageGranularity source, UsageGranularity target, LocalDateTime before) {
+        List<CarUsageRollup> rows = repository.findByGranularityAndBucketStartBefore(source, before);
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<BucketKey, Long> sums = new HashMap<>();
+        for (CarUsageRollup row : rows) {
+            sums.merge(new BucketKey(row.getCarId(), target.truncate(row.getBucketStart())), row.getCount(), Long::sum);
+        }
+        repository.deleteAllInBatch(rows);
+        merge(target, sums);
+        logger.info("Histórico de uso: {} intervalos {} agregados em {} intervalos {}",
+                rows.size(), source, sums.size(), target);
+    }
+
+    /**
+     * Soma as quantidades às linhas existentes, criando as que faltam, com uma única consulta.
+     * @param granularity granularidade das linhas
+     * @param deltas quantidade a somar por carro e início do intervalo
+     */
+    private void merge(UsageGranularity granularity, Map<BucketKey, Long> deltas) {
+        Set<Long> carIds = deltas.keySet().stream().map(BucketKey::carId).collect(Collectors.toSet());
+        LocalDateTime from = Collections.min(deltas.keySet().stream().map(BucketKey::start).toList());
+        Map<BucketKey, CarUsageRollup> rows = repository.findBuckets(granularity, carIds, from).stream()
+                .collect(Collectors.toMap(row -> new BucketKey(row.getCarId(), row.getBucketStart()),
+                        Function.identity()));
+        deltas.forEach((key, count) -> {
+            CarUsageRollup row = rows.computeIfAbsent(key,
+                    k -> new CarUsageRollup(null, k.carId(), granularity, k.start(), 0));
+            row.setCount(row.getCount() + count);
+        });
+        repository.saveAll(rows.values());
+    }
+
+    /**
+     * Retorna o buffer do carro já completado com os totais gravados da janela.
+     */
+    private UsageRing primedRing(Long carId, long windowStart) {
+        UsageRing ring = rings.computeIfAbsent(carId, id -> new UsageRing(ringHours));
+        if (!ring.isPrimed()) {
+            // junto da gravação: o total lido do banco e o marcado como gravado no buffer ficam consistentes
+            flushLock.lock();
+            try {
+                if (!ring.isPrimed()) {
+                    Map<Long, Long> stored = new HashMap<>();
+                    repository.findBuckets(UsageGranularity.HOUR, List.of(carId), toTime(windowStart))
+                            .forEach(row -> stored.merge(toHour(row.getBucketStart()), row.getCount(), Long::sum));
+                    ring.prime(stored, windowStart, pendingSink(carId));
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        return ring;
+    }
+
+    private BiConsumer<Long, Long> pendingSink(Long carId) {
+        return (hour, count) -> pending.add(new PendingUsage(carId, hour, count));
+    }
+
+    private static long toHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600L);
+    }
+
+    private static LocalDateTime toTime(long hour) {
+        return LocalDateTime.ofEpochSecond(hour * 3600L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Intervalo de um carro.
+     */
+    private record BucketKey(Long carId, LocalDateTime start) {
+    }
+
+    /**
+     * Uso de uma hora fora da janela em memória, aguardando gravação.
+     */
+    private record PendingUsage(Long carId, long hour, long count) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.ChangeFeedResponse;
+
+/**
+ * Serviço do feed incremental de alterações usado na sincronização dos clientes.
+ */
+public interface ChangeFeedService {
+
+    /**
+     * Retorna as alterações do usuário (dados próprios e carros) desde o token informado.
+     * @param userId ID do usuário
+     * @param since último token recebido (null na primeira sincronização)
+     * @return alterações e próximo token
+     */
+    ChangeFeedResponse getChanges(Long userId, Long since);
+
+    /**
+     * Grava no log, uma entrada por carro, os usos de carros acumulados desde a gravação anterior.
+     * @return quantidade de entradas gravadas
+     */
+    int flushUsage();
+
+    /**
+     * Remove do log as entradas mais antigas que o período de retenção.
+     * @return quantidade de entradas removidas
+     */
+    int compact();
+}
@@ -0,0 +1,252 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.Mapper.CarMapper;
+import com.pitang.car_users_backend.Mapper.UserMapper;
+import com.pitang.car_users_backend.dto.CarResponse;
+import com.pitang.car_users_backend.dto.ChangeFeedEntry;
+import com.pitang.car_users_backend.dto.ChangeFeedResponse;
+import com.pitang.car_users_backend.dto.UserResponse;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.ChangeLogEntry;
+import com.pitang.car_users_backend.repository.ChangeLogRepository;
+import com.pitang.car_users_backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação de {@link ChangeFeedService}.
+ * <p>
+ * As entradas do log são gravadas na mesma transação da alteração, a partir dos eventos de domínio
+ * publicados por {@code UserServiceImpl} e {@code CarServiceImpl} (fase {@code BEFORE_COMMIT}).
+ * Como o ID vem de uma sequência, uma transação pode confirmar depois de outra que obteve um ID maior;
+ * por isso o feed só entrega entradas gravadas há mais de {@code settle-ms}, evitando que o token
+ * do cliente salte por cima de uma alteração ainda não confirmada.
+ * <p>
+ * Usos de carros, frequentes e que só mudam o contador, não são gravados um a um: os carros usados são
+ * acumulados em memória e gravados a cada {@code usage-flush-ms}, uma entrada por carro. A remoção em
+ * massa dos carros de um dono chega como uma única alteração do usuário ({@link UserChangedEvent}), e os
+ * eventos por carro dessa remoção são ignorados.
+ */
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private final ChangeLogRepository repository;
+    private final UserRepository userRepository;
+    private final CarService carService;
+    private final int pageSize;
+    private final long settleMillis;
+    private final long retentionHours;
+
+    /**
+     * Maior ID já removido pela compactação; tokens anteriores a ele exigem recarga completa.
+     */
+    private final AtomicLong compactedUpTo = new AtomicLong();
+
+    /**
+     * Carros usados desde a última gravação, com o ID do dono.
+     */
+    private final Map<Long, Long> usedCars = new ConcurrentHashMap<>();
+
+    public ChangeFeedServiceImpl(ChangeLogRepository repository, UserRepository userRepository, CarService carService,
+                                 @Value("${app.changes.page-size:500}") int pageSize,
+                                 @Value("${app.changes.settle-ms:1000}") long settleMillis,
+                                 @Value("${app.changes.retention-hours:24}") long retentionHours) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.carService = carService;
+        this.pageSize = pageSize;
+        this.settleMillis = settleMillis;
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Considera compactado tudo o que está abaixo da entrada mais antiga ainda presente no log.
+     */
+    @PostConstruct
+    void init() {
+        Long minId = repository.findMinId();
+        if (minId != null) {
+            compactedUpTo.set(minId - 1);
+        }
+    }
+
+    /**
+     * Registra a alteração do usuário no log.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        record(ChangeLogEntry.EntityType.USER, event.userId(), event.userId(), event.type());
+    }
+
+    /**
+     * Registra a alteração do carro no log do dono; usos ficam para a próxima gravação em lote e
+     * remoções em massa já foram registradas como alteração do dono.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.userId() == null) {
+            return;
+        }
+        switch (event.origin()) {
+            case EDIT -> record(ChangeLogEntry.EntityType.CAR, event.carId(), event.userId(), event.type());
+            case USAGE -> usedCars.put(event.carId(), event.userId());
+            case BULK_DELETE -> {
+                // já registrada como alteração do dono
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${app.changes.usage-flush-ms:5000}",
+            fixedDelayString = "${app.changes.usage-flush-ms:5000}")
+    public int flushUsage() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Long carId : usedCars.keySet()) {
+            Long userId = usedCars.remove(carId);
+            if (userId != null) {
+                drained.put(carId, userId);
+            }
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+        List<ChangeLogEntry> entries = new ArrayList<>(drained.size());
+        drained.forEach((carId, userId) ->
+                entries.add(entry(ChangeLogEntry.EntityType.CAR, carId, userId, ChangeType.UPDATED)));
+        try {
+            repository.saveAll(entries);
+        } catch (RuntimeException e) {
+            // mantém os carros para a próxima gravação
+            drained.forEach(usedCars::putIfAbsent);
+            throw e;
+        }
+        return entries.size();
+    }
+
+    private void record(ChangeLogEntry.EntityType entityType, Long entityId, Long userId, ChangeType type) {
+        repository.save(entry(entityType, entityId, userId, type));
+    }
+
+    private static ChangeLogEntry entry(ChangeLogEntry.EntityType entityType, Long entityId, Long userId,
+                                        ChangeType type) {
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setEntityType(entityType);
+        entry.setEntityId(entityId);
+        entry.setUserId(userId);
+        entry.setChangeType(type);
+        entry.setCreatedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangeFeedResponse getChanges(Long userId, Long since) {
+        LocalDateTime settledBefore = LocalDateTime.now().minus(Duration.ofMillis(settleMillis));
+        if (since == null || since < compactedUpTo.get()) {
+            return new ChangeFeedResponse(List.of(), head(settledBefore, 0), false, true);
+        }
+
+        List<ChangeLogEntry> entries = repository.findChanges(userId, since, settledBefore,
+                PageRequest.of(0, pageSize + 1));
+        boolean hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
+        if (entries.isEmpty()) {
+            // nada mudou para este usuário: avança o token até o fim do log para que a compactação não o alcance
+            return new ChangeFeedResponse(List.of(), head(settledBefore, since), false, false);
+        }
+
+        // apenas a última alteração de cada entidade interessa ao cliente
+        Map<EntityKey, ChangeLogEntry> latest = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            EntityKey key = new EntityKey(entry.getEntityType(), entry.getEntityId());
+            latest.remove(key);
+            latest.put(key, entry);
+        }
+        long nextToken = entries.get(entries.size() - 1).getId();
+        return new ChangeFeedResponse(toFeedEntries(latest.values()), nextToken, hasMore, false);
+    }
+
+    private long head(LocalDateTime settledBefore, long since) {
+        Long maxId = repository.findMaxId(settledBefore);
+        return maxId == null ? since : Math.max(since, maxId);
+    }
+
+    /**
+     * Monta as entradas do feed com o estado atual das entidades, carregando os carros em uma única consulta.
+     * Entidades que já não existem são entregues como removidas.
+     * @param entries última alteração de cada entidade
+     * @return entradas do feed
+     */
+    private List<ChangeFeedEntry> toFeedEntries(Iterable<ChangeLogEntry> entries) {
+        List<Long> carIds = new ArrayList<>();
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getEntityType() == ChangeLogEntry.EntityType.CAR && entry.getChangeType() != ChangeType.DELETED) {
+                carIds.add(entry.getEntityId());
+            }
+        }
+        Map<Long, Car> cars = carIds.isEmpty() ? Map.of() : carService.getCarsByIds(carIds).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+        List<ChangeFeedEntry> result = new ArrayList<>();
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getChangeType() == ChangeType.DELETED) {
+                result.add(new ChangeFeedEntry(entry.getEntityType(), entry.getEntityId(), ChangeType.DELETED, null, null));
+            } else if (entry.getEntityType() == ChangeLogEntry.EntityType.CAR) {
+                Car car = cars.get(entry.getEntityId());
+                CarResponse response = car == null ? null : CarMapper.toResponse(car);
+                result.add(new ChangeFeedEntry(entry.getEntityType(), entry.getEntityId(),
+                        car == null ? ChangeType.DELETED : entry.getChangeType(), null, response));
+            } else {
+                UserResponse response = userRepository.findWithCarsById(entry.getEntityId())
+                        .map(UserMapper::toResponse)
+                        .orElse(null);
+                result.add(new ChangeFeedEntry(entry.getEntityType(), entry.getEntityId(),
+                        response == null ? ChangeType.DELETED : entry.getChangeType(), response, null));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${app.changes.compaction-interval-ms:3600000}",
+            fixedDelayString = "${app.changes.compaction-interval-ms:3600000}")
+    public int compact() {
+        Long maxId = repository.findMaxId(LocalDateTime.now().minusHours(retentionHours));
+        if (maxId == null || maxId <= compactedUpTo.get()) {
+            return 0;
+        }
+        int removed = repository.deleteUpTo(maxId);
+        compactedUpTo.accumulateAndGet(maxId, Math::max);
+        return removed;
+    }
+
+    private record EntityKey(ChangeLogEntry.EntityType type, Long id) {
+    }
+}
@@ -1,23 +1,39 @@
 package com.pitang.car_users_backend.service;
 
+import com.pitang.car_users_backend.cache.SingleFlight;
+import com.pitang.car_users_backend.event.UserChangedEvent;
 import com.pitang.car_users_backend.exception.UserErrorCode;
 import com.pitang.car_users_backend.model.UserEntity;
 import com.pitang.car_users_backend.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
 
 /**
  * Serviço customizado para carregar detalhes de usuário (Spring Security)
  * a partir de um login, usando o repositório de usuários.
+ * <p>
+ * Buscas simultâneas do mesmo login compartilham uma única consulta; cada chamada recebe o seu próprio
+ * {@link UserDetails}, já que o Spring Security apaga a senha do objeto depois da autenticação.
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    @Autowired
-    private UserRepository usuarioRepository;
+    private final UserRepository usuarioRepository;
+    private final SingleFlight<String, Optional<UserEntity>> loginLoads;
+
+    public CustomUserDetailsService(UserRepository usuarioRepository, MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.loginLoads = new SingleFlight<>("user-by-login", meterRegistry);
+    }
 
     /**
      * Localiza o usuário pelo login e constrói um {@link UserDetails} para autenticação.
@@ -27,7 +43,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
-        UserEntity user = usuarioRepository.findByLogin(login)
+        UserEntity user = loginLoads.execute(login, () -> usuarioRepository.findByNaturalLogin(login))
                 .orElseThrow(() -> new UsernameNotFoundException(UserErrorCode.USER_NOT_FOUND + " [" + login + "]"));
 
         return org.springframework.security.core.userdetails.User
@@ -36,4 +52,15 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .roles("USER")
                 .build();
     }
+
+    /**
+     * Impede que buscas feitas depois do commit aguardem uma consulta iniciada antes dele. O evento não
+     * informa o login (que pode ter mudado), então todas as buscas em andamento são desassociadas.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onUserChanged(UserChangedEvent event) {
+        loginLoads.forgetAll();
+    }
 }
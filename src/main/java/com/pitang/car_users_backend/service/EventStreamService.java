@@ -0,0 +1,29 @@
+package com.pitang.car_users_backend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Serviço de envio de alterações em tempo real via Server-Sent Events.
+ */
+public interface EventStreamService {
+
+    /**
+     * Abre um stream com as alterações do perfil do usuário.
+     * @param userId ID do usuário
+     * @return emitter do stream
+     */
+    SseEmitter subscribeUser(Long userId);
+
+    /**
+     * Abre um stream com as alterações dos carros do usuário (inclusive incrementos de uso).
+     * @param userId ID do dono dos carros
+     * @return emitter do stream
+     */
+    SseEmitter subscribeCars(Long userId);
+
+    /**
+     * Retorna a quantidade de streams abertos.
+     * @return quantidade de assinantes
+     */
+    int getSubscriberCount();
+}
@@ -0,0 +1,306 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.Mapper.CarMapper;
+import com.pitang.car_users_backend.Mapper.UserMapper;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação de {@link EventStreamService}.
+ * <p>
+ * Os streams usam o suporte assíncrono do servlet ({@link SseEmitter}): uma conexão ociosa não ocupa thread.
+ * Os eventos de domínio, após o commit, apenas marcam o ID alterado no buffer de cada assinante; o envio
+ * roda em uma virtual thread por assinante com pendências, lendo o estado atual das entidades no momento
+ * do envio. Assim, várias alterações da mesma entidade viram um único evento, um cliente lento não
+ * bloqueia a transação nem os demais, e o buffer de cada assinante é limitado a {@code buffer-size} IDs
+ * distintos: ao estourar, os IDs novos são descartados e o cliente recebe um evento {@code resync}
+ * (deve então consultar {@code /api/changes}).
+ */
+@Service
+public class EventStreamServiceImpl implements EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final CarService carService;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final Executor sender;
+    private final Map<Long, Set<Subscriber>> userStreams = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> carStreams = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EventStreamServiceImpl(UserRepository userRepository, CarService carService, MeterRegistry meterRegistry,
+                                  @Value("${app.sse.buffer-size:64}") int bufferSize,
+                                  @Value("${app.sse.timeout-ms:1800000}") long timeoutMillis) {
+        this(userRepository, carService, meterRegistry, bufferSize, timeoutMillis,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    EventStreamServiceImpl(UserRepository userRepository, CarService carService, MeterRegistry meterRegistry,
+                           int bufferSize, long timeoutMillis, Executor sender) {
+        this.userRepository = userRepository;
+        this.carService = carService;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.sender = sender;
+        Gauge.builder("sse.subscribers", this, EventStreamServiceImpl::getSubscriberCount)
+                .description("Streams SSE abertos")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Map<Long, Set<Subscriber>> streams : List.of(userStreams, carStreams)) {
+            streams.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+            streams.clear();
+        }
+        if (sender instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    @Override
+    public SseEmitter subscribeUser(Long userId) {
+        return subscribe(userStreams, Kind.USER, userId);
+    }
+
+    @Override
+    public SseEmitter subscribeCars(Long userId) {
+        return subscribe(carStreams, Kind.CAR, userId);
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return userStreams.values().stream().mapToInt(Set::size).sum()
+                + carStreams.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Cria o emitter de um novo stream.
+     * @return emitter com o timeout configurado
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private SseEmitter subscribe(Map<Long, Set<Subscriber>> streams, Kind kind, Long userId) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(kind, userId, emitter, streams);
+        streams.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // o primeiro heartbeat envia os cabeçalhos e confirma a conexão ao cliente
+        subscriber.heartbeat();
+        return emitter;
+    }
+
+    /**
+     * Encaminha a alteração do carro aos streams de carros do dono.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.userId() != null) {
+            carStreams.getOrDefault(event.userId(), Set.of()).forEach(subscriber -> subscriber.offer(event.carId()));
+        }
+    }
+
+    /**
+     * Encaminha a alteração do usuário aos streams do seu perfil.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userStreams.getOrDefault(event.userId(), Set.of()).forEach(subscriber -> subscriber.offer(event.userId()));
+    }
+
+    /**
+     * Envia um heartbeat a todos os streams, mantendo as conexões abertas em proxies e detectando clientes desconectados.
+     */
+    @Scheduled(initialDelayString = "${app.sse.heartbeat-ms:15000}", fixedRateString = "${app.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Map<Long, Set<Subscriber>> streams : List.of(userStreams, carStreams)) {
+            streams.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+        }
+    }
+
+    private enum Kind {
+        USER,
+        CAR
+    }
+
+    /**
+     * Stream aberto, com o buffer (limitado e sem repetição) de IDs alterados ainda não enviados.
+     */
+    private final class Subscriber {
+
+        private final Kind kind;
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Map<Long, Set<Subscriber>> streams;
+        private final Set<Long> pending = new LinkedHashSet<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private boolean overflow;
+        private boolean ping;
+        private volatile boolean closed;
+
+        private Subscriber(Kind kind, Long userId, SseEmitter emitter, Map<Long, Set<Subscriber>> streams) {
+            this.kind = kind;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.streams = streams;
+        }
+
+        void offer(Long id) {
+            synchronized (this) {
+                if (pending.size() >= bufferSize && !pending.contains(id)) {
+                    overflow = true;
+                } else {
+                    pending.add(id);
+                }
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                ping = true;
+            }
+            schedule();
+        }
+
+        private synchronized boolean hasWork() {
+            return !pending.isEmpty() || overflow || ping;
+        }
+
+        private void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        /**
+         * Envia tudo o que estiver pendente. Apenas uma execução por assinante roda de cada vez,
+         * o que preserva a ordem dos eventos no stream.
+         */
+        private void drain() {
+            try {
+                while (!closed) {
+                    List<Long> ids;
+                    boolean resync;
+                    boolean sendPing;
+                    synchronized (this) {
+                        if (pending.isEmpty() && !overflow && !ping) {
+                            break;
+                        }
+                        ids = List.copyOf(pending);
+                        pending.clear();
+                        resync = overflow;
+                        overflow = false;
+                        sendPing = ping;
+                        ping = false;
+                    }
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data(Map.of("reason", "buffer-overflow"),
+                                MediaType.APPLICATION_JSON));
+                    }
+                    if (!ids.isEmpty()) {
+                        sendState(ids);
+                    }
+                    if (sendPing) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // cliente desconectado ou emitter já encerrado
+                logger.debug("Stream SSE encerrado para o usuário {}: {}", userId, e.getMessage());
+                close();
+            } catch (RuntimeException e) {
+                logger.error("Erro ao enviar eventos SSE para o usuário {}: {}", userId, e.getMessage());
+            } finally {
+                scheduled.set(false);
+                if (!closed && hasWork()) {
+                    schedule();
+                }
+            }
+        }
+
+        /**
+         * Envia o estado atual das entidades alteradas (ou o aviso de remoção).
+         * @param ids IDs alterados
+         * @throws IOException se o cliente estiver desconectado
+         */
+        private void sendState(List<Long> ids) throws IOException {
+            if (kind == Kind.USER) {
+                Optional<UserEntity> user = userRepository.findWithCarsById(userId);
+                if (user.isPresent()) {
+                    emitter.send(SseEmitter.event().name("user").data(UserMapper.toResponse(user.get()),
+                            MediaType.APPLICATION_JSON));
+                } else {
+                    emitter.send(SseEmitter.event().name("user-deleted").data(Map.of("id", userId),
+                            MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                }
+                return;
+            }
+            Map<Long, Car> cars = carService.getCarsByIds(ids).stream()
+                    .collect(Collectors.toMap(Car::getId, Function.identity()));
+            for (Long id : ids) {
+                Car car = cars.get(id);
+                if (car != null && car.getUser() != null && userId.equals(car.getUser().getId())) {
+                    emitter.send(SseEmitter.event().name("car").data(CarMapper.toResponse(car),
+                            MediaType.APPLICATION_JSON));
+                } else {
+                    emitter.send(SseEmitter.event().name("car-deleted").data(Map.of("id", id),
+                            MediaType.APPLICATION_JSON));
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            streams.computeIfPresent(userId, (id, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+}
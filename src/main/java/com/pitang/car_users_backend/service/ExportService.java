@@ -0,0 +1,31 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Interface que define as exportações completas de usuários e dos carros de um usuário.
+ */
+public interface ExportService {
+
+    /**
+     * Escreve todos os usuários (sem senha e sem carros) no formato pedido, em fluxo.
+     * @param format formato da exportação
+     * @param out destino dos dados (não é fechado)
+     * @return quantidade de usuários exportados
+     * @throws IOException em caso de falha na escrita
+     */
+    long exportUsers(ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Escreve os carros de um usuário, com o ID do dono, no formato pedido, em fluxo.
+     * @param userId ID do dono
+     * @param format formato da exportação
+     * @param out destino dos dados (não é fechado)
+     * @return quantidade de carros exportados
+     * @throws IOException em caso de falha na escrita
+     */
+    long exportCars(Long userId, ExportFormat format, OutputStream out) throws IOException;
+}
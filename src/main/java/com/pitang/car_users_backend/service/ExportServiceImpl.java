@@ -0,0 +1,185 @@
+package com.pitang.car_users_backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pitang.car_users_backend.dto.ExportFormat;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.CarRepository;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Implementação de {@link ExportService}.
+ * <p>
+ * As linhas vêm de um cursor somente-avanço ({@code scrollAll}, {@code scrollByUserId}) e são escritas
+ * diretamente no destino, sem montar listas nem DTOs intermediários; o destino é descarregado a cada
+ * {@code fetchSize} linhas, o que mantém a resposta em blocos e o heap estável. Uma falha de escrita
+ * (cliente desconectado) interrompe o cursor e a consulta.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final List<Column<UserEntity>> USER_COLUMNS = List.of(
+            new Column<>("id", UserEntity::getId),
+            new Column<>("firstName", UserEntity::getFirstName),
+            new Column<>("lastName", UserEntity::getLastName),
+            new Column<>("email", UserEntity::getEmail),
+            new Column<>("birthday", UserEntity::getBirthday),
+            new Column<>("login", UserEntity::getLogin),
+            new Column<>("phone", UserEntity::getPhone),
+            new Column<>("createdAt", UserEntity::getCreatedAt),
+            new Column<>("lastLogin", UserEntity::getLastLogin),
+            new Column<>("photoUrl", UserEntity::getPhotoUrl),
+            new Column<>("totalUsageCount", UserEntity::getTotalUsageCount),
+            new Column<>("version", UserEntity::getVersion));
+
+    private static final List<Column<Car>> CAR_COLUMNS = List.of(
+            new Column<>("id", Car::getId),
+            new Column<>("userId", car -> car.getUser() == null ? null : car.getUser().getId()),
+            new Column<>("licensePlate", Car::getLicensePlate),
+            new Column<>("model", Car::getModel),
+            new Column<>("year", Car::getYear),
+            new Column<>("color", Car::getColor),
+            new Column<>("usageCount", Car::getUsageCount),
+            new Column<>("photoUrl", Car::getPhotoUrl),
+            new Column<>("version", Car::getVersion));
+
+    private final UserRepository userRepository;
+    private final CarRepository carRepository;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    public ExportServiceImpl(UserRepository userRepository, CarRepository carRepository, ObjectMapper objectMapper,
+                             @Value("${app.export.fetch-size:500}") int fetchSize) {
+        this.userRepository = userRepository;
+        this.carRepository = carRepository;
+        // sem flush a cada valor: o destino é descarregado apenas a cada bloco de linhas
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long exportUsers(ExportFormat format, OutputStream out) throws IOException {
+        return export(format, out, USER_COLUMNS, consumer -> userRepository.scrollAll(fetchSize, consumer));
+    }
+
+    @Override
+    public long exportCars(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        return export(format, out, CAR_COLUMNS, consumer -> carRepository.scrollByUserId(userId, fetchSize, consumer));
+    }
+
+    private <T> long export(ExportFormat format, OutputStream out, List<Column<T>> columns,
+                            ToLongFunction<Consumer<T>> scroll) throws IOException {
+        try {
+            return format == ExportFormat.CSV
+                    ? exportCsv(out, columns, scroll)
+                    : exportNdjson(out, columns, scroll);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> long exportNdjson(OutputStream out, List<Column<T>> columns, ToLongFunction<Consumer<T>> scroll)
+            throws IOException {
+        JsonGenerator generator = jsonWriter.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long rows = scroll.applyAsLong(new Consumer<>() {
+            private long written;
+
+            @Override
+            public void accept(T row) {
+                try {
+                    generator.writeStartObject();
+                    for (Column<T> column : columns) {
+                        generator.writeFieldName(column.name());
+                        jsonWriter.writeValue(generator, column.value().apply(row));
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    if (++written % fetchSize == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        generator.flush();
+        return rows;
+    }
+
+    private <T> long exportCsv(OutputStream out, List<Column<T>> columns, ToLongFunction<Consumer<T>> scroll)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, columns.stream().map(Column::name).toList());
+        long rows = scroll.applyAsLong(new Consumer<>() {
+            private long written;
+
+            @Override
+            public void accept(T row) {
+                try {
+                    writeCsvLine(writer, columns.stream().map(column -> column.value().apply(row)).toList());
+                    if (++written % fetchSize == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Escreve uma linha CSV (RFC 4180): valores com vírgula, aspas ou quebra de linha vão entre aspas.
+     * @param writer destino
+     * @param values valores da linha (null vira campo vazio)
+     * @throws IOException em caso de falha na escrita
+     */
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Coluna exportada: nome e extrator do valor.
+     * @param name nome da coluna (chave no NDJSON, cabeçalho no CSV)
+     * @param value extrator do valor a partir da entidade
+     * @param <T> tipo da entidade
+     */
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+}
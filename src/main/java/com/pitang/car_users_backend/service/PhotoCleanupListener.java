@@ -0,0 +1,142 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Remove do disco as fotos de carros e usuários excluídos.
+ * <p>
+ * A limpeza roda em segundo plano, após o commit, para não prender a transação nem a requisição.
+ * Os IDs removidos são acumulados e tratados em lote: a exclusão em massa dos carros de um usuário
+ * gera uma única varredura de cada diretório de uploads, e não uma por carro.
+ */
+@Component
+public class PhotoCleanupListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoCleanupListener.class);
+
+    private final Path carsDir;
+    private final Path usersDir;
+    private final Queue<Long> pendingCars = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> pendingUsers = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Executor executor;
+
+    public PhotoCleanupListener() {
+        this(Paths.get("uploads/cars"), Paths.get("uploads/users"), Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "photo-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    PhotoCleanupListener(Path carsDir, Path usersDir, Executor executor) {
+        this.carsDir = carsDir.toAbsolutePath().normalize();
+        this.usersDir = usersDir.toAbsolutePath().normalize();
+        this.executor = executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Agenda a remoção da foto do carro excluído.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.type() == ChangeType.DELETED && event.carId() != null) {
+            pendingCars.add(event.carId());
+            schedule();
+        }
+    }
+
+    /**
+     * Agenda a remoção da foto do usuário excluído.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == ChangeType.DELETED && event.userId() != null) {
+            pendingUsers.add(event.userId());
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Processa todos os IDs pendentes; IDs que chegarem durante a varredura agendam uma nova execução.
+     */
+    private void drain() {
+        scheduled.set(false);
+        deletePhotos(carsDir, "car_", poll(pendingCars));
+        deletePhotos(usersDir, "user_", poll(pendingUsers));
+    }
+
+    private static Set<Long> poll(Queue<Long> queue) {
+        Set<Long> ids = new HashSet<>();
+        for (Long id = queue.poll(); id != null; id = queue.poll()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Apaga, em uma única varredura do diretório, os arquivos {@code <prefixo><id>.*} dos IDs informados.
+     * @param dir diretório de uploads
+     * @param prefix prefixo do nome do arquivo
+     * @param ids IDs cujas fotos devem ser removidas
+     */
+    private static void deletePhotos(Path dir, String prefix, Set<Long> ids) {
+        if (ids.isEmpty() || !Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*.*")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                int dot = name.indexOf('.', prefix.length());
+                try {
+                    if (ids.contains(Long.parseLong(name.substring(prefix.length(), dot)))) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (NumberFormatException ignored) {
+                    // arquivo que não segue o padrão de nomes dos uploads
+                } catch (IOException ex) {
+                    logger.error("Erro ao remover a foto {}: {}", file, ex.getMessage());
+                }
+            }
+        } catch (IOException ex) {
+            logger.error("Erro de limpeza dos arquivos: {}", ex.getMessage());
+        }
+    }
+}
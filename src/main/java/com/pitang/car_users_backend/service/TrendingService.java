@@ -0,0 +1,35 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+
+import java.util.List;
+
+/**
+ * Serviço da pontuação de tendência de carros e usuários: uso com decaimento exponencial e meia-vida
+ * configurável ({@code app.trending.half-life-hours}).
+ */
+public interface TrendingService {
+
+    /**
+     * Retorna uma página dos carros de um usuário, do maior para o menor uso recente.
+     * @param userId ID do usuário
+     * @param page página (a partir de 0)
+     * @param size tamanho da página
+     * @return carros da página
+     */
+    List<Car> getTrendingCars(Long userId, int page, int size);
+
+    /**
+     * Retorna uma página dos usuários, do maior para o menor uso recente.
+     * @param page página (a partir de 0)
+     * @param size tamanho da página
+     * @return usuários da página, com os carros carregados
+     */
+    List<UserEntity> getTrendingUsers(int page, int size);
+
+    /**
+     * Grava no banco as pontuações acumuladas em memória desde a última gravação.
+     */
+    void flush();
+}
@@ -0,0 +1,250 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.CarUsedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.ChangeLogEntry.EntityType;
+import com.pitang.car_users_backend.model.TrendingScore;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.CarRepository;
+import com.pitang.car_users_backend.repository.TrendingScoreRepository;
+import com.pitang.car_users_backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação de {@link TrendingService}.
+ * <p>
+ * Cada uso soma {@code count · 2^((t - época) / meia-vida)} à pontuação do carro e do dono, guardada em
+ * escala logarítmica ({@link TrendingScore}); a soma em escala logarítmica é associativa, então cada
+ * evento custa O(1) e só é acumulado em memória. A gravação periódica combina o acumulado com a linha
+ * gravada, sem recalcular nada; como a ordem das pontuações não muda com o tempo, as listagens
+ * ordenam e paginam direto no banco.
+ * <p>
+ * Mudar a meia-vida altera a escala: pontuações gravadas com outra meia-vida deixam de ser comparáveis.
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingServiceImpl.class);
+
+    /** Origem do decaimento adiantado; usos anteriores apenas ficam com pontuação negativa. */
+    static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final double LN_2 = Math.log(2);
+
+    private final TrendingScoreRepository repository;
+    private final CarRepository carRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final double halfLifeMillis;
+    private final Map<Long, Double> pendingCars = new ConcurrentHashMap<>();
+    private final Map<Long, Double> pendingUsers = new ConcurrentHashMap<>();
+    private final Set<Long> deletedCars = ConcurrentHashMap.newKeySet();
+    private final Set<Long> deletedUsers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public TrendingServiceImpl(TrendingScoreRepository repository, CarRepository carRepository,
+                               UserRepository userRepository, UserService userService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.trending.half-life-hours:72}") double halfLifeHours) {
+        if (halfLifeHours <= 0) {
+            throw new IllegalArgumentException("app.trending.half-life-hours deve ser maior que zero");
+        }
+        this.repository = repository;
+        this.carRepository = carRepository;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.halfLifeMillis = halfLifeHours * 3_600_000;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Soma o uso à pontuação do carro e do dono.
+     * @param event evento de uso do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarUsed(CarUsedEvent event) {
+        if (event.count() <= 0) {
+            return;
+        }
+        double weight = weight(event.usedAt(), event.count());
+        pendingCars.merge(event.carId(), weight, TrendingServiceImpl::logSum);
+        if (event.userId() != null) {
+            pendingUsers.merge(event.userId(), weight, TrendingServiceImpl::logSum);
+        }
+    }
+
+    /**
+     * Descarta a pontuação de carros removidos.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            pendingCars.remove(event.carId());
+            deletedCars.add(event.carId());
+        }
+    }
+
+    /**
+     * Descarta a pontuação de usuários removidos.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            pendingUsers.remove(event.userId());
+            deletedUsers.add(event.userId());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Car> getTrendingCars(Long userId, int page, int size) {
+        return carRepository.findByUserOrderByTrending(userId, EntityType.CAR, PageRequest.of(page, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserEntity> getTrendingUsers(int page, int size) {
+        return userService.getUsersByIds(userRepository.findIdsOrderByTrending(EntityType.USER,
+                PageRequest.of(page, size)));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.trending.flush-ms:60000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Double> cars = drain(pendingCars);
+            Map<Long, Double> users = drain(pendingUsers);
+            Set<Long> removedCars = drain(deletedCars);
+            Set<Long> removedUsers = drain(deletedUsers);
+            if (cars.isEmpty() && users.isEmpty() && removedCars.isEmpty() && removedUsers.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    merge(EntityType.CAR, cars);
+                    merge(EntityType.USER, users);
+                    // depois das somas: um uso que chegou junto com a exclusão não deixa linha órfã
+                    if (!removedCars.isEmpty()) {
+                        repository.deleteByEntityIds(EntityType.CAR, removedCars);
+                    }
+                    if (!removedUsers.isEmpty()) {
+                        repository.deleteByEntityIds(EntityType.USER, removedUsers);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                // nada foi gravado: o acumulado volta para a próxima gravação
+                cars.forEach((id, weight) -> pendingCars.merge(id, weight, TrendingServiceImpl::logSum));
+                users.forEach((id, weight) -> pendingUsers.merge(id, weight, TrendingServiceImpl::logSum));
+                deletedCars.addAll(removedCars);
+                deletedUsers.addAll(removedUsers);
+                logger.error("Erro ao gravar as pontuações de tendência: {}", ex.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Combina o acumulado com as pontuações gravadas (uma consulta por tipo) e grava em lote.
+     * @param entityType tipo das entidades
+     * @param weights acumulado por ID, em escala logarítmica
+     */
+    private void merge(EntityType entityType, Map<Long, Double> weights) {
+        if (weights.isEmpty()) {
+            return;
+        }
+        Map<Long, TrendingScore> stored = repository.findByEntityTypeAndEntityIdIn(entityType, weights.keySet())
+                .stream()
+                .collect(Collectors.toMap(TrendingScore::getEntityId, Function.identity()));
+        List<TrendingScore> created = new ArrayList<>();
+        weights.forEach((id, weight) -> {
+            TrendingScore score = stored.get(id);
+            if (score == null) {
+                created.add(new TrendingScore(null, entityType, id, weight));
+            } else {
+                score.setScore(logSum(score.getScore(), weight));
+            }
+        });
+        repository.saveAll(created);
+    }
+
+    /**
+     * Peso de um uso em escala logarítmica: {@code log2(count) + (t - época) / meia-vida}.
+     * @param usedAt instante do uso
+     * @param count quantidade de usos
+     * @return peso do uso
+     */
+    double weight(LocalDateTime usedAt, long count) {
+        long millis = usedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - EPOCH.toEpochMilli();
+        return millis / halfLifeMillis + Math.log(count) / LN_2;
+    }
+
+    /**
+     * Soma em escala logarítmica: {@code log2(2^a + 2^b)}, sem estouro para valores grandes.
+     * @param a primeira parcela
+     * @param b segunda parcela
+     * @return soma
+     */
+    static double logSum(double a, double b) {
+        return Math.max(a, b) + Math.log1p(Math.pow(2, -Math.abs(a - b))) / LN_2;
+    }
+
+    private static <V> Map<Long, V> drain(Map<Long, V> pending) {
+        Map<Long, V> drained = new HashMap<>();
+        for (Long id : pending.keySet()) {
+            V value = pending.remove(id);
+            if (value != null) {
+                drained.put(id, value);
+            }
+        }
+        return drained;
+    }
+
+    private static Set<Long> drain(Set<Long> pending) {
+        Set<Long> drained = new HashSet<>();
+        for (Long id : pending) {
+            if (pending.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,28 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.UsageBatchAck;
+import com.pitang.car_users_backend.dto.UsageEncoding;
+import com.pitang.car_users_backend.dto.UsageIngestSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Interface que define a ingestão de eventos de uso enviados pelos gateways de telemetria.
+ */
+public interface UsageIngestionService {
+
+    /**
+     * Lê os eventos do fluxo em lotes de tamanho fixo, valida a posse de cada carro e registra os aceitos
+     * no uso acumulado ({@link BufferedUsageService}).
+     * @param userId ID do dono dos carros
+     * @param body fluxo com os eventos
+     * @param encoding formato do fluxo
+     * @param acks recebe a confirmação de cada lote, assim que ele é registrado
+     * @return totais da requisição
+     * @throws IOException em caso de falha na leitura do fluxo
+     */
+    UsageIngestSummary ingest(Long userId, InputStream body, UsageEncoding encoding, Consumer<UsageBatchAck> acks)
+            throws IOException;
+}
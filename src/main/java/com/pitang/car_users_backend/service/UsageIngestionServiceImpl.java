@@ -0,0 +1,227 @@
+package com.pitang.car_users_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.pitang.car_users_backend.dto.UsageBatchAck;
+import com.pitang.car_users_backend.dto.UsageEncoding;
+import com.pitang.car_users_backend.dto.UsageEvent;
+import com.pitang.car_users_backend.dto.UsageIngestSummary;
+import com.pitang.car_users_backend.repository.CarRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Implementação de {@link UsageIngestionService}.
+ * <p>
+ * O corpo é lido em fluxo, em lotes de {@code batch-size} eventos. A posse dos carros é verificada com
+ * uma consulta por lote, apenas para os IDs ainda não vistos na requisição; os eventos aceitos vão para o
+ * log de uso e para o acumulador por carro, que os aplica ao banco em lote. Cada lote é confirmado depois
+ * do commit em grupo do log (ou do tempo limite, com {@code durable=false}).
+ * <p>
+ * Métricas: {@code usage.ingest.events} (tag {@code result}: accepted/rejected) e
+ * {@code usage.ingest.batch} (tempo de registro de cada lote).
+ */
+@Service
+public class UsageIngestionServiceImpl implements UsageIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageIngestionServiceImpl.class);
+
+    /** Tolerância para relógios de gateways adiantados. */
+    private static final long MAX_CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final CarRepository carRepository;
+    private final BufferedUsageService bufferedUsageService;
+    private final ObjectReader reader;
+    private final int batchSize;
+    private final long ackTimeoutMillis;
+    private final Counter acceptedEvents;
+    private final Counter rejectedEvents;
+    private final Timer batchTimer;
+
+    public UsageIngestionServiceImpl(CarRepository carRepository, BufferedUsageService bufferedUsageService,
+                                     ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                     @Value("${app.usage-ingest.batch-size:5000}") int batchSize,
+                                     @Value("${app.usage-ingest.ack-timeout-ms:1000}") long ackTimeoutMillis) {
+        this.carRepository = carRepository;
+        this.bufferedUsageService = bufferedUsageService;
+        this.reader = objectMapper.readerFor(UsageEvent.class);
+        this.batchSize = batchSize;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.acceptedEvents = Counter.builder("usage.ingest.events")
+                .description("Eventos de uso recebidos pela ingestão")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.rejectedEvents = Counter.builder("usage.ingest.events")
+                .description("Eventos de uso recebidos pela ingestão")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("usage.ingest.batch")
+                .description("Tempo de validação e registro de um lote de uso")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UsageIngestSummary ingest(Long userId, InputStream body, UsageEncoding encoding,
+                                     Consumer<UsageBatchAck> acks) throws IOException {
+        Ingestion ingestion = new Ingestion(userId, acks);
+        if (encoding == UsageEncoding.BINARY) {
+            readBinary(body, ingestion);
+        } else {
+            readNdjson(body, ingestion);
+        }
+        ingestion.complete();
+
+        UsageIngestSummary summary = new UsageIngestSummary(ingestion.accepted, ingestion.rejected,
+                ingestion.batches, ingestion.eventsPerSecond());
+        logger.debug("Usage ingestion for user {}: {} accepted, {} rejected in {} batches", userId,
+                summary.accepted(), summary.rejected(), summary.batches());
+        return summary;
+    }
+
+    private void readNdjson(InputStream body, Ingestion ingestion) throws IOException {
+        // cada linha é analisada isoladamente: uma linha malformada é rejeitada sem interromper o fluxo
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            UsageEvent event;
+            try {
+                event = reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                event = null;
+            }
+            ingestion.add(event);
+        }
+    }
+
+    private void readBinary(InputStream body, Ingestion ingestion) throws IOException {
+        InputStream in = new BufferedInputStream(body);
+        byte[] record = new byte[UsageEncoding.BINARY_EVENT_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int read;
+        while ((read = in.readNBytes(record, 0, record.length)) == record.length) {
+            ingestion.add(new UsageEvent(buffer.getLong(0), buffer.getInt(8), buffer.getLong(12)));
+        }
+        if (read > 0) {
+            // registro final incompleto
+            ingestion.add(null);
+        }
+    }
+
+    /**
+     * Estado de uma requisição: lote corrente, posse dos carros já verificada e totais.
+     */
+    private final class Ingestion {
+
+        private final Long userId;
+        private final Consumer<UsageBatchAck> acks;
+        private final long startedAt = System.nanoTime();
+        private final Set<Long> ownedIds = new HashSet<>();
+        private final Set<Long> foreignIds = new HashSet<>();
+        private final List<UsageEvent> batch = new ArrayList<>(batchSize);
+        private int batchRejected;
+        private int batches;
+        private long accepted;
+        private long rejected;
+
+        private Ingestion(Long userId, Consumer<UsageBatchAck> acks) {
+            this.userId = userId;
+            this.acks = acks;
+        }
+
+        /**
+         * Adiciona um evento ao lote corrente; null representa um evento malformado.
+         * @param event evento lido do fluxo
+         */
+        private void add(UsageEvent event) {
+            long now = System.currentTimeMillis();
+            if (event == null || event.count() <= 0 || event.timestamp() < 0
+                    || event.timestamp() > now + MAX_CLOCK_SKEW_MILLIS) {
+                batchRejected++;
+            } else {
+                // sem instante informado, vale o da chegada
+                batch.add(event.timestamp() == 0 ? new UsageEvent(event.carId(), event.count(), now) : event);
+            }
+            if (batch.size() + batchRejected == batchSize) {
+                flushBatch();
+            }
+        }
+
+        private void complete() {
+            if (!batch.isEmpty() || batchRejected > 0) {
+                flushBatch();
+            }
+        }
+
+        private void flushBatch() {
+            long started = System.nanoTime();
+            Set<Long> unknown = new HashSet<>();
+            for (UsageEvent event : batch) {
+                if (!ownedIds.contains(event.carId()) && !foreignIds.contains(event.carId())) {
+                    unknown.add(event.carId());
+                }
+            }
+            if (!unknown.isEmpty()) {
+                Set<Long> owned = carRepository.findOwnedIds(userId, unknown);
+                ownedIds.addAll(owned);
+                unknown.removeAll(owned);
+                foreignIds.addAll(unknown);
+            }
+
+            List<UsageEvent> valid = batch.stream().filter(event -> ownedIds.contains(event.carId())).toList();
+            int invalid = batchRejected + batch.size() - valid.size();
+            Long lsn = null;
+            boolean durable = false;
+            if (!valid.isEmpty()) {
+                lsn = bufferedUsageService.record(userId, valid);
+                durable = awaitDurable(lsn);
+            }
+            batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            acceptedEvents.increment(valid.size());
+            rejectedEvents.increment(invalid);
+
+            batches++;
+            accepted += valid.size();
+            rejected += invalid;
+            batch.clear();
+            batchRejected = 0;
+            acks.accept(new UsageBatchAck(batches, valid.size(), invalid, lsn, durable, eventsPerSecond()));
+        }
+
+        private boolean awaitDurable(long lsn) {
+            try {
+                return bufferedUsageService.awaitDurable(lsn, ackTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private double eventsPerSecond() {
+            long elapsed = System.nanoTime() - startedAt;
+            return elapsed == 0 ? 0 : (accepted + rejected) * 1_000_000_000.0 / elapsed;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.pitang.car_users_backend.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Buffer circular com os usos de um carro nas últimas horas: um slot por hora (índice = hora % tamanho).
+ * Cada slot guarda o total da hora e quanto desse total já foi gravado na tabela de histórico.
+ * Uma hora que sai da janela com uso ainda não gravado é entregue ao chamador para gravação posterior.
+ */
+final class UsageRing {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] hours;
+    private final long[] totals;
+    private final long[] flushed;
+    private volatile boolean primed;
+
+    UsageRing(int size) {
+        this.hours = new long[size];
+        this.totals = new long[size];
+        this.flushed = new long[size];
+        Arrays.fill(hours, EMPTY);
+    }
+
+    /**
+     * Soma usos a uma hora.
+     * @param hour hora (horas desde a época)
+     * @param amount quantidade de usos
+     * @param evicted recebe a hora descartada do slot e o uso ainda não gravado dela
+     * @return false se a hora já saiu da janela (o chamador deve gravá-la diretamente)
+     */
+    synchronized boolean add(long hour, long amount, BiConsumer<Long, Long> evicted) {
+        int slot = slot(hour);
+        if (hours[slot] != hour) {
+            if (hours[slot] != EMPTY && hours[slot] > hour) {
+                return false;
+            }
+            reset(slot, hour, evicted);
+        }
+        totals[slot] += amount;
+        return true;
+    }
+
+    /**
+     * Retorna o total de usos de uma hora dentro da janela.
+     * @param hour hora (horas desde a época)
+     * @return total de usos (0 se a hora não estiver no buffer)
+     */
+    synchronized long get(long hour) {
+        int slot = slot(hour);
+        return hours[slot] == hour ? totals[slot] : 0;
+    }
+
+    /**
+     * Entrega o uso ainda não gravado de cada hora e o marca como gravado.
+     * @param sink recebe a hora e a quantidade a gravar
+     */
+    synchronized void drainUnflushed(BiConsumer<Long, Long> sink) {
+        for (int slot = 0; slot < hours.length; slot++) {
+            if (hours[slot] != EMPTY && totals[slot] > flushed[slot]) {
+                sink.accept(hours[slot], totals[slot] - flushed[slot]);
+                flushed[slot] = totals[slot];
+            }
+        }
+    }
+
+    boolean isPrimed() {
+        return primed;
+    }
+
+    /**
+     * Completa o buffer com os totais já gravados no banco (inclusive por execuções anteriores da aplicação),
+     * preservando o uso ainda não gravado.
+     * @param stored total gravado por hora
+     * @param windowStart primeira hora da janela
+     * @param evicted recebe horas descartadas com uso ainda não gravado
+     */
+    synchronized void prime(Map<Long, Long> stored, long windowStart, BiConsumer<Long, Long> evicted) {
+        stored.forEach((hour, count) -> {
+            if (hour < windowStart) {
+                return;
+            }
+            int slot = slot(hour);
+            if (hours[slot] != hour) {
+                if (hours[slot] != EMPTY && hours[slot] > hour) {
+                    return;
+                }
+                reset(slot, hour, evicted);
+            }
+            totals[slot] = totals[slot] - flushed[slot] + count;
+            flushed[slot] = count;
+        });
+        primed = true;
+    }
+
+    private void reset(int slot, long hour, BiConsumer<Long, Long> evicted) {
+        if (hours[slot] != EMPTY && totals[slot] > flushed[slot]) {
+            evicted.accept(hours[slot], totals[slot] - flushed[slot]);
+        }
+        hours[slot] = hour;
+        totals[slot] = 0;
+        flushed[slot] = 0;
+    }
+
+    private int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) hours.length);
+    }
+}
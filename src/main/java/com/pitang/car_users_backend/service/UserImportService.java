@@ -0,0 +1,25 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.UserImportResult;
+import com.pitang.car_users_backend.dto.UserImportSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Interface que define a importação em massa de usuários.
+ */
+public interface UserImportService {
+
+    /**
+     * Importa usuários de um fluxo NDJSON (um {@code UserRequest} por linha), em blocos de tamanho fixo:
+     * a memória usada não depende do tamanho do arquivo.
+     * @param ndjson fluxo com um usuário por linha
+     * @param results recebe os resultados de cada bloco, na ordem das linhas, assim que o bloco é gravado
+     * @return totais da importação
+     * @throws IOException em caso de falha na leitura do fluxo
+     */
+    UserImportSummary importUsers(InputStream ndjson, Consumer<List<UserImportResult>> results) throws IOException;
+}
@@ -0,0 +1,387 @@
+package com.pitang.car_users_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.pitang.car_users_backend.Mapper.UserMapper;
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.UserImportResult;
+import com.pitang.car_users_backend.dto.UserImportSummary;
+import com.pitang.car_users_backend.dto.UserRequest;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import com.pitang.car_users_backend.exception.CarException;
+import com.pitang.car_users_backend.exception.UserErrorCode;
+import com.pitang.car_users_backend.exception.UserException;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import com.pitang.car_users_backend.util.CarValidationUtil;
+import com.pitang.car_users_backend.util.UserValidationUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Implementação de {@link UserImportService}.
+ * <p>
+ * Cada bloco de linhas passa por: leitura e validação em paralelo, verificação de e-mails, logins e placas
+ * já cadastrados (uma consulta de cada por bloco), hash das senhas em paralelo em um pool limitado e
+ * inserção em lote (JDBC batch) em uma transação própria. Ao fim do bloco o contexto de persistência é
+ * descartado e os resultados são entregues, mantendo a memória constante.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    private final UserRepository repository;
+    private final CarService carService;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader reader;
+    private final int chunkSize;
+    private final int maxLineLength;
+    private final ThreadPoolExecutor executor;
+
+    public UserImportServiceImpl(UserRepository repository, CarService carService, PasswordEncoder passwordEncoder,
+                                 ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.import.chunk-size:500}") int chunkSize,
+                                 @Value("${app.import.threads:0}") int threads,
+                                 @Value("${app.import.max-line-length:65536}") int maxLineLength) {
+        this.repository = repository;
+        this.carService = carService;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reader = objectMapper.readerFor(UserRequest.class);
+        this.chunkSize = chunkSize;
+        this.maxLineLength = maxLineLength;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public UserImportSummary importUsers(InputStream ndjson, Consumer<List<UserImportResult>> results) throws IOException {
+        long imported = 0;
+        long failed = 0;
+        long lineNumber = 0;
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+
+        // cada linha é lida e analisada isoladamente: uma linha malformada é rejeitada sem interromper o fluxo;
+        // linhas acima do limite são descartadas sem serem guardadas em memória
+        BoundedLineReader lines = new BoundedLineReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8),
+                maxLineLength);
+        while (lines.next()) {
+            lineNumber++;
+            if (lines.isTruncated()) {
+                ImportLine tooLong = new ImportLine(lineNumber, null);
+                tooLong.fail("Line exceeds " + maxLineLength + " characters", UserErrorCode.INVALID_FIELDS.getCode());
+                chunk.add(tooLong);
+            } else if (!lines.line().isBlank()) {
+                chunk.add(new ImportLine(lineNumber, lines.line()));
+            }
+            if (chunk.size() == chunkSize) {
+                long created = importChunk(chunk, results);
+                imported += created;
+                failed += chunk.size() - created;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            long created = importChunk(chunk, results);
+            imported += created;
+            failed += chunk.size() - created;
+        }
+
+        logger.info("User import finished: {} imported, {} failed", imported, failed);
+        return new UserImportSummary(imported, failed);
+    }
+
+    /**
+     * Importa um bloco de linhas e entrega seus resultados.
+     * @param chunk linhas do bloco
+     * @param results destino dos resultados
+     * @return quantidade de usuários criados
+     */
+    private long importChunk(List<ImportLine> chunk, Consumer<List<UserImportResult>> results) {
+        runParallel(chunk, this::parseAndValidate);
+        rejectExisting(chunk);
+        runParallel(chunk, importLine -> importLine.user.setPassword(passwordEncoder.encode(importLine.user.getPassword())));
+
+        List<UserEntity> users = chunk.stream()
+                .filter(ImportLine::isPending)
+                .map(importLine -> importLine.user)
+                .toList();
+        if (!users.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(users));
+            } catch (DataAccessException e) {
+                logger.error("Failed to persist user import chunk", e);
+                chunk.stream()
+                        .filter(ImportLine::isPending)
+                        .forEach(importLine -> importLine.result =
+                                UserImportResult.failed(importLine.number, 500, "Failed to persist user", null));
+            }
+        }
+
+        long created = 0;
+        List<UserImportResult> chunkResults = new ArrayList<>(chunk.size());
+        for (ImportLine importLine : chunk) {
+            if (importLine.result == null) {
+                importLine.result = UserImportResult.created(importLine.number, importLine.user.getId(),
+                        importLine.user.getLogin());
+                created++;
+            }
+            chunkResults.add(importLine.result);
+        }
+        results.accept(chunkResults);
+        return created;
+    }
+
+    /**
+     * Lê e valida uma linha com as mesmas regras de {@code POST /api/users}, incluindo os carros.
+     * @param importLine linha a ser processada
+     */
+    private void parseAndValidate(ImportLine importLine) {
+        UserRequest request;
+        try {
+            request = reader.readValue(importLine.json);
+        } catch (JsonProcessingException e) {
+            importLine.fail(UserErrorCode.INVALID_FIELDS.getMessage(), UserErrorCode.INVALID_FIELDS.getCode());
+            return;
+        }
+
+        try {
+            UserEntity user = UserMapper.toEntity(request);
+            if (user.getEmail() == null || user.getPhone() == null || user.getLastName() == null
+                    || user.getFirstName() == null || user.getBirthday() == null
+                    || user.getPassword() == null || user.getLogin() == null
+                    || user.getCars() == null || user.getCars().isEmpty()) {
+                throw new UserException(UserErrorCode.MISSING_FIELDS);
+            }
+            if (!UserValidationUtil.isValid(user)) {
+                throw new UserException(UserErrorCode.INVALID_FIELDS);
+            }
+            for (Car car : user.getCars()) {
+                if (CarValidationUtil.hasMissingFields(car)) {
+                    throw new CarException(CarErrorCode.MISSING_FIELDS);
+                }
+                if (!CarValidationUtil.isValid(car)) {
+                    throw new CarException(CarErrorCode.INVALID_FIELDS);
+                }
+            }
+            importLine.user = user;
+        } catch (UserException e) {
+            importLine.fail(e.getCustomMessage(), e.getCode());
+        } catch (CarException e) {
+            importLine.fail(e.getCustomMessage(), e.getCode());
+        }
+    }
+
+    /**
+     * Rejeita linhas cujo e-mail, login ou placa já estejam cadastrados ou repetidos em uma linha
+     * anterior, com uma consulta de cada tipo para o bloco inteiro.
+     * @param chunk linhas do bloco
+     */
+    private void rejectExisting(List<ImportLine> chunk) {
+        List<ImportLine> pending = chunk.stream().filter(ImportLine::isPending).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Set<String> emails = new HashSet<>(repository.findExistingEmails(collect(pending, UserEntity::getEmail)));
+        Set<String> logins = new HashSet<>(repository.findExistingLogins(collect(pending, UserEntity::getLogin)));
+        Set<String> plates = new HashSet<>(carService.findExistingLicensePlates(pending.stream()
+                .flatMap(importLine -> importLine.user.getCars().stream())
+                .map(Car::getLicensePlate)
+                .toList()));
+
+        for (ImportLine importLine : pending) {
+            UserEntity user = importLine.user;
+            List<String> userPlates = user.getCars().stream().map(Car::getLicensePlate).toList();
+            if (emails.contains(user.getEmail())) {
+                importLine.fail(UserErrorCode.EMAIL_ALREADY_EXISTS.getMessage(), UserErrorCode.EMAIL_ALREADY_EXISTS.getCode());
+            } else if (logins.contains(user.getLogin())) {
+                importLine.fail(UserErrorCode.LOGIN_ALREADY_EXISTS.getMessage(), UserErrorCode.LOGIN_ALREADY_EXISTS.getCode());
+            } else if (userPlates.stream().anyMatch(plates::contains) || new HashSet<>(userPlates).size() < userPlates.size()) {
+                importLine.fail(CarErrorCode.LICENSE_PLATE_EXISTS.getMessage(), CarErrorCode.LICENSE_PLATE_EXISTS.getCode());
+            } else {
+                emails.add(user.getEmail());
+                logins.add(user.getLogin());
+                plates.addAll(userPlates);
+            }
+        }
+    }
+
+    /**
+     * Insere os usuários do bloco e seus carros; com IDs por sequência, os INSERTs são enviados em lote.
+     * @param users usuários válidos do bloco
+     */
+    private void insert(List<UserEntity> users) {
+        LocalDateTime now = LocalDateTime.now();
+        for (UserEntity user : users) {
+            user.setCreatedAt(now);
+            user.setLastLogin(null);
+            user.getCars().forEach(car -> car.setUser(user));
+        }
+        repository.saveAll(users);
+        repository.flush();
+
+        for (UserEntity user : users) {
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), ChangeType.CREATED));
+            user.getCars().forEach(car ->
+                    eventPublisher.publishEvent(new CarChangedEvent(car.getId(), user.getId(), ChangeType.CREATED,
+                            CarFacts.of(car))));
+        }
+    }
+
+    /**
+     * Executa a tarefa para cada linha pendente no pool limitado e aguarda todas.
+     * @param chunk linhas do bloco
+     * @param task tarefa por linha
+     */
+    private void runParallel(List<ImportLine> chunk, Consumer<ImportLine> task) {
+        CompletableFuture<?>[] futures = chunk.stream()
+                .filter(ImportLine::isPending)
+                .map(importLine -> CompletableFuture.runAsync(() -> task.accept(importLine), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static List<String> collect(List<ImportLine> lines, Function<UserEntity, String> field) {
+        return lines.stream().map(importLine -> field.apply(importLine.user)).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Leitor de linhas com tamanho máximo: o excedente de uma linha longa é consumido e descartado,
+     * e a linha é marcada como truncada.
+     */
+    private static final class BoundedLineReader {
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean truncated;
+
+        private BoundedLineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Avança para a próxima linha.
+         * @return false no fim do fluxo
+         * @throws IOException em caso de falha na leitura
+         */
+        private boolean next() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            int ch = read();
+            if (ch < 0) {
+                return false;
+            }
+            while (ch >= 0 && ch != '\n') {
+                if (line.length() < maxLength) {
+                    line.append((char) ch);
+                } else if (ch != '\r') {
+                    truncated = true;
+                }
+                ch = read();
+            }
+            if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            return true;
+        }
+
+        private String line() {
+            return line.toString();
+        }
+
+        private boolean isTruncated() {
+            return truncated;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+
+    /**
+     * Estado de uma linha durante a importação do bloco.
+     */
+    private static final class ImportLine {
+        private final long number;
+        private final String json;
+        private volatile UserEntity user;
+        private volatile UserImportResult result;
+
+        private ImportLine(long number, String json) {
+            this.number = number;
+            this.json = json;
+        }
+
+        private boolean isPending() {
+            return result == null;
+        }
+
+        private void fail(String message, int errorCode) {
+            this.result = UserImportResult.failed(number, 400, message, errorCode);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.pitang.car_users_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pitang.car_users_backend.dto.UserFieldSelection;
 import com.pitang.car_users_backend.model.UserEntity;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface que define métodos de negócio relacionados a usuários.
@@ -26,6 +29,25 @@ public interface UserService {
      */
     UserEntity updateUser(Long id, UserEntity user);
 
+    /**
+     * Atualiza dados de um usuário existente somente se o ETag atual corresponder ao informado.
+     * @param id ID do usuário
+     * @param user dados para atualização
+     * @param ifMatch valor do cabeçalho If-Match (null dispensa a verificação)
+     * @return usuário atualizado
+     */
+    UserEntity updateUser(Long id, UserEntity user, String ifMatch);
+
+    /**
+     * Aplica um JSON Merge Patch (RFC 7396) ao usuário: apenas os campos presentes são alterados
+     * e a senha só é recodificada quando informada.
+     * @param id ID do usuário
+     * @param patch documento de merge patch
+     * @param ifMatch valor do cabeçalho If-Match (null dispensa a verificação)
+     * @return usuário atualizado
+     */
+    UserEntity patchUser(Long id, JsonNode patch, String ifMatch);
+
     /**
      * Remove um usuário pelo ID.
      * @param id ID do usuário a ser removido
@@ -39,12 +61,39 @@ public interface UserService {
     List<UserEntity> getAllUsers();
 
     /**
-     * Retorna um usuário específico pelo ID.
+     * Retorna, em uma única consulta, os usuários informados já com os carros, na ordem dos IDs.
+     * IDs inexistentes são ignorados.
+     * @param ids IDs dos usuários
+     * @return lista de usuários
+     */
+    List<UserEntity> getUsersByIds(List<Long> ids);
+
+    /**
+     * Retorna um usuário específico pelo ID. Chamadas simultâneas para o mesmo ID, fora de uma transação,
+     * compartilham uma única consulta e recebem a mesma instância, que não deve ser alterada.
      * @param id ID do usuário
      * @return usuário encontrado
      */
     UserEntity getUserById(Long id);
 
+    /**
+     * Retorna os usuários apenas com os campos selecionados; os carros só são buscados
+     * quando incluídos na seleção.
+     * @param selection campos e associações selecionados
+     * @param orderedByUsage ordena pelo total de uso (desc) e login (asc); caso contrário, pelo ID
+     * @param limit quantidade máxima de usuários, aplicada no banco antes de buscar os carros, ou null para todos
+     * @return representações parciais dos usuários
+     */
+    List<Map<String, Object>> getUserViews(UserFieldSelection selection, boolean orderedByUsage, Integer limit);
+
+    /**
+     * Retorna um usuário apenas com os campos selecionados.
+     * @param id ID do usuário
+     * @param selection campos e associações selecionados
+     * @return representação parcial do usuário
+     */
+    Map<String, Object> getUserView(Long id, UserFieldSelection selection);
+
     /**
      * Verifica se um e-mail já está em uso.
      * @param email e-mail a ser verificado
@@ -1,17 +1,40 @@
 package com.pitang.car_users_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pitang.car_users_backend.Mapper.UserMapper;
+import com.pitang.car_users_backend.cache.SingleFlight;
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.UserFieldSelection;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import com.pitang.car_users_backend.exception.CarException;
 import com.pitang.car_users_backend.exception.UserErrorCode;
 import com.pitang.car_users_backend.exception.UserException;
 import com.pitang.car_users_backend.model.Car;
 import com.pitang.car_users_backend.model.UserEntity;
 import com.pitang.car_users_backend.repository.UserRepository;
+import com.pitang.car_users_backend.util.CarValidationUtil;
+import com.pitang.car_users_backend.util.ETagUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -19,10 +42,18 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.pitang.car_users_backend.util.UserValidationUtil.isValid;
@@ -39,16 +70,27 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, UserEntity> userLoads;
+    private final TransactionTemplate transactionTemplate;
     private CarService carService;
 
     /**
      * Construtor que injeta o repositório de usuários e o codificador de senhas.
      * @param repository repositório para acesso a {@link UserEntity}
      * @param passwordEncoder codificador de senhas para armazenar com segurança
+     * @param eventPublisher publicador dos eventos de alteração de usuários e carros
+     * @param meterRegistry registro das métricas de agrupamento de leituras
+     * @param transactionManager gerenciador da transação curta que grava a URL da foto
      */
-    public UserServiceImpl(UserRepository repository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository repository, PasswordEncoder passwordEncoder,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                           PlatformTransactionManager transactionManager) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.userLoads = new SingleFlight<>("user-by-id", meterRegistry);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Autowired
@@ -57,6 +99,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserEntity createUser(UserEntity user) {
         validateUserForCreation(user);
 
@@ -68,14 +111,32 @@ public class UserServiceImpl implements UserService {
             user.getCars().forEach(car -> car.setUser(user));
         }
 
-        return repository.save(user);
+        UserEntity saved = repository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), ChangeType.CREATED));
+        if (saved.getCars() != null) {
+            saved.getCars().forEach(car ->
+                    eventPublisher.publishEvent(new CarChangedEvent(car.getId(), saved.getId(), ChangeType.CREATED,
+                            CarFacts.of(car))));
+        }
+        return saved;
     }
 
     @Override
+    @Transactional
     public UserEntity updateUser(Long id, UserEntity updatedUser) {
-        UserEntity existingUser = repository.findById(id)
+        return updateUser(id, updatedUser, null);
+    }
+
+    @Override
+    @Transactional
+    public UserEntity updateUser(Long id, UserEntity updatedUser, String ifMatch) {
+        UserEntity existingUser = repository.findWithCarsById(id)
                 .orElseThrow(() -> new UserException(UserErrorCode.USER_NOT_FOUND));
 
+        if (!ETagUtil.matches(ifMatch, ETagUtil.forUser(existingUser))) {
+            throw new UserException(UserErrorCode.PRECONDITION_FAILED);
+        }
+
         if (updatedUser.getEmail() == null
                 || updatedUser.getPhone() == null
                 || updatedUser.getLastName() == null
@@ -103,76 +164,329 @@ public class UserServiceImpl implements UserService {
             existingUser.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
         }
 
-        if(updatedUser.getCars() != null && !updatedUser.getCars().isEmpty()){
-            List<Car> updatedCars = new ArrayList<>();
+        boolean carsChanged = updatedUser.getCars() != null && !updatedUser.getCars().isEmpty();
+        Set<Long> previousCarIds = existingUser.getCars().stream()
+                .map(Car::getId)
+                .collect(Collectors.toSet());
 
-            for (Car carUpdate : updatedUser.getCars()) {
-                if (carUpdate.getId() != null) {
-                    Car existingCar = carService.getCarById(carUpdate.getId());
+        if (carsChanged) {
+            reconcileCars(existingUser, updatedUser.getCars());
+        }
 
-                    if (!existingCar.getUser().getId().equals(id)) {
-                        throw new UserException(UserErrorCode.INVALID_FIELDS);
-                    }
+        UserEntity saved = repository.save(existingUser);
+        // sincroniza agora para que as versões (ETag) devolvidas já reflitam esta alteração
+        repository.flush();
+        eventPublisher.publishEvent(new UserChangedEvent(id, ChangeType.UPDATED));
+        if (carsChanged) {
+            publishCarChanges(id, previousCarIds, saved.getCars());
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public UserEntity patchUser(Long id, JsonNode patch, String ifMatch) {
+        if (patch == null || !patch.isObject()) {
+            throw new UserException(UserErrorCode.INVALID_FIELDS);
+        }
 
-                    existingCar.setYear(carUpdate.getYear());
-                    existingCar.setLicensePlate(carUpdate.getLicensePlate());
-                    existingCar.setModel(carUpdate.getModel());
-                    existingCar.setColor(carUpdate.getColor());
+        UserEntity existingUser = repository.findWithCarsById(id)
+                .orElseThrow(() -> new UserException(UserErrorCode.USER_NOT_FOUND));
 
-                    if (carUpdate.getPhotoUrl() != null && !carUpdate.getPhotoUrl().isEmpty()) {
-                        existingCar.setPhotoUrl(carUpdate.getPhotoUrl());
-                    }
+        if (!ETagUtil.matches(ifMatch, ETagUtil.forUser(existingUser))) {
+            throw new UserException(UserErrorCode.PRECONDITION_FAILED);
+        }
+
+        // consultas antes de alterar a entidade gerenciada, para que o auto-flush não grave os valores novos
+        if (isChangedText(patch.get("email"), existingUser.getEmail()) && emailExists(patch.get("email").asText())) {
+            throw new UserException(UserErrorCode.EMAIL_ALREADY_EXISTS);
+        }
+        if (isChangedText(patch.get("login"), existingUser.getLogin()) && loginExists(patch.get("login").asText())) {
+            throw new UserException(UserErrorCode.LOGIN_ALREADY_EXISTS);
+        }
+
+        patch.fields().forEachRemaining(field -> applyPatchField(existingUser, field.getKey(), field.getValue()));
+
+        if (!isValidUpdate(existingUser)) {
+            throw new UserException(UserErrorCode.INVALID_FIELDS);
+        }
+
+        // o dirty checking só escreve as colunas alteradas (@DynamicUpdate); sem alterações, não há UPDATE
+        repository.flush();
+        eventPublisher.publishEvent(new UserChangedEvent(id, ChangeType.UPDATED));
+        return existingUser;
+    }
+
+    /**
+     * Aplica um campo do merge patch ao usuário. Campos obrigatórios não aceitam null;
+     * {@code photoUrl: null} remove a foto. Carros são alterados por {@code PATCH /api/cars/{id}}.
+     * @param user usuário gerenciado
+     * @param name nome do campo
+     * @param value valor do campo no patch
+     */
+    private void applyPatchField(UserEntity user, String name, JsonNode value) {
+        switch (name) {
+            case "firstName" -> user.setFirstName(requiredText(value));
+            case "lastName" -> user.setLastName(requiredText(value));
+            case "email" -> user.setEmail(requiredText(value));
+            case "login" -> user.setLogin(requiredText(value));
+            case "phone" -> user.setPhone(requiredText(value));
+            case "birthday" -> {
+                try {
+                    user.setBirthday(LocalDate.parse(requiredText(value)));
+                } catch (DateTimeParseException e) {
+                    throw new UserException(UserErrorCode.INVALID_FIELDS);
+                }
+            }
+            case "photoUrl" -> user.setPhotoUrl(value.isNull() ? null : requiredText(value));
+            case "password" -> {
+                String password = requiredText(value);
+                if (password.length() < 6) {
+                    throw new UserException(UserErrorCode.INVALID_FIELDS);
+                }
+                user.setPassword(passwordEncoder.encode(password));
+            }
+            default -> throw new UserException(UserErrorCode.INVALID_FIELDS);
+        }
+    }
+
+    private static boolean isChangedText(JsonNode value, String current) {
+        return value != null && value.isTextual() && !value.asText().equals(current);
+    }
+
+    private static String requiredText(JsonNode value) {
+        if (value.isNull()) {
+            throw new UserException(UserErrorCode.MISSING_FIELDS);
+        }
+        if (!value.isTextual()) {
+            throw new UserException(UserErrorCode.INVALID_FIELDS);
+        }
+        if (value.asText().isBlank()) {
+            throw new UserException(UserErrorCode.MISSING_FIELDS);
+        }
+        return value.asText();
+    }
+
+    /**
+     * Publica as inserções, atualizações e remoções de carros resultantes da reconciliação.
+     * @param userId ID do dono dos carros
+     * @param previousCarIds IDs dos carros antes da reconciliação
+     * @param currentCars carros após a reconciliação
+     */
+    private void publishCarChanges(Long userId, Set<Long> previousCarIds, List<Car> currentCars) {
+        Set<Long> remaining = new HashSet<>(previousCarIds);
+        for (Car car : currentCars) {
+            ChangeType type = remaining.remove(car.getId()) ? ChangeType.UPDATED : ChangeType.CREATED;
+            eventPublisher.publishEvent(new CarChangedEvent(car.getId(), userId, type, CarFacts.of(car)));
+        }
+        remaining.forEach(carId -> eventPublisher.publishEvent(new CarChangedEvent(carId, userId, ChangeType.DELETED)));
+    }
 
-                    updatedCars.add(carService.updateCar(existingCar.getId(), existingCar));
-                } else {
-                    carUpdate.setUser(existingUser);
-                    updatedCars.add(carService.createCar(carUpdate));
+    /**
+     * Reconcilia os carros do usuário com a lista recebida de forma baseada em conjuntos:
+     * os carros referenciados são carregados com um único findAllById, a posse é verificada
+     * em memória e as placas novas são checadas em uma única consulta. Atualizações,
+     * inserções e remoções (orphanRemoval) são aplicadas na coleção gerenciada e escritas
+     * em lote no flush da transação.
+     * @param existingUser usuário gerenciado que terá os carros reconciliados
+     * @param carsUpdate carros recebidos na requisição
+     */
+    private void reconcileCars(UserEntity existingUser, List<Car> carsUpdate) {
+        Set<Long> referencedIds = carsUpdate.stream()
+                .map(Car::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, Car> referencedCars = carService.getCarsByIds(referencedIds).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+        List<Car> newCars = new ArrayList<>();
+        for (Car carUpdate : carsUpdate) {
+            if (carUpdate.getId() != null) {
+                Car existingCar = referencedCars.get(carUpdate.getId());
+                if (existingCar == null) {
+                    throw new CarException(CarErrorCode.CAR_NOT_FOUND);
+                }
+                if (existingCar.getUser() == null || !existingCar.getUser().getId().equals(existingUser.getId())) {
+                    throw new UserException(UserErrorCode.INVALID_FIELDS);
                 }
+            } else {
+                newCars.add(carUpdate);
+            }
+            validateCar(carUpdate);
+        }
+
+        Set<String> newPlates = new HashSet<>();
+        for (Car newCar : newCars) {
+            if (!newPlates.add(newCar.getLicensePlate())) {
+                throw new CarException(CarErrorCode.LICENSE_PLATE_EXISTS);
             }
+        }
+        if (!carService.findExistingLicensePlates(newPlates).isEmpty()) {
+            throw new CarException(CarErrorCode.LICENSE_PLATE_EXISTS);
+        }
+
+        List<Car> reconciledCars = new ArrayList<>(carsUpdate.size());
+        for (Car carUpdate : carsUpdate) {
+            if (carUpdate.getId() != null) {
+                Car existingCar = referencedCars.get(carUpdate.getId());
+                existingCar.setYear(carUpdate.getYear());
+                existingCar.setLicensePlate(carUpdate.getLicensePlate());
+                existingCar.setModel(carUpdate.getModel());
+                existingCar.setColor(carUpdate.getColor());
+
+                if (carUpdate.getPhotoUrl() != null && !carUpdate.getPhotoUrl().isEmpty()) {
+                    existingCar.setPhotoUrl(carUpdate.getPhotoUrl());
+                }
+                reconciledCars.add(existingCar);
+            } else {
+                carUpdate.setUser(existingUser);
+                reconciledCars.add(carUpdate);
+            }
+        }
 
-            existingUser.getCars().clear();
-            existingUser.getCars().addAll(updatedCars);
+        existingUser.getCars().clear();
+        existingUser.getCars().addAll(reconciledCars);
+    }
+
+    /**
+     * Aplica as mesmas validações de {@link CarService#createCar(Car)} e {@link CarService#updateCar(Long, Car)}.
+     * @param car carro a ser validado
+     */
+    private void validateCar(Car car) {
+        if (CarValidationUtil.hasMissingFields(car)) {
+            throw new CarException(CarErrorCode.MISSING_FIELDS);
         }
 
-        return repository.save(existingUser);
+        if (!CarValidationUtil.isValid(car)) {
+            throw new CarException(CarErrorCode.INVALID_FIELDS);
+        }
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long id) {
         if (!repository.existsById(id)) {
             throw new UserException(UserErrorCode.USER_NOT_FOUND);
         }
-        repository.deleteById(id);
+        // remoção em massa: nem o usuário nem a coleção de carros são carregados
+        carService.deleteCarsByUserId(id);
+        repository.deleteByIdInBulk(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id, ChangeType.DELETED));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserEntity> getAllUsers() {
-        return repository.findAll();
+        return repository.findAllWithCars();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserEntity> getUsersByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserEntity> users = repository.findWithCarsByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+        return ids.stream().map(users::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Override
     public UserEntity getUserById(Long id) {
-        return repository.findById(id)
+        // dentro de uma transação, o chamador espera a entidade do próprio contexto de persistência
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadUserById(id);
+        }
+        return userLoads.execute(id, () -> loadUserById(id));
+    }
+
+    private UserEntity loadUserById(Long id) {
+        return repository.findWithCarsById(id)
                 .orElseThrow(() -> new UserException(UserErrorCode.USER_NOT_FOUND));
     }
 
+    /**
+     * Impede que leituras feitas depois do commit aguardem uma carga do usuário iniciada antes dele.
+     * Executa antes dos demais ouvintes, como a invalidação do cache de respostas.
+     * @param event evento de alteração do usuário
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onUserChanged(UserChangedEvent event) {
+        userLoads.forget(event.userId());
+    }
+
+    /**
+     * Como {@link #onUserChanged(UserChangedEvent)}, para o dono do carro alterado: o usuário é carregado
+     * com os seus carros.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCarChanged(CarChangedEvent event) {
+        userLoads.forget(event.userId());
+    }
+
     @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getUserViews(UserFieldSelection selection, boolean orderedByUsage,
+                                                  Integer limit) {
+        return toViews(repository.findUserColumns(selection.fields(), null, orderedByUsage, limit), selection);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUserView(Long id, UserFieldSelection selection) {
+        return toViews(repository.findUserColumns(selection.fields(), id, false, null), selection).stream()
+                .findFirst()
+                .orElseThrow(() -> new UserException(UserErrorCode.USER_NOT_FOUND));
+    }
+
+    /**
+     * Monta as representações parciais; quando os carros são incluídos, eles são buscados
+     * para todos os usuários em uma única consulta.
+     * @param rows colunas selecionadas dos usuários
+     * @param selection campos e associações selecionados
+     * @return representações parciais na ordem das linhas
+     */
+    private List<Map<String, Object>> toViews(List<Tuple> rows, UserFieldSelection selection) {
+        Map<Long, List<Car>> carsByUser = Map.of();
+        if (selection.includeCars() && !rows.isEmpty()) {
+            List<Long> userIds = rows.stream().map(row -> row.get("id", Long.class)).toList();
+            carsByUser = carService.getCarsByUserIds(userIds).stream()
+                    .collect(Collectors.groupingBy(car -> car.getUser().getId()));
+        }
+
+        List<Map<String, Object>> views = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            views.add(UserMapper.toView(row, selection, carsByUser.getOrDefault(row.get("id", Long.class), List.of())));
+        }
+        return views;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean emailExists(String email) {
         return repository.existsByEmail(email);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean loginExists(String login) {
         return repository.existsByLogin(login);
     }
 
     @Override
+    @Transactional
     public UserEntity updateUserPhoto(Long id, String photoUrl) {
-        UserEntity existingUser = repository.findById(id)
+        UserEntity existingUser = repository.findWithCarsById(id)
                 .orElseThrow(() -> new UserException(UserErrorCode.USER_NOT_FOUND));
 
         existingUser.setPhotoUrl(photoUrl);
-        return repository.save(existingUser);
+        UserEntity saved = repository.save(existingUser);
+        eventPublisher.publishEvent(new UserChangedEvent(id, ChangeType.UPDATED));
+        return saved;
     }
 
     /**
@@ -204,10 +518,10 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Resource getUserPhotoResource(Long id) {
-        UserEntity user = getUserById(id);
-        if (user == null) {
-            return null;
+        if (!repository.existsById(id)) {
+            throw new UserException(UserErrorCode.USER_NOT_FOUND);
         }
         try {
             Path uploadPath = Paths.get("uploads/users").toAbsolutePath().normalize();
@@ -228,6 +542,10 @@ public class UserServiceImpl implements UserService {
         return null;
     }
 
+    /**
+     * Grava o arquivo fora de transação; apenas a atualização da URL abre uma, curta, para não manter uma
+     * conexão do pool presa durante a escrita em disco.
+     */
     @Override
     public UserEntity uploadUserPhoto(Long id, MultipartFile file) {
         // Validação de imagem
@@ -268,7 +586,7 @@ public class UserServiceImpl implements UserService {
         }
 
         // Atualiza apenas a photoUrl do usuário
-        return updateUserPhoto(id, "/api/users/" + id + "/photo");
+        return transactionTemplate.execute(status -> updateUserPhoto(id, "/api/users/" + id + "/photo"));
     }
 
 }
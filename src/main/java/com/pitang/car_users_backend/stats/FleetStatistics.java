@@ -0,0 +1,315 @@
+package com.pitang.car_users_backend.stats;
+
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.CarGroupTotals;
+import com.pitang.car_users_backend.dto.CarStats;
+import com.pitang.car_users_backend.dto.CarStatsGroup;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.repository.CarRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Estatísticas da frota (quantidade de carros e total de uso por modelo, ano e cor), mantidas em memória.
+ * <p>
+ * Os totais ficam agrupados por modelo, ano e cor; cada {@link CarChangedEvent} troca a contribuição
+ * anterior do carro pela nova em O(1), a partir dos dados que o próprio evento carrega. Criação,
+ * alteração, remoção e incrementos de uso chegam todos por esse evento. A consulta só agrega os grupos,
+ * sem acessar o banco.
+ * <p>
+ * Os totais são reconstruídos do banco na inicialização (até lá, a consulta usa o {@code GROUP BY}) e
+ * conferidos periodicamente contra ele; uma divergência é registrada em {@code car.stats.drift} e
+ * corrigida com uma nova reconstrução.
+ */
+@Component
+public class FleetStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetStatistics.class);
+
+    private final CarRepository repository;
+    private final Counter driftCounter;
+    private final Map<Long, CarFacts> cars = new HashMap<>();
+    private final Map<GroupKey, Totals> groups = new HashMap<>();
+    // carros removidos por eventos durante a leitura da reconstrução, que não podem voltar com ela
+    private final Set<Long> removedWhileRebuilding = new HashSet<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean rebuilding;
+    private long mutations;
+    private volatile boolean ready;
+
+    public FleetStatistics(CarRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.driftCounter = Counter.builder("car.stats.drift")
+                .description("Conferências em que as estatísticas da frota divergiram do banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconstrói os totais a partir do banco. Carros alterados por eventos durante a leitura
+     * mantêm o valor do evento, mais recente que o da consulta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            cars.clear();
+            groups.clear();
+            removedWhileRebuilding.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<CarFacts> facts;
+        try {
+            facts = repository.findAllFacts();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (CarFacts car : facts) {
+                if (!cars.containsKey(car.id()) && !removedWhileRebuilding.contains(car.id())) {
+                    put(car);
+                }
+            }
+            rebuilding = false;
+            removedWhileRebuilding.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Estatísticas da frota reconstruídas com {} carros", facts.size());
+    }
+
+    /**
+     * Indica se os totais já foram carregados do banco.
+     * @return true se os totais estiverem completos
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Troca a contribuição do carro pelos dados do evento, ou a remove.
+     * @param event evento de alteração do carro
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            remove(event.carId());
+        } else if (event.facts() != null) {
+            update(event.facts());
+        }
+    }
+
+    /**
+     * Inclui um carro ou substitui os seus dados.
+     * @param car dados do carro
+     */
+    public void update(CarFacts car) {
+        lock.writeLock().lock();
+        try {
+            put(car);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um carro dos totais.
+     * @param id ID do carro
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            CarFacts previous = cars.remove(id);
+            if (previous != null) {
+                add(previous, -1);
+            }
+            if (rebuilding) {
+                removedWhileRebuilding.add(id);
+            }
+            mutations++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna as estatísticas da frota; antes da carga inicial, agrupa direto no banco.
+     * @return totais gerais e por modelo, ano e cor
+     */
+    public CarStats getStats() {
+        if (!ready) {
+            return summarize(repository.findGroupTotals());
+        }
+        List<CarGroupTotals> totals;
+        lock.readLock().lock();
+        try {
+            totals = new ArrayList<>(groups.size());
+            groups.forEach((key, group) -> totals.add(new CarGroupTotals(key.model(), key.year(), key.color(),
+                    group.cars, group.usage)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return summarize(totals);
+    }
+
+    /**
+     * Confere os totais em memória com um {@code GROUP BY} no banco e os reconstrói se divergirem.
+     * Conferências com alterações aplicadas durante a consulta são descartadas; uma divergência é
+     * confirmada com uma segunda consulta antes da reconstrução, já que os eventos chegam depois do commit.
+     * @return true se houve divergência
+     */
+    @Scheduled(fixedDelayString = "${app.car-stats.drift-check-ms:300000}",
+            initialDelayString = "${app.car-stats.drift-check-ms:300000}")
+    public boolean checkDrift() {
+        if (!ready) {
+            return false;
+        }
+        int divergent = 0;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            divergent = countDivergentGroups();
+            if (divergent <= 0) {
+                return false;
+            }
+        }
+        logger.warn("Estatísticas da frota divergentes do banco em {} grupos; reconstruindo", divergent);
+        driftCounter.increment();
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Compara os grupos em memória com os do banco.
+     * @return quantidade de grupos divergentes, ou -1 se houve alterações durante a consulta
+     */
+    private int countDivergentGroups() {
+        long before;
+        lock.readLock().lock();
+        try {
+            before = mutations;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<CarGroupTotals> stored = repository.findGroupTotals();
+
+        lock.readLock().lock();
+        try {
+            if (mutations != before) {
+                logger.debug("Conferência das estatísticas da frota descartada: alterações durante a consulta");
+                return -1;
+            }
+            int divergent = 0;
+            int present = 0;
+            for (CarGroupTotals group : stored) {
+                Totals totals = groups.get(new GroupKey(group.model(), group.year(), group.color()));
+                if (totals != null) {
+                    present++;
+                }
+                if (totals == null || totals.cars != group.cars() || totals.usage != group.usage()) {
+                    divergent++;
+                }
+            }
+            // grupos que só existem em memória
+            return divergent + groups.size() - present;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(CarFacts car) {
+        CarFacts previous = cars.put(car.id(), car);
+        if (previous != null) {
+            add(previous, -1);
+        }
+        add(car, 1);
+        mutations++;
+    }
+
+    private void add(CarFacts car, int sign) {
+        GroupKey key = new GroupKey(car.model(), car.year(), car.color());
+        Totals totals = groups.computeIfAbsent(key, k -> new Totals());
+        totals.cars += sign;
+        totals.usage += (long) sign * car.usageCount();
+        if (totals.cars == 0) {
+            groups.remove(key);
+        }
+    }
+
+    /**
+     * Agrega os grupos de modelo, ano e cor em totais por dimensão.
+     * @param totals totais por modelo, ano e cor
+     * @return estatísticas da frota
+     */
+    static CarStats summarize(Collection<CarGroupTotals> totals) {
+        long cars = 0;
+        long usage = 0;
+        for (CarGroupTotals group : totals) {
+            cars += group.cars();
+            usage += group.usage();
+        }
+        return new CarStats(cars, usage, rollUp(totals, CarGroupTotals::model),
+                rollUp(totals, CarGroupTotals::year), rollUp(totals, CarGroupTotals::color));
+    }
+
+    private static <T> List<CarStatsGroup<T>> rollUp(Collection<CarGroupTotals> totals,
+                                                     Function<CarGroupTotals, T> dimension) {
+        Map<T, Totals> byValue = new HashMap<>();
+        for (CarGroupTotals group : totals) {
+            Totals sum = byValue.computeIfAbsent(dimension.apply(group), value -> new Totals());
+            sum.cars += group.cars();
+            sum.usage += group.usage();
+        }
+        List<CarStatsGroup<T>> result = new ArrayList<>(byValue.size());
+        byValue.forEach((value, sum) -> result.add(new CarStatsGroup<>(value, sum.cars, sum.usage)));
+        result.sort(Comparator.comparingLong((CarStatsGroup<T> group) -> group.cars()).reversed()
+                .thenComparing(group -> Objects.toString(group.value(), "")));
+        return result;
+    }
+
+    /**
+     * Combinação de modelo, ano e cor.
+     */
+    private record GroupKey(String model, Integer year, String color) {
+    }
+
+    /**
+     * Quantidade de carros e soma do uso de um grupo.
+     */
+    private static final class Totals {
+        private long cars;
+        private long usage;
+    }
+}
@@ -0,0 +1,127 @@
+package com.pitang.car_users_backend.util;
+
+import com.pitang.car_users_backend.dto.CarResponse;
+import com.pitang.car_users_backend.dto.UserResponse;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Classe utilitária para geração e comparação de ETags fortes.
+ * O ETag tem a forma {@code "<versão>.<estado>"}: a parte de versão vem das colunas de versão (no usuário,
+ * combinada com as versões dos seus carros, já que a representação do usuário embute os carros) e a parte
+ * de estado resume os campos excluídos do controle de versão ({@code @OptimisticLock(excluded = true)}):
+ * contadores de uso e último login.
+ * <p>
+ * Assim o ETag devolvido no GET muda sempre que a representação muda, e {@code If-None-Match} nunca responde
+ * 304 com um corpo desatualizado. Já {@link #matches(String, String)} compara só a parte de versão, então usar
+ * um carro ou fazer login não invalida o ETag que um cliente guardou para editar o recurso via {@code If-Match}.
+ */
+public class ETagUtil {
+
+    /**
+     * Gera o ETag de um carro.
+     * @param car entidade do carro
+     * @return ETag entre aspas
+     */
+    public static String forCar(Car car) {
+        return quote(versionOf(car.getVersion()) + "." + Integer.toHexString(car.getUsageCount()));
+    }
+
+    /**
+     * Gera o ETag de um carro a partir da resposta.
+     * @param car resposta do carro
+     * @return ETag entre aspas
+     */
+    public static String forCar(CarResponse car) {
+        return quote(versionOf(car.getVersion()) + "." + Integer.toHexString(car.getUsageCount()));
+    }
+
+    /**
+     * Gera o ETag de um usuário, incluindo as versões e os contadores de uso dos seus carros.
+     * @param user entidade do usuário
+     * @return ETag entre aspas
+     */
+    public static String forUser(UserEntity user) {
+        Stream<long[]> cars = user.getCars() == null ? Stream.empty()
+                : user.getCars().stream().map(car -> new long[]{
+                        idOf(car.getId()), versionOf(car.getVersion()), car.getUsageCount()});
+        return userTag(user.getVersion(), user.getLastLogin(), cars);
+    }
+
+    /**
+     * Gera o ETag de um usuário a partir da resposta, incluindo as versões e os contadores de uso dos seus carros.
+     * @param user resposta do usuário
+     * @return ETag entre aspas
+     */
+    public static String forUser(UserResponse user) {
+        List<CarResponse> carList = user.getCars();
+        Stream<long[]> cars = carList == null ? Stream.empty()
+                : carList.stream().map(car -> new long[]{
+                        idOf(car.getId()), versionOf(car.getVersion()), car.getUsageCount()});
+        return userTag(user.getVersion(), user.getLastLogin(), cars);
+    }
+
+    /**
+     * Avalia uma pré-condição {@code If-Match} contra o ETag atual, comparando só a parte de versão.
+     * Ausência do cabeçalho ou {@code *} sempre satisfazem a pré-condição; ETags fracos nunca.
+     * @param ifMatch valor do cabeçalho If-Match (pode ser null)
+     * @param currentETag ETag atual do recurso
+     * @return true se a pré-condição for satisfeita
+     */
+    public static boolean matches(String ifMatch, String currentETag) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return true;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*")) {
+                return true;
+            }
+            if (isStrong(trimmed) && versionPart(trimmed).equals(versionPart(currentETag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String userTag(Long version, LocalDateTime lastLogin, Stream<long[]> cars) {
+        long versionHash = 17L;
+        long stateHash = Objects.hashCode(lastLogin);
+        for (long[] car : cars.sorted(Comparator.comparingLong(car -> car[0])).toList()) {
+            versionHash = 31 * (31 * versionHash + car[0]) + car[1];
+            stateHash = 31 * (31 * stateHash + car[0]) + car[2];
+        }
+        return quote(versionOf(version) + "-" + Long.toHexString(versionHash) + "." + Long.toHexString(stateHash));
+    }
+
+    private static boolean isStrong(String eTag) {
+        return eTag.length() > 1 && eTag.startsWith("\"") && eTag.endsWith("\"");
+    }
+
+    /**
+     * Extrai a parte de versão de um ETag entre aspas: tudo antes do ponto que separa a parte de estado.
+     */
+    private static String versionPart(String eTag) {
+        String unquoted = eTag.substring(1, eTag.length() - 1);
+        int dot = unquoted.indexOf('.');
+        return dot < 0 ? unquoted : unquoted.substring(0, dot);
+    }
+
+    private static long idOf(Long id) {
+        return Objects.requireNonNullElse(id, 0L);
+    }
+
+    private static long versionOf(Long version) {
+        return Objects.requireNonNullElse(version, 0L);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
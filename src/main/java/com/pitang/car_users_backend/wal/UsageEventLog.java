@@ -0,0 +1,313 @@
+package com.pitang.car_users_backend.wal;
+
+import com.pitang.car_users_backend.dto.UsageEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Log de escrita antecipada (WAL) dos usos de carros, em segmentos de tamanho fixo mapeados em memória.
+ * <p>
+ * Cada registro ocupa {@value #RECORD_SIZE} bytes (carro, instante, quantidade e CRC32C) e recebe um
+ * número de sequência (LSN) crescente; o segmento {@code usage-<lsn>.log} leva no nome o LSN do seu
+ * primeiro registro. A escrita é só uma cópia para a página mapeada, sob um lock curto: o {@code force}
+ * para o disco é feito em grupo, a cada {@code fsyncIntervalMillis}, por uma thread própria, e quem
+ * precisa da garantia espera com {@link #awaitDurable(long, long)}.
+ * <p>
+ * Na abertura, os segmentos existentes são lidos em ordem até o primeiro registro inválido (escrita
+ * interrompida) e as novas escritas seguem em um segmento novo. Segmentos cujos registros já foram
+ * aplicados ao banco são apagados por {@link #compact(long)}.
+ */
+public final class UsageEventLog implements Closeable {
+
+    /** Tamanho de um registro: carId (8), timestamp (8), count (4) e CRC32C (4). */
+    public static final int RECORD_SIZE = 24;
+
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "usage-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Logger logger = LoggerFactory.getLogger(UsageEventLog.class);
+
+    private final Path dir;
+    private final int recordsPerSegment;
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer scratch = ByteBuffer.allocate(PAYLOAD_SIZE);
+    // lock explícito em vez de monitor: quem aguarda com wait() dentro de synchronized prende a thread
+    // portadora de uma thread virtual
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private final ScheduledExecutorService syncer;
+
+    private MappedByteBuffer current;
+    private int currentCount;
+    private long nextLsn;
+    private volatile long durableLsn;
+    private volatile boolean closed;
+
+    private UsageEventLog(Path dir, long segmentBytes, long nextLsn, long fsyncIntervalMillis) {
+        this.dir = dir;
+        this.recordsPerSegment = (int) Math.min(Integer.MAX_VALUE / RECORD_SIZE, segmentBytes / RECORD_SIZE);
+        this.nextLsn = nextLsn;
+        this.durableLsn = nextLsn;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "usage-log-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMillis, fsyncIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre o log, reaplicando os registros posteriores a {@code afterLsn}. Nenhum arquivo é criado até a
+     * primeira escrita.
+     * @param dir diretório dos segmentos
+     * @param segmentBytes tamanho de cada segmento
+     * @param fsyncIntervalMillis intervalo do commit em grupo
+     * @param afterLsn último LSN já aplicado ao banco; os registros até ele não são reaplicados
+     * @param replay recebe cada registro reaplicado e o seu LSN
+     * @return o log aberto
+     * @throws IOException em caso de falha na leitura dos segmentos
+     */
+    public static UsageEventLog open(Path dir, long segmentBytes, long fsyncIntervalMillis, long afterLsn,
+                                     ObjLongConsumer<UsageEvent> replay) throws IOException {
+        if (segmentBytes < RECORD_SIZE || fsyncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("segmentBytes deve comportar um registro e fsyncIntervalMillis ser positivo");
+        }
+        NavigableMap<Long, Path> existing = new ConcurrentSkipListMap<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    try {
+                        existing.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())), file);
+                    } catch (NumberFormatException ignored) {
+                        // arquivo que não segue o padrão de nomes dos segmentos
+                    }
+                }
+            }
+        }
+
+        // o LSN nunca volta atrás, mesmo que os segmentos tenham sido apagados
+        long nextLsn = afterLsn + 1;
+        long replayed = 0;
+        for (Map.Entry<Long, Path> segment : existing.entrySet()) {
+            long base = segment.getKey();
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                CRC32C check = new CRC32C();
+                int count = 0;
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.capacity(); offset += RECORD_SIZE, count++) {
+                    check.reset();
+                    check.update(buffer.slice(offset, PAYLOAD_SIZE));
+                    int eventCount = buffer.getInt(offset + 16);
+                    if (eventCount <= 0 || (int) check.getValue() != buffer.getInt(offset + PAYLOAD_SIZE)) {
+                        break;
+                    }
+                    long lsn = base + count;
+                    if (lsn > afterLsn) {
+                        replay.accept(new UsageEvent(buffer.getLong(offset), eventCount, buffer.getLong(offset + 8)), lsn);
+                        replayed++;
+                    }
+                }
+                nextLsn = Math.max(nextLsn, base + count);
+            }
+        }
+        if (replayed > 0) {
+            logger.info("Log de uso: {} registros reaplicados de {} segmentos", replayed, existing.size());
+        }
+
+        UsageEventLog log = new UsageEventLog(dir, segmentBytes, nextLsn, fsyncIntervalMillis);
+        log.segments.putAll(existing);
+        log.compact(afterLsn);
+        return log;
+    }
+
+    /**
+     * Grava os eventos no log, na ordem da lista.
+     * @param events eventos a gravar
+     * @return LSN do último evento gravado (ou o último LSN do log, se a lista for vazia)
+     * @throws IOException em caso de falha ao criar um segmento
+     */
+    public long appendAll(List<UsageEvent> events) throws IOException {
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Log de uso fechado");
+            }
+            for (UsageEvent event : events) {
+                if (current == null || currentCount == recordsPerSegment) {
+                    roll();
+                }
+                write(current, currentCount * RECORD_SIZE, event);
+                currentCount++;
+                nextLsn++;
+            }
+            return nextLsn - 1;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void write(MappedByteBuffer buffer, int offset, UsageEvent event) {
+        scratch.clear();
+        scratch.putLong(event.carId()).putLong(event.timestamp()).putInt(event.count()).flip();
+        crc.reset();
+        crc.update(scratch.array(), 0, PAYLOAD_SIZE);
+        buffer.put(offset, scratch.array(), 0, PAYLOAD_SIZE);
+        buffer.putInt(offset + PAYLOAD_SIZE, (int) crc.getValue());
+    }
+
+    /**
+     * Fecha o segmento atual (com {@code force}) e mapeia um novo a partir do próximo LSN.
+     */
+    private void roll() throws IOException {
+        if (current != null) {
+            current.force();
+        }
+        Files.createDirectories(dir);
+        Path file = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextLsn, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            current = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        }
+        currentCount = 0;
+        segments.put(nextLsn, file);
+    }
+
+    /**
+     * Leva ao disco tudo o que foi gravado até agora e libera quem aguarda em {@link #awaitDurable}.
+     */
+    public void sync() {
+        MappedByteBuffer buffer;
+        long target;
+        appendLock.lock();
+        try {
+            buffer = current;
+            target = nextLsn;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target == durableLsn) {
+            return;
+        }
+        // segmentos anteriores já foram forçados na troca de segmento
+        if (buffer != null) {
+            buffer.force();
+        }
+        durableLock.lock();
+        try {
+            if (target > durableLsn) {
+                durableLsn = target;
+            }
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException ex) {
+            logger.error("Erro ao gravar o log de uso em disco: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Aguarda até que o registro esteja em disco.
+     * @param lsn LSN do registro
+     * @param timeoutMillis tempo máximo de espera
+     * @return true se o registro está em disco
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public boolean awaitDurable(long lsn, long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        durableLock.lock();
+        try {
+            while (durableLsn <= lsn) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = durableAdvanced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * @return LSN do último registro gravado (-1 se nenhum)
+     */
+    public long lastLsn() {
+        appendLock.lock();
+        try {
+            return nextLsn - 1;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return quantidade de segmentos em disco
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Apaga os segmentos cujos registros foram todos aplicados ao banco. O segmento em escrita é mantido.
+     * @param appliedLsn último LSN aplicado ao banco
+     */
+    public void compact(long appliedLsn) {
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            Long nextBase = segments.higherKey(segment.getKey());
+            if (nextBase == null || nextBase - 1 > appliedLsn) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segment.getValue());
+                segments.remove(segment.getKey());
+            } catch (IOException ex) {
+                logger.error("Erro ao remover o segmento {}: {}", segment.getValue(), ex.getMessage());
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        sync();
+        appendLock.lock();
+        try {
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        syncer.shutdown();
+    }
+}
@@ -0,0 +1,176 @@
+package com.pitang.car_users_backend;
+
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de carga que compara vazão e latência (p50/p99) das requisições atendidas por threads de plataforma
+ * e por threads virtuais ({@code spring.threads.virtual.enabled}). A aplicação é iniciada uma vez em cada
+ * modo, com o mesmo pool de conexões, e recebe leituras de usuário que vão ao banco a cada requisição.
+ * <p>
+ * Não roda na suíte normal; para executar:
+ * {@code mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true}. Opcionais: {@code -Dloadtest.concurrency}
+ * (padrão 400, acima das 200 threads do Tomcat), {@code -Dloadtest.seconds} (padrão 15) e
+ * {@code -Dloadtest.warmup-seconds} (padrão 5).
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 400);
+    private static final int SECONDS = Integer.getInteger("loadtest.seconds", 15);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 5);
+    private static final int USERS = 100;
+
+    /**
+     * Resultado de uma rodada.
+     * @param mode modo das threads
+     * @param requests requisições concluídas
+     * @param errors respostas diferentes de 200 ou falhas de conexão
+     * @param throughput requisições por segundo
+     * @param p50Millis mediana da latência
+     * @param p99Millis percentil 99 da latência
+     */
+    record Result(String mode, long requests, long errors, double throughput, double p50Millis, double p99Millis) {
+    }
+
+    @Test
+    void testCompareThroughputAndP99() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%-10s %10s %8s %10s %10s %10s%n", "modo", "requisições", "erros", "req/s", "p50 ms",
+                "p99 ms");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %10d %8d %10.1f %10.2f %10.2f%n", result.mode(), result.requests(),
+                    result.errors(), result.throughput(), result.p50Millis(), result.p99Millis());
+        }
+
+        for (Result result : List.of(platform, virtual)) {
+            assertTrue(result.requests() > 0, () -> "Nenhuma requisição concluída: " + result);
+            assertTrue(result.errors() <= result.requests() / 100, () -> "Mais de 1% de erros: " + result);
+        }
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        Path usageLog = Files.createTempDirectory("load-" + mode + "-usage-log");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CarUsersBackendApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "app.usage-log.dir=" + usageLog,
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<Long> ids = seedUsers(context.getBean(UserRepository.class));
+
+            try (HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build()) {
+                load(client, port, ids, WARMUP_SECONDS);
+                return summarize(mode, load(client, port, ids, SECONDS), SECONDS);
+            }
+        }
+    }
+
+    private static List<Long> seedUsers(UserRepository repository) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            UserEntity user = new UserEntity();
+            user.setFirstName("Load");
+            user.setLastName("User" + i);
+            user.setEmail("load" + i + "@test.com");
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            user.setLogin("load" + i);
+            user.setPassword("secret");
+            user.setPhone("123456789");
+            ids.add(repository.save(user).getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Mantém {@link #CONCURRENCY} clientes enviando leituras em sequência durante o tempo informado.
+     * @return latências de cada cliente, em nanossegundos (negativas para erros)
+     */
+    private static List<long[]> load(HttpClient client, int port, List<Long> ids, int seconds) throws Exception {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int c = 0; c < CONCURRENCY; c++) {
+                int offset = c;
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    for (int i = offset; System.nanoTime() < end; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                        + "/api/users/" + ids.get(i % ids.size()) + "?fields=firstName,login"))
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = ok ? elapsed : -1;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            List<long[]> results = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    private static Result summarize(String mode, List<long[]> perClient, int seconds) {
+        long errors = perClient.stream().flatMapToLong(Arrays::stream).filter(latency -> latency < 0).count();
+        long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).filter(latency -> latency >= 0)
+                .sorted().toArray();
+        long requests = latencies.length + errors;
+        return new Result(mode, requests, errors, (double) latencies.length / seconds,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
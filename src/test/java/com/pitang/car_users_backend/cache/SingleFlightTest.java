@@ -0,0 +1,149 @@
+package com.pitang.car_users_backend.cache;
+
+import com.pitang.car_users_backend.exception.UserErrorCode;
+import com.pitang.car_users_backend.exception.UserException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para {@link SingleFlight}.
+ */
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<Long, Object> flight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flight = new SingleFlight<>("test", meterRegistry);
+        executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Chamadas que chegam durante a carga recebem a mesma instância, com uma única execução.
+     */
+    @Test
+    void testExecute_ConcurrentCallsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object value = new Object();
+
+        List<Future<Object>> results = new ArrayList<>();
+        results.add(executor.submit(() -> flight.execute(1L, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return value;
+        })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < FOLLOWERS; i++) {
+            results.add(executor.submit(() -> flight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return new Object();
+            })));
+        }
+        awaitShared(FOLLOWERS);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertSame(value, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals((double) FOLLOWERS / (FOLLOWERS + 1), flight.collapseRatio(), 1e-9);
+        assertEquals(FOLLOWERS / (FOLLOWERS + 1.0),
+                meterRegistry.get("singleflight.collapse.ratio").tag("name", "test").gauge().value(), 1e-9);
+
+        // a carga terminou: nada fica guardado
+        assertNotSame(value, flight.execute(1L, Object::new));
+        assertEquals(2, (int) meterRegistry.get("singleflight.calls").tag("result", "executed").counter().count());
+    }
+
+    /**
+     * A exceção da carga é lançada em todas as chamadas que a aguardavam.
+     */
+    @Test
+    void testExecute_SharesFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> leader = executor.submit(() -> flight.execute(1L, () -> {
+            started.countDown();
+            await(release);
+            throw new UserException(UserErrorCode.USER_NOT_FOUND);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = executor.submit(() -> flight.execute(1L, Object::new));
+        awaitShared(1);
+        release.countDown();
+
+        for (Future<Object> result : List.of(leader, follower)) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(UserException.class, ex.getCause());
+        }
+    }
+
+    /**
+     * Depois de {@link SingleFlight#forget(Object)}, chamadas novas não aguardam a carga anterior.
+     */
+    @Test
+    void testForget_StartsNewLoad() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object stale = new Object();
+
+        Future<Object> leader = executor.submit(() -> flight.execute(1L, () -> {
+            started.countDown();
+            await(release);
+            return stale;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        flight.forget(1L);
+        Object fresh = new Object();
+
+        assertSame(fresh, flight.execute(1L, () -> fresh));
+        release.countDown();
+        assertSame(stale, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(0, flight.collapseRatio());
+    }
+
+    private void awaitShared(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("singleflight.calls").tag("result", "shared").counter().count() < expected) {
+            assertTrue(System.nanoTime() < deadline, "Chamadas não chegaram à carga em andamento");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
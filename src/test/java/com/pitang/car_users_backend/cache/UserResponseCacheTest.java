@@ -0,0 +1,140 @@
+package com.pitang.car_users_backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.UserResponse;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para {@link UserResponseCache}.
+ */
+class UserResponseCacheTest {
+
+    private UserResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserResponseCache(new ObjectMapper().findAndRegisterModules(), 100);
+        loads = new AtomicInteger();
+    }
+
+    /**
+     * Um acerto devolve os mesmos bytes sem chamar o carregador.
+     */
+    @Test
+    void testGet_HitReturnsSameBytes() {
+        byte[] first = cache.get(1L, () -> load("first")).body();
+        byte[] second = cache.get(1L, () -> load("second")).body();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertTrue(new String(first, StandardCharsets.UTF_8).contains("\"login\":\"first\""));
+    }
+
+    /**
+     * Alterações em carros invalidam a resposta do dono.
+     */
+    @Test
+    void testOnCarChanged_InvalidatesOwner() {
+        cache.get(1L, () -> load("before"));
+        cache.onCarChanged(new CarChangedEvent(7L, 1L, ChangeType.UPDATED));
+
+        byte[] body = cache.get(1L, () -> load("after")).body();
+        assertTrue(new String(body, StandardCharsets.UTF_8).contains("\"login\":\"after\""));
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Uma invalidação ocorrida durante a carga impede que o valor obsoleto seja armazenado.
+     */
+    @Test
+    void testGet_InvalidationDuringLoadIsNotCached() {
+        cache.get(1L, () -> {
+            UserResponse stale = load("stale");
+            cache.invalidate(1L);
+            return stale;
+        });
+
+        byte[] body = cache.get(1L, () -> load("fresh")).body();
+        assertTrue(new String(body, StandardCharsets.UTF_8).contains("\"login\":\"fresh\""));
+    }
+
+    /**
+     * Acima do limite, o usuário acessado há mais tempo é expulso; os mais recentes, inclusive os novos,
+     * continuam em cache.
+     */
+    @Test
+    void testGet_EvictsLeastRecentlyUsedPastLimit() {
+        cache = new UserResponseCache(new ObjectMapper().findAndRegisterModules(), 3);
+        for (long id = 1; id <= 3; id++) {
+            cache.get(id, () -> load("user"));
+        }
+        cache.get(1L, () -> load("user"));
+        cache.get(4L, () -> load("user"));
+        cache.get(5L, () -> load("user"));
+        assertEquals(5, loads.get());
+        assertEquals(3, cache.size());
+
+        // 1 foi acessado de novo e 4 e 5 são novos: continuam em cache
+        cache.get(1L, () -> load("user"));
+        cache.get(4L, () -> load("user"));
+        cache.get(5L, () -> load("user"));
+        assertEquals(5, loads.get());
+
+        // 2 e 3 foram expulsos
+        cache.get(2L, () -> load("user"));
+        cache.get(3L, () -> load("user"));
+        assertEquals(7, loads.get());
+        assertEquals(3, cache.size());
+    }
+
+    /**
+     * Uma carga que falha não deixa a reserva ocupando espaço.
+     */
+    @Test
+    void testGet_FailedLoadLeavesNoEntry() {
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, () -> {
+            throw new IllegalStateException("falha");
+        }));
+
+        assertEquals(0, cache.size());
+        cache.get(1L, () -> load("user"));
+        cache.get(1L, () -> load("user"));
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * A resposta HTTP usa os bytes e o ETag em cache, com conteúdo JSON.
+     */
+    @Test
+    void testToResponseEntity_UsesCachedBytesAndETag() {
+        UserResponseCache.CachedResponse cached = cache.get(1L, () -> load("user"));
+
+        ResponseEntity<byte[]> response = cache.toResponseEntity(1L, () -> load("other"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(cached.eTag(), response.getHeaders().getETag());
+        assertSame(cached.body(), response.getBody());
+        assertEquals(1, loads.get());
+    }
+
+    private UserResponse load(String login) {
+        loads.incrementAndGet();
+        UserResponse response = new UserResponse();
+        response.setId(1L);
+        response.setLogin(login);
+        return response;
+    }
+}
@@ -0,0 +1,86 @@
+package com.pitang.car_users_backend.config;
+
+import com.pitang.car_users_backend.datasource.ConnectionAcquisitionTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testes do roteamento de leitura de {@link DataSourceConfig} usando dois bancos H2 locais,
+ * um representando o primário e outro a réplica.
+ */
+class DataSourceConfigTest {
+
+    private final ConnectionAcquisitionTracker tracker = new ConnectionAcquisitionTracker();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    /**
+     * Cria os dois bancos, cada um com uma tabela que identifica o nó.
+     */
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing-primary", "primary");
+        DataSource replica = database("routing-replica", "replica");
+        // conexões do DriverManager vêm com auto-commit ligado
+        DataSource routing = DataSourceConfig.routingDataSource(tracker.track(primary), tracker.track(replica),
+                true, DataSourceConfig.DEFAULT_ISOLATION);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Transações somente leitura devem ir para a réplica.
+     */
+    @Test
+    void testReadOnlyTransaction_UsesReplica() {
+        String node = readOnlyTransaction.execute(status -> currentNode());
+        assertEquals("replica", node);
+    }
+
+    /**
+     * Transações de escrita devem ir para o primário.
+     */
+    @Test
+    void testReadWriteTransaction_UsesPrimary() {
+        String node = readWriteTransaction.execute(status -> currentNode());
+        assertEquals("primary", node);
+    }
+
+    /**
+     * Cada transação obtém uma única conexão física, independentemente do número de comandos.
+     */
+    @Test
+    void testConnectionAcquisitions_AreCountedPerTransaction() {
+        tracker.begin();
+        readOnlyTransaction.execute(status -> currentNode() + currentNode());
+        readWriteTransaction.execute(status -> currentNode());
+        assertEquals(2, tracker.end());
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private DataSource database(String name, String node) {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists node (name varchar(20))");
+        jdbc.execute("delete from node");
+        jdbc.update("insert into node (name) values (?)", node);
+        return dataSource;
+    }
+}
@@ -2,9 +2,20 @@ package com.pitang.car_users_backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pitang.car_users_backend.dto.CarRequest;
+import com.pitang.car_users_backend.dto.CarStats;
+import com.pitang.car_users_backend.dto.CarStatsGroup;
+import com.pitang.car_users_backend.dto.CarUsageHistory;
+import com.pitang.car_users_backend.dto.UsageGranularity;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import com.pitang.car_users_backend.exception.GlobalExceptionHandler;
 import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
 import com.pitang.car_users_backend.service.CarService;
+import com.pitang.car_users_backend.service.CarUsageHistoryService;
+import com.pitang.car_users_backend.service.EventStreamService;
+import com.pitang.car_users_backend.service.TrendingService;
 import com.pitang.car_users_backend.service.UserService;
+import com.pitang.car_users_backend.stats.FleetStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -13,9 +24,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,6 +44,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class CarControllerTest {
 
     private CarService carService;
+    private TrendingService trendingService;
+    private FleetStatistics fleetStatistics;
+    private CarUsageHistoryService usageHistoryService;
     private MockMvc mockMvc;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -37,9 +56,15 @@ class CarControllerTest {
     @BeforeEach
     void setUp() {
         carService = Mockito.mock(CarService.class);
+        trendingService = Mockito.mock(TrendingService.class);
+        fleetStatistics = Mockito.mock(FleetStatistics.class);
+        usageHistoryService = Mockito.mock(CarUsageHistoryService.class);
         UserService userService = Mockito.mock(UserService.class);
-        CarController carController = new CarController(carService, userService);
-        mockMvc = MockMvcBuilders.standaloneSetup(carController).build();
+        CarController carController = new CarController(carService, userService, Mockito.mock(EventStreamService.class),
+                usageHistoryService, trendingService, fleetStatistics);
+        mockMvc = MockMvcBuilders.standaloneSetup(carController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
     }
 
     /**
@@ -62,6 +87,7 @@ class CarControllerTest {
         Car car = new Car();
         car.setId(10L);
         car.setLicensePlate("ABC-1234");
+        car.setUser(owner(1L));
         when(carService.getCarUserById(10L)).thenReturn(car);
 
         mockMvc.perform(get("/api/cars/10?userId=1"))
@@ -109,7 +135,7 @@ class CarControllerTest {
         updatedCar.setId(5L);
         updatedCar.setLicensePlate("XYZ-9999");
 
-        when(carService.updateCar(eq(5L), any(Car.class))).thenReturn(updatedCar);
+        when(carService.updateCar(eq(5L), any(Car.class), isNull())).thenReturn(updatedCar);
 
         mockMvc.perform(put("/api/cars/5?userId=1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -118,4 +144,101 @@ class CarControllerTest {
                 .andExpect(jsonPath("$.licensePlate").value("XYZ-9999"));
     }
 
+    /**
+     * Testa GET /api/cars/batch: resultados na ordem pedida, com falha por item para IDs não encontrados.
+     */
+    @Test
+    void testGetBatch_PerItemResults() throws Exception {
+        Car car = new Car();
+        car.setId(5L);
+        car.setLicensePlate("XYZ-9999");
+
+        when(carService.getCarsUserByIds(eq(List.of(5L, 6L)), eq(1L))).thenReturn(Map.of(5L, car));
+
+        mockMvc.perform(get("/api/cars/batch?ids=5,6&userId=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].car.licensePlate").value("XYZ-9999"))
+                .andExpect(jsonPath("$[1].id").value(6))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].car").doesNotExist());
+    }
+
+    /**
+     * Testa GET /api/cars/ordered?sort=trending: a página vem do banco, na ordem de tendência.
+     */
+    @Test
+    void testGetOrdered_Trending() throws Exception {
+        Car recent = new Car();
+        recent.setId(2L);
+        Car old = new Car();
+        old.setId(1L);
+        when(trendingService.getTrendingCars(1L, 1, 2)).thenReturn(List.of(recent, old));
+
+        mockMvc.perform(get("/api/cars/ordered?userId=1&sort=trending&page=1&size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2L))
+                .andExpect(jsonPath("$[1].id").value(1L));
+    }
+
+    /**
+     * GET /api/cars/stats devolve os totais mantidos em memória.
+     */
+    @Test
+    void testGetStats_Success() throws Exception {
+        when(fleetStatistics.getStats()).thenReturn(new CarStats(3, 12,
+                List.of(new CarStatsGroup<>("Gol", 2, 10), new CarStatsGroup<>("Uno", 1, 2)),
+                List.of(new CarStatsGroup<>(2020, 3, 12)),
+                List.of(new CarStatsGroup<>("Preto", 3, 12))));
+
+        mockMvc.perform(get("/api/cars/stats?userId=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars").value(3))
+                .andExpect(jsonPath("$.byModel[0].value").value("Gol"))
+                .andExpect(jsonPath("$.byModel[0].usage").value(10))
+                .andExpect(jsonPath("$.byYear[0].value").value(2020));
+    }
+
+    /**
+     * GET /api/cars/{id}/usage devolve o histórico do carro ao dono.
+     */
+    @Test
+    void testGetUsage_Owner() throws Exception {
+        Car car = new Car();
+        car.setId(10L);
+        car.setUser(owner(1L));
+        when(carService.getCarById(10L)).thenReturn(car);
+        when(usageHistoryService.getHistory(eq(10L), any(), any(), eq(UsageGranularity.DAY)))
+                .thenReturn(new CarUsageHistory(10L, UsageGranularity.DAY, null, null, List.of()));
+
+        mockMvc.perform(get("/api/cars/10/usage?userId=1&granularity=day"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.carId").value(10L));
+    }
+
+    /**
+     * GET /api/cars/{id}/usage de um carro de outro usuário recebe o mesmo erro de GET /api/cars/{id}.
+     */
+    @Test
+    void testGetUsage_OtherOwnerIsNotFound() throws Exception {
+        Car car = new Car();
+        car.setId(10L);
+        car.setUser(owner(2L));
+        when(carService.getCarById(10L)).thenReturn(car);
+        when(carService.getCarUserById(10L)).thenReturn(car);
+
+        mockMvc.perform(get("/api/cars/10/usage?userId=1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value(CarErrorCode.CAR_NOT_FOUND.getCode()));
+        mockMvc.perform(get("/api/cars/10?userId=1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value(CarErrorCode.CAR_NOT_FOUND.getCode()));
+        verify(usageHistoryService, never()).getHistory(any(), any(), any(), any());
+    }
+
+    private static UserEntity owner(Long id) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        return user;
+    }
 }
@@ -0,0 +1,65 @@
+package com.pitang.car_users_backend.controller;
+
+import com.pitang.car_users_backend.dto.CarSearchCriteria;
+import com.pitang.car_users_backend.exception.GlobalExceptionHandler;
+import com.pitang.car_users_backend.search.CarFacetIndex;
+import com.pitang.car_users_backend.service.CarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes unitários para CarSearchController: a busca no banco fica restrita aos carros do usuário logado.
+ */
+class CarSearchControllerTest {
+
+    private CarService carService;
+    private MockMvc mockMvc;
+
+    /**
+     * Configuração inicial do MockMvc e injeção de mocks.
+     */
+    @BeforeEach
+    void setUp() {
+        carService = Mockito.mock(CarService.class);
+        CarSearchController controller = new CarSearchController(carService, Mockito.mock(CarFacetIndex.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    /**
+     * Sem ownerId, a busca é feita nos carros do próprio usuário.
+     */
+    @Test
+    void testSearch_ScopedToCaller() throws Exception {
+        when(carService.searchCars(any(CarSearchCriteria.class))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/cars/search?userId=1&plate=ABC"))
+                .andExpect(status().isOk());
+
+        verify(carService).searchCars(new CarSearchCriteria(null, null, null, null, "ABC", 1L, 0, 20));
+    }
+
+    /**
+     * ownerId de outro usuário => 400, sem consultar o banco.
+     */
+    @Test
+    void testSearch_OtherOwnerIsRejected() throws Exception {
+        mockMvc.perform(get("/api/cars/search?userId=1&ownerId=2&model=Fiesta"))
+                .andExpect(status().isBadRequest());
+
+        verify(carService, never()).searchCars(any(CarSearchCriteria.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.pitang.car_users_backend.controller;
+
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import com.pitang.car_users_backend.service.CarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes de integração das requisições condicionais em {@code /api/users/{id}}: usar um carro muda a
+ * representação e, portanto, o ETag do GET, mas o ETag antigo continua válido para If-Match, já que
+ * contadores de uso não alteram a versão.
+ */
+@SpringBootTest(properties = "app.usage-log.dir=${java.io.tmpdir}/conditional-request-usage-log")
+@AutoConfigureMockMvc
+class ConditionalRequestIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserEntity user;
+
+    /**
+     * Persiste um usuário com um carro.
+     */
+    @BeforeEach
+    void setUp() {
+        UserEntity entity = new UserEntity();
+        entity.setFirstName("Etag");
+        entity.setLastName("User");
+        entity.setEmail("etag@test.com");
+        entity.setBirthday(LocalDate.of(1990, 1, 1));
+        entity.setLogin("etaguser");
+        entity.setPassword("secret");
+        entity.setPhone("123456789");
+        Car car = new Car();
+        car.setLicensePlate("ETG-0001");
+        car.setModel("Fiesta");
+        car.setYear(2020);
+        car.setColor("Red");
+        car.setUser(entity);
+        entity.getCars().add(car);
+        user = userRepository.save(entity);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * GET, uso do carro, GET com If-None-Match (200 com novo ETag) e PUT com If-Match do ETag original (200);
+     * depois da edição, o ETag antigo recebe 412.
+     */
+    @Test
+    void testGetThenConditionalGetThenPut_SurvivesCarUsage() throws Exception {
+        String path = "/api/users/" + user.getId();
+        String eTag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.login").value("etaguser"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        carService.getCarUserById(user.getCars().get(0).getId());
+
+        String used = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars[0].usageCount").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, used);
+
+        String updated = mockMvc.perform(put(path)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("Edited")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Edited"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, updated);
+
+        mockMvc.perform(put(path)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("Stale")))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, updated));
+    }
+
+    private String body(String firstName) {
+        return """
+                {"firstName": "%s", "lastName": "User", "email": "etag@test.com", "login": "etaguser",
+                 "phone": "123456789", "birthday": "1990-01-01",
+                 "cars": [{"id": %d, "year": 2020, "licensePlate": "ETG-0001", "model": "Fiesta", "color": "Red"}]}
+                """.formatted(firstName, user.getCars().get(0).getId());
+    }
+}
@@ -1,8 +1,17 @@
 package com.pitang.car_users_backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.cache.UserResponseCache;
+import com.pitang.car_users_backend.dto.UserFieldSelection;
+import com.pitang.car_users_backend.dto.UserSearchFields;
+import com.pitang.car_users_backend.leaderboard.UsageLeaderboard;
 import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import com.pitang.car_users_backend.search.UserSearchIndex;
+import com.pitang.car_users_backend.service.TrendingService;
 import com.pitang.car_users_backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -11,9 +20,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +37,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class UserControllerTest {
 
     private UserService userService;
+    private UsageLeaderboard leaderboard;
+    private UserSearchIndex searchIndex;
     private UserController userController;
     private MockMvc mockMvc;
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -35,7 +49,11 @@ class UserControllerTest {
     @BeforeEach
     void setUp() {
         userService = Mockito.mock(UserService.class);
-        userController = new UserController(userService);
+        leaderboard = new UsageLeaderboard(Mockito.mock(UserRepository.class));
+        searchIndex = new UserSearchIndex(Mockito.mock(UserRepository.class), new SimpleMeterRegistry(), 64);
+        userController = new UserController(userService,
+                new UserResponseCache(new ObjectMapper().findAndRegisterModules(), 100), leaderboard,
+                Mockito.mock(TrendingService.class), searchIndex);
         mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
     }
 
@@ -67,6 +85,28 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.login").value("login10"));
     }
 
+    /**
+     * Teste GET /api/users/{id} com If-None-Match igual ao ETag atual (304 sem corpo).
+     */
+    @Test
+    void testGetById_NotModified() throws Exception {
+        UserEntity user = new UserEntity();
+        user.setId(11L);
+        user.setLogin("login11");
+        user.setVersion(3L);
+
+        when(userService.getUserById(11L)).thenReturn(user);
+
+        String eTag = mockMvc.perform(get("/api/users/11"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/users/11").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     /**
      * Teste POST /api/users (criação de usuário) com sucesso.
      */
@@ -104,7 +144,7 @@ class UserControllerTest {
         updatedEntity.setLogin("updatedUser");
         updatedEntity.setEmail("updated@test.com");
 
-        when(userService.updateUser(eq(2L), any(UserEntity.class))).thenReturn(updatedEntity);
+        when(userService.updateUser(eq(2L), any(UserEntity.class), isNull())).thenReturn(updatedEntity);
 
         mockMvc.perform(put("/api/users/2")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -112,4 +152,104 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.login").value("updatedUser"));
     }
+
+    /**
+     * Teste PATCH /api/users/{id} com application/merge-patch+json.
+     */
+    @Test
+    void testPatchUser_Success() throws Exception {
+        UserEntity patchedEntity = new UserEntity();
+        patchedEntity.setId(2L);
+        patchedEntity.setLogin("user2");
+        patchedEntity.setFirstName("Patched");
+
+        when(userService.patchUser(eq(2L), any(JsonNode.class), isNull())).thenReturn(patchedEntity);
+
+        mockMvc.perform(patch("/api/users/2")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"firstName\":\"Patched\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.firstName").value("Patched"));
+    }
+
+    /**
+     * Teste GET /api/users/{id}?fields=... (resposta parcial, sem passar pelo cache completo).
+     */
+    @Test
+    void testGetById_SparseFields() throws Exception {
+        when(userService.getUserView(eq(10L), any(UserFieldSelection.class)))
+                .thenReturn(Map.of("id", 10L, "firstName", "Ten"));
+
+        mockMvc.perform(get("/api/users/10").param("fields", "id,firstName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Ten"))
+                .andExpect(jsonPath("$.cars").doesNotExist());
+    }
+
+    /**
+     * Teste GET /api/users/ordered?limit=...: a ordem vem do ranking e só os K primeiros são carregados.
+     */
+    @Test
+    void testGetUsersOrdered_TopFromLeaderboard() throws Exception {
+        leaderboard.rebuild();
+        leaderboard.update(1L, "alice", 3);
+        leaderboard.update(2L, "bob", 7);
+        leaderboard.update(3L, "carol", 5);
+        UserEntity bob = new UserEntity();
+        bob.setId(2L);
+        bob.setLogin("bob");
+        UserEntity carol = new UserEntity();
+        carol.setId(3L);
+        carol.setLogin("carol");
+        when(userService.getUsersByIds(List.of(2L, 3L))).thenReturn(List.of(bob, carol));
+
+        mockMvc.perform(get("/api/users/ordered").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].login").value("bob"))
+                .andExpect(jsonPath("$[1].login").value("carol"));
+    }
+
+    /**
+     * Teste GET /api/users/{id}/rank.
+     */
+    @Test
+    void testGetRank() throws Exception {
+        leaderboard.update(1L, "alice", 3);
+        leaderboard.update(2L, "bob", 7);
+
+        mockMvc.perform(get("/api/users/1/rank"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(2))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.totalUsageCount").value(3));
+    }
+
+    /**
+     * Teste GET /api/users/search: 503 enquanto o índice carrega; depois, resultados na ordem do índice.
+     */
+    @Test
+    void testSearchUsers() throws Exception {
+        mockMvc.perform(get("/api/users/search").param("q", "silva"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+
+        searchIndex.rebuild();
+        searchIndex.update(new UserSearchFields(1L, "Ana", "Silveira", "ana@test.com", "ana"));
+        searchIndex.update(new UserSearchFields(2L, "João", "Silva", "joao@test.com", "joao"));
+        UserEntity ana = new UserEntity();
+        ana.setId(1L);
+        ana.setLogin("ana");
+        UserEntity joao = new UserEntity();
+        joao.setId(2L);
+        joao.setLogin("joao");
+        when(userService.getUsersByIds(List.of(2L, 1L))).thenReturn(List.of(joao, ana));
+
+        mockMvc.perform(get("/api/users/search").param("q", "silva"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.results[0].user.login").value("joao"))
+                .andExpect(jsonPath("$.results[0].score").value(3.0))
+                .andExpect(jsonPath("$.results[1].user.login").value("ana"));
+    }
 }
@@ -0,0 +1,56 @@
+package com.pitang.car_users_backend.diagnostics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para {@link VirtualThreadPinningMonitor}.
+ */
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    /**
+     * Uma thread virtual que dorme dentro de {@code synchronized} gera uma fixação, registrada no timer
+     * com o método em que ocorreu.
+     */
+    @Test
+    void testPinnedVirtualThread_IsRecordedBySite() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, 1);
+        monitor.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            Collection<Timer> timers;
+            do {
+                assertTrue(System.nanoTime() < deadline, "Nenhuma fixação registrada");
+                Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+                Thread.sleep(100);
+                timers = meterRegistry.find("jvm.threads.virtual.pinned").timers();
+            } while (timers.isEmpty());
+
+            Timer timer = timers.iterator().next();
+            assertTrue(timer.getId().getTag("site").startsWith(getClass().getName() + "."),
+                    () -> "Local inesperado: " + timer.getId().getTag("site"));
+            assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
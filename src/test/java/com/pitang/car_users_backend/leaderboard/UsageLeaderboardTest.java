@@ -0,0 +1,112 @@
+package com.pitang.car_users_backend.leaderboard;
+
+import com.pitang.car_users_backend.dto.LeaderboardEntry;
+import com.pitang.car_users_backend.dto.UserUsage;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.event.UserUsageChangedEvent;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link UsageLeaderboard}.
+ */
+class UsageLeaderboardTest {
+
+    private UserRepository repository;
+    private UsageLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(UserRepository.class);
+        leaderboard = new UsageLeaderboard(repository);
+    }
+
+    /**
+     * A reconstrução carrega o banco; incrementos posteriores reposicionam o usuário.
+     */
+    @Test
+    void testRebuildAndUsageIncrement() {
+        when(repository.findAllUsage()).thenReturn(List.of(
+                new UserUsage(1L, "alice", 5),
+                new UserUsage(2L, "bob", 5),
+                new UserUsage(3L, "carol", 9)));
+
+        leaderboard.rebuild();
+        assertTrue(leaderboard.isReady());
+        assertEquals(List.of(3L, 1L, 2L), leaderboard.topIds(10));
+
+        leaderboard.onUsageChanged(new UserUsageChangedEvent(2L, "bob", 10));
+
+        assertEquals(List.of(2L, 3L), leaderboard.topIds(2));
+        LeaderboardEntry alice = leaderboard.rankOf(1L).orElseThrow();
+        assertEquals(3, alice.rank());
+        assertEquals(3, alice.total());
+    }
+
+    /**
+     * Usuários excluídos saem do ranking.
+     */
+    @Test
+    void testDeletedUser_Removed() {
+        leaderboard.update(1L, "alice", 5);
+        leaderboard.update(2L, "bob", 1);
+
+        leaderboard.onUserChanged(new UserChangedEvent(1L, ChangeType.DELETED));
+
+        assertTrue(leaderboard.rankOf(1L).isEmpty());
+        assertEquals(1, leaderboard.rankOf(2L).orElseThrow().rank());
+    }
+
+    /**
+     * Um usuário excluído enquanto a reconstrução lê o banco não volta ao ranking com a leitura antiga.
+     */
+    @Test
+    void testRebuild_UserDeletedDuringReadStaysRemoved() {
+        when(repository.findAllUsage()).thenAnswer(invocation -> {
+            leaderboard.onUserChanged(new UserChangedEvent(1L, ChangeType.DELETED));
+            return List.of(new UserUsage(1L, "alice", 5), new UserUsage(2L, "bob", 1));
+        });
+
+        leaderboard.rebuild();
+
+        assertTrue(leaderboard.isReady());
+        assertTrue(leaderboard.rankOf(1L).isEmpty());
+        assertEquals(List.of(2L), leaderboard.topIds(10));
+    }
+
+    /**
+     * Após muitas atualizações aleatórias, o ranking coincide com a ordenação completa.
+     */
+    @Test
+    void testRandomUpdates_MatchFullSort() {
+        Random random = new Random(42);
+        Map<Long, Integer> usage = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long id = random.nextInt(500);
+            int total = random.nextInt(100);
+            usage.put(id, total);
+            leaderboard.update(id, "user" + id, total);
+        }
+
+        List<Long> expected = new ArrayList<>(usage.keySet());
+        expected.sort(Comparator.comparing((Long id) -> -usage.get(id)).thenComparing(id -> "user" + id));
+
+        assertEquals(expected, leaderboard.topIds(Integer.MAX_VALUE));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, leaderboard.rankOf(expected.get(i)).orElseThrow().rank());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.pitang.car_users_backend.repository;
+
+import com.pitang.car_users_backend.dto.CarSearchCriteria;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.service.CarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração da busca de carros ({@link CarService#searchCars(CarSearchCriteria)}): toda combinação
+ * de filtros aceita precisa ser atendida por um dos índices de {@link Car} (inclusive o da placa, para buscas
+ * só por prefixo, ou, quando há filtro de dono, o da chave estrangeira), na primeira página e nas seguintes. Os valores
+ * são escritos no SQL ({@code value_handling_mode=inline}) para que o EXPLAIN do
+ * H2 considere as mesmas condições de índice da consulta real.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:car-search-plan",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.pitang.car_users_backend.repository.CapturingStatementInspector",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "app.usage-log.dir=${java.io.tmpdir}/car-search-plan-usage-log"
+})
+class CarSearchQueryPlanTest {
+
+    private static final int OWNERS = 20;
+    private static final int CARS_PER_OWNER = 10;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<UserEntity> owners = new ArrayList<>();
+
+    /**
+     * Persiste 200 carros com modelos, cores, anos e donos variados.
+     */
+    @BeforeEach
+    void setUp() {
+        int index = 0;
+        for (int o = 0; o < OWNERS; o++) {
+            UserEntity owner = new UserEntity();
+            owner.setFirstName("Plan");
+            owner.setLastName("Owner" + o);
+            owner.setEmail("plan" + o + "@test.com");
+            owner.setBirthday(LocalDate.of(1990, 1, 1));
+            owner.setLogin("plan" + o);
+            owner.setPassword("secret");
+            owner.setPhone("123456789");
+            for (int c = 0; c < CARS_PER_OWNER; c++, index++) {
+                Car car = new Car();
+                car.setLicensePlate(String.format("P%02d-%04d", o, index));
+                car.setModel("Model-" + index % 17);
+                car.setColor("Color-" + index % 19);
+                car.setYear(2000 + index % 23);
+                car.setUser(owner);
+                owner.getCars().add(car);
+            }
+            owners.add(userRepository.save(owner));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        owners.clear();
+    }
+
+    /**
+     * Nenhuma combinação de filtros com modelo, cor, dono ou prefixo da placa resulta em varredura da tabela
+     * ou da chave primária; as demais são recusadas.
+     */
+    @Test
+    void testSearch_EverySupportedCombinationUsesACompositeIndex() throws SQLException {
+        Long ownerId = owners.get(3).getId();
+        Long middleId = owners.get(OWNERS / 2).getCars().get(0).getId();
+        // bits: modelo, cor, dono, ano inicial, ano final, prefixo da placa
+        for (int mask = 0; mask < 64; mask++) {
+            for (long after : new long[]{0, middleId}) {
+                CarSearchCriteria criteria = new CarSearchCriteria(
+                        (mask & 1) != 0 ? "Model-3" : null,
+                        (mask & 2) != 0 ? "Color-5" : null,
+                        (mask & 8) != 0 ? 2005 : null,
+                        (mask & 16) != 0 ? 2015 : null,
+                        (mask & 32) != 0 ? "P03" : null,
+                        (mask & 4) != 0 ? ownerId : null,
+                        after, 20);
+                assertEquals((mask & (1 | 2 | 4 | 32)) != 0, criteria.hasIndexedFilter(), criteria::toString);
+                if (!criteria.hasIndexedFilter()) {
+                    assertThrows(IllegalArgumentException.class, () -> carService.searchCars(criteria));
+                    continue;
+                }
+
+                CapturingStatementInspector.clear();
+                carService.searchCars(criteria);
+                String plan = explain(searchStatement());
+
+                assertFalse(plan.contains("tableScan"), () -> "Varredura completa para " + criteria + ":\n" + plan);
+                // só com o prefixo da placa, nas páginas seguintes o custo do H2 prefere a faixa da chave primária
+                // a partir do último ID (já ordenada) à faixa da placa seguida de ordenação
+                boolean plateOnly = (mask & (1 | 2 | 4)) == 0;
+                assertTrue(plan.contains(".IDX_CAR_") || ((mask & 4) != 0 && plan.contains(".FK_CAR_USER_"))
+                                || (plateOnly && after > 0 && plan.contains(".PRIMARY_KEY_") && plan.contains(": ID > ")),
+                        () -> "Sem índice composto para " + criteria + ":\n" + plan);
+            }
+        }
+    }
+
+    /**
+     * A busca só pelo prefixo da placa usa {@code idx_car_license_plate} ({@code LIKE 'x%'}).
+     */
+    @Test
+    void testSearch_PlatePrefixOnlyUsesLicensePlateIndex() throws SQLException {
+        CarSearchCriteria criteria = new CarSearchCriteria(null, null, null, null, "P03", null, 0, 20);
+
+        CapturingStatementInspector.clear();
+        List<Car> cars = carService.searchCars(criteria);
+        String plan = explain(searchStatement());
+
+        assertEquals(CARS_PER_OWNER, cars.size());
+        assertTrue(cars.stream().allMatch(car -> car.getLicensePlate().startsWith("P03")));
+        assertTrue(plan.contains(".IDX_CAR_LICENSE_PLATE"), () -> "Sem o índice da placa:\n" + plan);
+    }
+
+    /**
+     * A paginação pelo ID percorre todos os carros do dono, sem repetições e em ordem.
+     */
+    @Test
+    void testSearch_KeysetPaginationCoversAllMatches() {
+        Long ownerId = owners.get(7).getId();
+        List<Long> ids = new ArrayList<>();
+        long after = 0;
+        List<Car> page;
+        do {
+            page = carService.searchCars(new CarSearchCriteria(null, null, null, null, null, ownerId, after, 4));
+            page.forEach(car -> ids.add(car.getId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+        } while (page.size() == 4);
+
+        List<Long> expected = owners.get(7).getCars().stream().map(Car::getId).sorted().toList();
+        assertEquals(expected, ids);
+    }
+
+    private String searchStatement() {
+        return CapturingStatementInspector.statements().stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from car "))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("Consulta da busca não capturada"));
+    }
+
+    /**
+     * Executa o EXPLAIN do H2; os parâmetros que restam no SQL (limite da página) recebem o tamanho da página.
+     * @param sql consulta gerada pelo Hibernate
+     * @return plano da consulta
+     * @throws SQLException em caso de falha no EXPLAIN
+     */
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            long parameters = sql.chars().filter(ch -> ch == '?').count();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setInt(i, 20);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                assertTrue(result.next());
+                return result.getString(1);
+            }
+        }
+    }
+}
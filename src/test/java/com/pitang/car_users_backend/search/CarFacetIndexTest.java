@@ -0,0 +1,95 @@
+package com.pitang.car_users_backend.search;
+
+import com.pitang.car_users_backend.dto.CarFacetQuery;
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.FacetCount;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link CarFacetIndex}.
+ */
+class CarFacetIndexTest {
+
+    private CarFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        CarRepository repository = Mockito.mock(CarRepository.class);
+        when(repository.findAllFacts()).thenReturn(List.of(
+                new CarFacts(1L, 10L, "Civic Touring", 2019, "Preto", 0),
+                new CarFacts(2L, 10L, "Corolla", 2021, "Branco", 0),
+                new CarFacts(3L, 10L, "Civic", 2022, "preto", 0),
+                new CarFacts(4L, 10L, "Gol", 2015, "Prata", 0),
+                new CarFacts(5L, 20L, "Civic", 2022, "Preto", 0)));
+        index = new CarFacetIndex(repository);
+        index.rebuild();
+    }
+
+    /**
+     * Valores de um filtro se combinam com OU e filtros diferentes com E; cada faceta conta com os demais
+     * filtros, apenas nos carros do usuário.
+     */
+    @Test
+    void testSearch_CombinesFiltersAndCountsFacets() {
+        CarFacetIndex.Page page = index.search(10L,
+                new CarFacetQuery(List.of("PRETO", "branco"), 2018, null, List.of("civ", "coro"), 0, 10));
+
+        assertEquals(List.of(1L, 2L, 3L), page.ids());
+        assertEquals(3, page.total());
+        assertNull(page.nextAfter());
+        assertEquals(List.of(new FacetCount<>("preto", 2), new FacetCount<>("branco", 1)), page.colors());
+        assertEquals(List.of(new FacetCount<>(2019, 1), new FacetCount<>(2021, 1), new FacetCount<>(2022, 1)),
+                page.years());
+        assertEquals(List.of(new FacetCount<>("civic", 1), new FacetCount<>("civic touring", 1),
+                new FacetCount<>("corolla", 1)), page.models());
+
+        CarFacetIndex.Page touring = index.search(10L, new CarFacetQuery(null, null, null,
+                List.of("tour civ"), 0, 10));
+        assertEquals(List.of(1L), touring.ids());
+    }
+
+    /**
+     * A paginação continua a partir do último ID da página anterior.
+     */
+    @Test
+    void testSearch_PaginatesById() {
+        CarFacetIndex.Page first = index.search(10L, new CarFacetQuery(null, null, null, null, 0, 2));
+        assertEquals(List.of(1L, 2L), first.ids());
+        assertEquals(2L, first.nextAfter());
+        assertEquals(4, first.total());
+
+        CarFacetIndex.Page second = index.search(10L, new CarFacetQuery(null, null, null, null, 2, 2));
+        assertEquals(List.of(3L, 4L), second.ids());
+        assertNull(second.nextAfter());
+    }
+
+    /**
+     * Alterações e remoções trocam as entradas do carro no índice.
+     */
+    @Test
+    void testCarChanges_UpdateIndex() {
+        index.onCarChanged(new CarChangedEvent(4L, 10L, ChangeType.UPDATED,
+                new CarFacts(4L, 10L, "Gol", 2015, "Preto", 3)));
+        index.onCarChanged(new CarChangedEvent(1L, 10L, ChangeType.DELETED));
+        index.onCarChanged(new CarChangedEvent(6L, 10L, ChangeType.CREATED,
+                new CarFacts(6L, 10L, "Civic", 2023, "Azul", 0)));
+
+        CarFacetIndex.Page pretos = index.search(10L, new CarFacetQuery(List.of("preto"), null, null, null, 0, 10));
+        assertEquals(List.of(3L, 4L), pretos.ids());
+        assertEquals(List.of(new FacetCount<>("civic", 1), new FacetCount<>("gol", 1)), pretos.models());
+
+        CarFacetIndex.Page civics = index.search(10L, new CarFacetQuery(null, null, null, List.of("civic"), 0, 10));
+        assertEquals(List.of(3L, 6L), civics.ids());
+        assertTrue(index.search(30L, new CarFacetQuery(null, null, null, null, 0, 10)).ids().isEmpty());
+    }
+}
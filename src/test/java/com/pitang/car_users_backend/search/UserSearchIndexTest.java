@@ -0,0 +1,126 @@
+package com.pitang.car_users_backend.search;
+
+import com.pitang.car_users_backend.dto.UserSearchFields;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link UserSearchIndex}.
+ */
+class UserSearchIndexTest {
+
+    private UserRepository repository;
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(UserRepository.class);
+        when(repository.findAllSearchFields()).thenReturn(List.of(
+                new UserSearchFields(1L, "João", "Silva", "joao.silva@empresa.com", "jsilva"),
+                new UserSearchFields(2L, "Maria", "Silveira", "maria@empresa.com", "msilveira"),
+                new UserSearchFields(3L, "Ana", "Souza", "ana.souza@gmail.com", "anasouza"),
+                new UserSearchFields(4L, "Joana", "Prado", "joana@empresa.com", "jprado")));
+        index = new UserSearchIndex(repository, new SimpleMeterRegistry(), 64);
+        index.rebuild();
+    }
+
+    /**
+     * Palavra igual vem antes de grafia parecida; prefixo e trecho casam; acentos e maiúsculas são ignorados;
+     * todos os termos precisam casar e a busca igual ao login recebe bônus.
+     */
+    @Test
+    void testSearch_RanksExactPrefixSubstringAndSimilarMatches() {
+        assertEquals(List.of(1L, 2L), ids(index.search("silva", 0, 10)));
+        assertEquals(3.0, index.search("silva", 0, 10).matches().get(0).score());
+        assertTrue(index.search("silva", 0, 10).matches().get(1).score() < 1);
+
+        assertEquals(List.of(new UserSearchIndex.Match(3L, 1.0)), index.search("ouza", 0, 10).matches());
+        assertEquals(List.of(3L), ids(index.search("souzza", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("JOÃO silva", 0, 10)));
+        assertEquals(List.of(new UserSearchIndex.Match(1L, 8.0)), index.search("jsilva", 0, 10).matches());
+        assertTrue(index.search("xyz", 0, 10).matches().isEmpty());
+    }
+
+    /**
+     * Termos de uma ou duas letras casam apenas com o início das palavras.
+     */
+    @Test
+    void testSearch_ShortTermsMatchWordPrefixes() {
+        // empate na pontuação: ordem pelo login
+        assertEquals(List.of(4L, 1L), ids(index.search("jo", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("a", 0, 10)));
+        assertTrue(index.search("ou", 0, 10).matches().isEmpty());
+    }
+
+    /**
+     * A página é recortada do resultado ordenado, que informa o total.
+     */
+    @Test
+    void testSearch_Paginates() {
+        UserSearchIndex.Page first = index.search("empresa", 0, 2);
+        assertEquals(List.of(4L, 1L), ids(first));
+        assertEquals(3, first.total());
+
+        UserSearchIndex.Page second = index.search("empresa", 1, 2);
+        assertEquals(List.of(2L), ids(second));
+        assertTrue(index.search("empresa", 5, 2).matches().isEmpty());
+    }
+
+    /**
+     * Alterações reindexam o usuário com os dados do banco; exclusões o removem.
+     */
+    @Test
+    void testUserChanges_UpdateIndex() {
+        when(repository.findSearchFieldsById(2L))
+                .thenReturn(Optional.of(new UserSearchFields(2L, "Maria", "Costa", "maria@empresa.com", "mcosta")));
+        index.onUserChanged(new UserChangedEvent(2L, ChangeType.UPDATED));
+        index.onUserChanged(new UserChangedEvent(1L, ChangeType.DELETED));
+
+        assertTrue(index.search("silveira", 0, 10).matches().isEmpty());
+        assertTrue(index.search("silva", 0, 10).matches().isEmpty());
+        assertEquals(List.of(2L), ids(index.search("costa", 0, 10)));
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Campos longos são truncados: a memória estimada por usuário fica limitada e o texto após o limite
+     * não é pesquisável.
+     */
+    @Test
+    void testMemoryPerUser_IsBounded() {
+        List<UserSearchFields> many = new ArrayList<>();
+        for (int n = 1; n <= 2000; n++) {
+            int base = n * 100;
+            String lastName = IntStream.range(0, 100).mapToObj(i -> "p" + (base + i))
+                    .collect(Collectors.joining(" ")) + " zzzfim";
+            many.add(new UserSearchFields((long) n, n % 2 == 0 ? "Maria" : "João", lastName,
+                    "user" + n + "@empresa.com", "user" + n));
+        }
+        when(repository.findAllSearchFields()).thenReturn(many);
+        index.rebuild();
+
+        assertEquals(2000, index.size());
+        long bytesPerUser = index.estimatedBytes() / index.size();
+        assertTrue(bytesPerUser < 2048, () -> "Memória por usuário: " + bytesPerUser + " bytes");
+        assertTrue(index.search("zzzfim", 0, 10).matches().isEmpty());
+        assertEquals(List.of(7L), ids(index.search("user7", 0, 10)).subList(0, 1));
+    }
+
+    private static List<Long> ids(UserSearchIndex.Page page) {
+        return page.matches().stream().map(UserSearchIndex.Match::id).toList();
+    }
+}
@@ -0,0 +1,146 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.UsageEvent;
+import com.pitang.car_users_backend.event.CarUsedEvent;
+import com.pitang.car_users_backend.model.UsageLogCheckpoint;
+import com.pitang.car_users_backend.repository.UsageLogCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link BufferedUsageServiceImpl}.
+ */
+class BufferedUsageServiceImplTest {
+
+    private static final long HOUR = Instant.parse("2025-03-20T15:00:00Z").toEpochMilli();
+
+    @TempDir
+    Path dir;
+
+    private CarService carService;
+    private UsageLogCheckpointRepository checkpointRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private BufferedUsageServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        carService = Mockito.mock(CarService.class);
+        checkpointRepository = Mockito.mock(UsageLogCheckpointRepository.class);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        when(checkpointRepository.findById(UsageLogCheckpoint.SINGLETON_ID)).thenReturn(Optional.empty());
+        service = newService();
+        service.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    private BufferedUsageServiceImpl newService() {
+        return new BufferedUsageServiceImpl(carService, checkpointRepository, eventPublisher,
+                Mockito.mock(PlatformTransactionManager.class), dir.toString(), 1024, 1000);
+    }
+
+    /**
+     * Os usos são somados por carro e aplicados de uma vez, gravando o LSN aplicado.
+     */
+    @Test
+    void testFlush_AppliesAggregatedDeltas() {
+        when(carService.applyUsage(anyMap())).thenReturn(2);
+
+        long lsn = service.record(10L, List.of(new UsageEvent(1L, 2, HOUR + 10), new UsageEvent(2L, 1, HOUR + 20),
+                new UsageEvent(1L, 3, HOUR + 30)));
+
+        assertEquals(2, lsn);
+        verify(eventPublisher).publishEvent(new CarUsedEvent(1L, 10L, toTime(HOUR), 5));
+        verify(eventPublisher).publishEvent(new CarUsedEvent(2L, 10L, toTime(HOUR), 1));
+        assertEquals(2, service.flush());
+        verify(carService).applyUsage(Map.of(1L, 5L, 2L, 1L));
+        verify(checkpointRepository).save(new UsageLogCheckpoint(UsageLogCheckpoint.SINGLETON_ID, 2));
+        assertEquals(0, service.flush(), "Sem usos acumulados, nada deveria ser aplicado");
+    }
+
+    /**
+     * Uma falha na aplicação devolve os usos ao acumulador para a próxima tentativa.
+     */
+    @Test
+    void testFlush_FailureKeepsDeltas() {
+        service.record(10L, List.of(new UsageEvent(1L, 2, HOUR)));
+        when(carService.applyUsage(anyMap())).thenThrow(new IllegalStateException("conflito")).thenReturn(1);
+
+        assertEquals(0, service.flush());
+        service.record(10L, List.of(new UsageEvent(1L, 1, HOUR)));
+        assertEquals(1, service.flush());
+
+        verify(carService).applyUsage(Map.of(1L, 2L));
+        verify(carService).applyUsage(Map.of(1L, 3L));
+        verify(checkpointRepository, never()).save(new UsageLogCheckpoint(UsageLogCheckpoint.SINGLETON_ID, 0));
+        verify(checkpointRepository).save(new UsageLogCheckpoint(UsageLogCheckpoint.SINGLETON_ID, 1));
+    }
+
+    /**
+     * Na reinicialização, só os usos posteriores ao LSN aplicado no banco voltam a ser aplicados.
+     */
+    @Test
+    void testOpen_ReplaysUnappliedUsage() throws Exception {
+        when(carService.applyUsage(anyMap())).thenReturn(1);
+        service.record(10L, List.of(new UsageEvent(1L, 2, HOUR)));
+        service.flush();
+        service.record(10L, List.of(new UsageEvent(1L, 4, HOUR), new UsageEvent(3L, 1, HOUR)));
+        // o banco fica indisponível até o desligamento: os usos acumulados só estão no log
+        when(carService.applyUsage(anyMap())).thenThrow(new IllegalStateException("banco indisponível"));
+        service.close();
+
+        when(checkpointRepository.findById(UsageLogCheckpoint.SINGLETON_ID))
+                .thenReturn(Optional.of(new UsageLogCheckpoint(UsageLogCheckpoint.SINGLETON_ID, 0)));
+        Mockito.reset(carService, eventPublisher);
+        service = newService();
+        service.open();
+        service.reconcile();
+
+        verify(carService).applyUsage(Map.of(1L, 4L, 3L, 1L));
+        verify(eventPublisher, never()).publishEvent(any(CarUsedEvent.class));
+    }
+
+    /**
+     * Sem ponto de aplicação no banco, o log pertence a outro banco e não é reaplicado.
+     */
+    @Test
+    void testOpen_WithoutCheckpointDiscardsLog() throws Exception {
+        service.record(10L, List.of(new UsageEvent(1L, 2, HOUR)));
+        service.close();
+        Mockito.clearInvocations(carService, checkpointRepository);
+
+        service = newService();
+        service.open();
+        service.reconcile();
+
+        verify(carService, never()).applyUsage(anyMap());
+        verify(checkpointRepository).save(new UsageLogCheckpoint(UsageLogCheckpoint.SINGLETON_ID, 0));
+    }
+
+    private static LocalDateTime toTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -1,25 +1,44 @@
 package com.pitang.car_users_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.CarBatchOperation;
+import com.pitang.car_users_backend.dto.CarBatchResult;
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.CarRequest;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeOrigin;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.event.UserUsageChangedEvent;
 import com.pitang.car_users_backend.exception.CarErrorCode;
 import com.pitang.car_users_backend.exception.CarException;
 import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
 import com.pitang.car_users_backend.repository.CarRepository;
+import com.pitang.car_users_backend.repository.UserRepository;
 import com.pitang.car_users_backend.util.CarValidationUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +50,9 @@ import static org.mockito.Mockito.when;
 class CarServiceImplTest {
 
     private CarRepository repository;
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private PlatformTransactionManager transactionManager;
     private CarServiceImpl carService;
 
     /**
@@ -39,7 +61,10 @@ class CarServiceImplTest {
     @BeforeEach
     void setUp() {
         repository = Mockito.mock(CarRepository.class);
-        carService = new CarServiceImpl(repository);
+        userRepository = Mockito.mock(UserRepository.class);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        carService = new CarServiceImpl(repository, userRepository, eventPublisher, new SimpleMeterRegistry(), transactionManager);
     }
 
     /**
@@ -147,6 +172,30 @@ class CarServiceImplTest {
         verify(repository).save(existing);
     }
 
+    /**
+     * Testa o cenário em que a atualização de carro falha porque o If-Match
+     * não corresponde mais à versão atual do carro.
+     */
+    @Test
+    void testUpdateCar_StaleIfMatch() {
+        Car existing = new Car();
+        existing.setId(10L);
+        existing.setVersion(2L);
+
+        when(repository.findById(10L)).thenReturn(Optional.of(existing));
+
+        Car updateData = new Car();
+        updateData.setLicensePlate("XYZ-9999");
+        updateData.setModel("Focus");
+        updateData.setYear(2021);
+        updateData.setColor("Blue");
+
+        CarException ex = assertThrows(CarException.class, () -> carService.updateCar(10L, updateData, "\"1\""));
+        assertEquals(CarErrorCode.PRECONDITION_FAILED, ex.getErrorCode(),
+                "Deveria lançar erro de pré-condição");
+        verify(repository, never()).save(any(Car.class));
+    }
+
     /**
      * Testa o cenário em que a atualização de carro falha devido
      * ao carro não encontrado na base de dados.
@@ -210,15 +259,126 @@ class CarServiceImplTest {
                 "Deveria lançar erro de campos inválidos");
     }
 
+    /**
+     * Testa o merge patch de carro: apenas o campo presente é alterado.
+     */
+    @Test
+    void testPatchCar_OnlyChangesPresentFields() throws Exception {
+        UserEntity owner = new UserEntity();
+        owner.setId(3L);
+        Car existing = new Car();
+        existing.setId(10L);
+        existing.setLicensePlate("ABC-1234");
+        existing.setModel("Fiesta");
+        existing.setYear(2020);
+        existing.setColor("Red");
+        existing.setUser(owner);
+
+        when(repository.findById(10L)).thenReturn(Optional.of(existing));
+
+        JsonNode patch = new ObjectMapper().readTree("{\"color\":\"Blue\"}");
+        Car patched = carService.patchCar(10L, 3L, patch, null);
+
+        assertEquals("Blue", patched.getColor());
+        assertEquals("ABC-1234", patched.getLicensePlate());
+        assertEquals("Fiesta", patched.getModel());
+        verify(repository, never()).existsByLicensePlate(any());
+        verify(repository).flush();
+        verify(eventPublisher).publishEvent(new CarChangedEvent(10L, 3L, ChangeType.UPDATED,
+                CarFacts.of(patched)));
+    }
+
+    /**
+     * Testa o merge patch de carro de outro usuário (tratado como inexistente).
+     */
+    @Test
+    void testPatchCar_OtherOwner() throws Exception {
+        UserEntity owner = new UserEntity();
+        owner.setId(3L);
+        Car existing = new Car();
+        existing.setId(10L);
+        existing.setUser(owner);
+
+        when(repository.findById(10L)).thenReturn(Optional.of(existing));
+
+        JsonNode patch = new ObjectMapper().readTree("{\"color\":\"Blue\"}");
+
+        CarException ex = assertThrows(CarException.class, () -> carService.patchCar(10L, 4L, patch, null));
+        assertEquals(CarErrorCode.CAR_NOT_FOUND, ex.getErrorCode());
+    }
+
+    /**
+     * Testa o lote com criação, atualização e remoção: uma única busca, escritas em lote
+     * e falha reportada apenas no item inválido.
+     */
+    @Test
+    void testExecuteBatch_MixedOperations() {
+        UserEntity owner = new UserEntity();
+        owner.setId(3L);
+        Car existing = new Car();
+        existing.setId(10L);
+        existing.setLicensePlate("OLD-0000");
+        existing.setModel("Fiesta");
+        existing.setYear(2020);
+        existing.setUser(owner);
+        Car removable = new Car();
+        removable.setId(11L);
+        removable.setLicensePlate("DEL-0000");
+        removable.setUser(owner);
+
+        when(repository.findAllById(any())).thenReturn(List.of(existing, removable));
+        when(repository.findExistingLicensePlates(any())).thenReturn(Set.of("DUP-0000"));
+
+        List<CarBatchOperation> operations = List.of(
+                batchOperation(CarBatchOperation.Type.CREATE, null, "NEW-0000"),
+                batchOperation(CarBatchOperation.Type.UPDATE, 10L, "UPD-0000"),
+                batchOperation(CarBatchOperation.Type.CREATE, null, "DUP-0000"),
+                batchOperation(CarBatchOperation.Type.DELETE, 11L, null),
+                batchOperation(CarBatchOperation.Type.DELETE, 99L, null));
+
+        List<CarBatchResult> results = carService.executeBatch(owner, operations);
+
+        assertEquals(List.of(201, 200, 400, 204, 400), results.stream().map(CarBatchResult::getStatus).toList());
+        assertEquals(CarErrorCode.LICENSE_PLATE_EXISTS.getCode(), results.get(2).getErrorCode());
+        assertEquals(CarErrorCode.CAR_NOT_FOUND.getCode(), results.get(4).getErrorCode());
+        assertEquals("UPD-0000", existing.getLicensePlate());
+        verify(repository).findAllById(any());
+        verify(repository).saveAll(any());
+        verify(repository).deleteAll(List.of(removable));
+        verify(repository).flush();
+        verify(eventPublisher).publishEvent(new CarChangedEvent(11L, 3L, ChangeType.DELETED));
+    }
+
+    private CarBatchOperation batchOperation(CarBatchOperation.Type type, Long id, String licensePlate) {
+        CarBatchOperation operation = new CarBatchOperation();
+        operation.setOp(type);
+        operation.setId(id);
+        if (licensePlate != null) {
+            CarRequest car = new CarRequest();
+            car.setLicensePlate(licensePlate);
+            car.setModel("Focus");
+            car.setYear(2021);
+            car.setColor("Blue");
+            operation.setCar(car);
+        }
+        return operation;
+    }
+
     /**
      * Testa o cenário de deleção de carro com sucesso.
      */
     @Test
     void testDeleteCar_Success() {
-        when(repository.existsById(5L)).thenReturn(true);
+        UserEntity owner = new UserEntity();
+        owner.setId(10L);
+        Car car = new Car();
+        car.setId(5L);
+        car.setUser(owner);
+        when(repository.findById(5L)).thenReturn(Optional.of(car));
 
         carService.deleteCar(5L);
-        verify(repository).deleteById(5L);
+        verify(repository).delete(car);
+        verify(eventPublisher).publishEvent(new CarChangedEvent(5L, 10L, ChangeType.DELETED));
     }
 
     /**
@@ -227,13 +387,93 @@ class CarServiceImplTest {
      */
     @Test
     void testDeleteCar_NotFound() {
-        when(repository.existsById(999L)).thenReturn(false);
+        when(repository.findById(999L)).thenReturn(Optional.empty());
 
         CarException ex = assertThrows(CarException.class, () -> carService.deleteCar(999L));
         assertEquals(CarErrorCode.CAR_NOT_FOUND.getMessage(), ex.getMessage(),
                 "Deveria lançar erro de carro inexistente");
     }
 
+    /**
+     * Remoção em massa: um único comando de exclusão e um evento por carro removido.
+     */
+    @Test
+    void testDeleteCarsByUserId_BulkDelete() {
+        when(repository.findIdsByUserId(10L)).thenReturn(List.of(1L, 2L));
+
+        List<Long> deleted = carService.deleteCarsByUserId(10L);
+
+        assertEquals(List.of(1L, 2L), deleted);
+        verify(repository).deleteAllByUserId(10L);
+        verify(repository, never()).delete(any(Car.class));
+        verify(eventPublisher).publishEvent(
+                new CarChangedEvent(1L, 10L, ChangeType.DELETED, null, ChangeOrigin.BULK_DELETE));
+        verify(eventPublisher).publishEvent(
+                new CarChangedEvent(2L, 10L, ChangeType.DELETED, null, ChangeOrigin.BULK_DELETE));
+        verify(eventPublisher).publishEvent(new UserChangedEvent(10L, ChangeType.UPDATED));
+    }
+
+    /**
+     * Os usos acumulados são somados no banco, com um UPDATE atômico por incremento distinto e um por dono;
+     * os eventos levam os valores relidos depois dos UPDATEs.
+     */
+    @Test
+    void testApplyUsage_AddsDeltasToCarsAndOwner() {
+        UserEntity owner = usageOwner(10);
+        Car first = usedCar(1L, owner, 6);
+        Car second = usedCar(2L, owner, 4);
+        when(repository.findAllWithUserByIdIn(any()))
+                .thenReturn(List.of(usedCar(1L, owner, 2), usedCar(2L, owner, 3)), List.of(first, second));
+
+        int updated = carService.applyUsage(Map.of(1L, 4L, 2L, 1L, 99L, 7L));
+
+        assertEquals(2, updated);
+        verify(repository).incrementUsage(List.of(1L), 4);
+        verify(repository).incrementUsage(List.of(2L), 1);
+        verify(userRepository).incrementTotalUsage(10L, 5);
+        verify(repository, never()).save(any(Car.class));
+        verify(eventPublisher).publishEvent(new UserUsageChangedEvent(10L, "owner", 10));
+        verify(eventPublisher).publishEvent(new CarChangedEvent(1L, 10L, ChangeType.UPDATED, CarFacts.of(first),
+                ChangeOrigin.USAGE));
+        verify(eventPublisher).publishEvent(new CarChangedEvent(2L, 10L, ChangeType.UPDATED, CarFacts.of(second),
+                ChangeOrigin.USAGE));
+    }
+
+    /**
+     * Usar um carro incrementa o contador e o total do dono no banco, sem gravar a entidade lida,
+     * e devolve o carro relido com o novo valor.
+     */
+    @Test
+    void testGetCarUserById_IncrementsAtomically() {
+        UserEntity owner = usageOwner(8);
+        Car reloaded = usedCar(1L, owner, 3);
+        when(repository.findById(1L)).thenReturn(Optional.of(usedCar(1L, owner, 2)), Optional.of(reloaded));
+
+        Car car = carService.getCarUserById(1L);
+
+        assertSame(reloaded, car);
+        verify(repository).incrementUsage(List.of(1L), 1);
+        verify(userRepository).incrementTotalUsage(10L, 1);
+        verify(repository, never()).save(any(Car.class));
+        verify(eventPublisher).publishEvent(new UserUsageChangedEvent(10L, "owner", 8));
+    }
+
+    private static UserEntity usageOwner(int totalUsageCount) {
+        UserEntity owner = new UserEntity();
+        owner.setId(10L);
+        owner.setLogin("owner");
+        owner.setTotalUsageCount(totalUsageCount);
+        return owner;
+    }
+
+    private static Car usedCar(Long id, UserEntity owner, int usageCount) {
+        Car car = new Car();
+        car.setId(id);
+        car.setUser(owner);
+        car.setUsageCount(usageCount);
+        return car;
+    }
+
     /**
      * Testa a recuperação de todos os carros (GET ALL).
      */
@@ -367,6 +607,7 @@ class CarServiceImplTest {
         assertNotNull(result, "O carro retornado não deveria ser nulo");
         assertEquals("/api/cars/" + carId + "/photo", result.getPhotoUrl(),
                 "A URL da foto deveria ser atualizada corretamente");
+        verify(transactionManager).commit(any());
 
         Path uploadPath = Paths.get("uploads/cars").toAbsolutePath().normalize();
         Files.deleteIfExists(uploadPath.resolve("car_" + carId + ".jpg"));
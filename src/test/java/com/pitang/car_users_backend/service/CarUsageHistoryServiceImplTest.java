@@ -0,0 +1,133 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.CarUsageHistory;
+import com.pitang.car_users_backend.dto.UsageBucket;
+import com.pitang.car_users_backend.dto.UsageGranularity;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.CarUsedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.model.CarUsageRollup;
+import com.pitang.car_users_backend.repository.CarUsageRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link CarUsageHistoryServiceImpl}.
+ */
+class CarUsageHistoryServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 20, 15, 30);
+
+    private CarUsageRollupRepository repository;
+    private CarUsageHistoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(CarUsageRollupRepository.class);
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        service = new CarUsageHistoryServiceImpl(repository, Mockito.mock(PlatformTransactionManager.class),
+                clock, 48, 7, 90);
+    }
+
+    /**
+     * Dentro da janela, o histórico vem da memória somado ao que já estava gravado (uma consulta por carro).
+     */
+    @Test
+    void testGetHistory_FromMemoryWithStoredTotals() {
+        when(repository.findBuckets(eq(UsageGranularity.HOUR), anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of(new CarUsageRollup(1L, 5L, UsageGranularity.HOUR, NOW.withMinute(0), 3)));
+        service.onCarUsed(new CarUsedEvent(5L, 1L, NOW.minusMinutes(10), 1));
+        service.onCarUsed(new CarUsedEvent(5L, 1L, NOW.minusHours(2), 1));
+
+        CarUsageHistory hourly = service.getHistory(5L, NOW.minusHours(3), NOW, UsageGranularity.HOUR);
+        CarUsageHistory daily = service.getHistory(5L, NOW.minusHours(3), NOW, UsageGranularity.DAY);
+
+        assertEquals(List.of(new UsageBucket(NOW.minusHours(2).withMinute(0), 1),
+                new UsageBucket(NOW.withMinute(0), 4)), hourly.buckets());
+        assertEquals(List.of(new UsageBucket(NOW.toLocalDate().atStartOfDay(), 5)), daily.buckets());
+        verify(repository, times(1)).findBuckets(eq(UsageGranularity.HOUR), anyCollection(), any(LocalDateTime.class));
+        verify(repository, never()).findBuckets(eq(5L), any(), any());
+    }
+
+    /**
+     * A gravação envia apenas as diferenças desde a gravação anterior.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesOnlyDeltas() {
+        service.onCarUsed(new CarUsedEvent(5L, 1L, NOW, 1));
+        service.onCarUsed(new CarUsedEvent(5L, 1L, NOW, 1));
+        service.onCarUsed(new CarUsedEvent(6L, 1L, NOW.minusHours(1), 1));
+
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<Collection<CarUsageRollup>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, times(1)).saveAll(captor.capture());
+        List<CarUsageRollup> rows = new ArrayList<>(captor.getValue());
+        assertEquals(2, rows.size());
+        CarUsageRollup car5 = rows.stream().filter(row -> row.getCarId() == 5L).findFirst().orElseThrow();
+        assertEquals(UsageGranularity.HOUR, car5.getGranularity());
+        assertEquals(NOW.withMinute(0), car5.getBucketStart());
+        assertEquals(2, car5.getCount());
+    }
+
+    /**
+     * Horas além da retenção são agregadas em dias e removidas.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDownsample_HoursIntoDays() {
+        LocalDateTime oldDay = NOW.toLocalDate().atStartOfDay().minusDays(10);
+        List<CarUsageRollup> hours = List.of(
+                new CarUsageRollup(1L, 5L, UsageGranularity.HOUR, oldDay.plusHours(8), 2),
+                new CarUsageRollup(2L, 5L, UsageGranularity.HOUR, oldDay.plusHours(20), 3));
+        when(repository.findByGranularityAndBucketStartBefore(eq(UsageGranularity.HOUR), any())).thenReturn(hours);
+
+        service.downsample();
+
+        verify(repository).deleteAllInBatch(hours);
+        ArgumentCaptor<Collection<CarUsageRollup>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).saveAll(captor.capture());
+        CarUsageRollup day = captor.getValue().iterator().next();
+        assertEquals(UsageGranularity.DAY, day.getGranularity());
+        assertEquals(oldDay, day.getBucketStart());
+        assertEquals(5, day.getCount());
+    }
+
+    /**
+     * Ao remover o carro, os usos em memória e pendentes são descartados e o histórico gravado é apagado.
+     */
+    @Test
+    void testCarDeleted_DropsPendingUsageAndStoredHistory() {
+        service.onCarUsed(new CarUsedEvent(5L, 1L, NOW, 1));
+        service.onCarUsed(new CarUsedEvent(5L, 1L, NOW.minusDays(5), 1));
+        service.onCarUsed(new CarUsedEvent(6L, 1L, NOW, 1));
+
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.DELETED));
+        service.flush();
+
+        verify(repository).deleteByCarId(5L);
+        verify(repository).findBuckets(eq(UsageGranularity.HOUR), eq(Set.of(6L)), any(LocalDateTime.class));
+    }
+}
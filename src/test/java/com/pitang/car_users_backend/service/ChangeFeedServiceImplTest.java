@@ -0,0 +1,155 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.ChangeFeedEntry;
+import com.pitang.car_users_backend.dto.ChangeFeedResponse;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeOrigin;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.ChangeLogEntry;
+import com.pitang.car_users_backend.repository.ChangeLogRepository;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link ChangeFeedServiceImpl}.
+ */
+class ChangeFeedServiceImplTest {
+
+    private ChangeLogRepository repository;
+    private CarService carService;
+    private ChangeFeedServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ChangeLogRepository.class);
+        carService = Mockito.mock(CarService.class);
+        service = new ChangeFeedServiceImpl(repository, Mockito.mock(UserRepository.class), carService, 500, 0, 24);
+    }
+
+    /**
+     * A alteração de um carro é registrada no log do dono.
+     */
+    @Test
+    void testOnCarChanged_RecordsEntryForOwner() {
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.UPDATED));
+
+        ArgumentCaptor<ChangeLogEntry> captor = ArgumentCaptor.forClass(ChangeLogEntry.class);
+        verify(repository).save(captor.capture());
+        assertEquals(ChangeLogEntry.EntityType.CAR, captor.getValue().getEntityType());
+        assertEquals(5L, captor.getValue().getEntityId());
+        assertEquals(1L, captor.getValue().getUserId());
+        assertEquals(ChangeType.UPDATED, captor.getValue().getChangeType());
+    }
+
+    /**
+     * Usos de carros não geram escrita por evento: a gravação em lote grava uma entrada por carro.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOnCarChanged_UsageIsBatched() {
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.UPDATED, null, ChangeOrigin.USAGE));
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.UPDATED, null, ChangeOrigin.USAGE));
+        service.onCarChanged(new CarChangedEvent(6L, 1L, ChangeType.UPDATED, null, ChangeOrigin.USAGE));
+        verify(repository, never()).save(any());
+
+        assertEquals(2, service.flushUsage());
+        assertEquals(0, service.flushUsage());
+
+        ArgumentCaptor<Iterable<ChangeLogEntry>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository).saveAll(captor.capture());
+        List<Long> carIds = new ArrayList<>();
+        captor.getValue().forEach(entry -> carIds.add(entry.getEntityId()));
+        assertEquals(Set.of(5L, 6L), Set.copyOf(carIds));
+    }
+
+    /**
+     * A remoção em massa dos carros do dono não grava uma entrada por carro.
+     */
+    @Test
+    void testOnCarChanged_BulkDeleteIsNotRecordedPerCar() {
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.DELETED, null, ChangeOrigin.BULK_DELETE));
+
+        verify(repository, never()).save(any());
+    }
+
+    /**
+     * Várias alterações da mesma entidade viram uma só; o token avança até a última entrada lida.
+     */
+    @Test
+    void testGetChanges_CoalescesPerEntity() {
+        when(repository.findChanges(eq(1L), eq(10L), any(), any())).thenReturn(List.of(
+                entry(11L, ChangeLogEntry.EntityType.CAR, 5L, ChangeType.UPDATED),
+                entry(12L, ChangeLogEntry.EntityType.CAR, 6L, ChangeType.DELETED),
+                entry(13L, ChangeLogEntry.EntityType.CAR, 5L, ChangeType.UPDATED)));
+        Car car = new Car();
+        car.setId(5L);
+        car.setLicensePlate("ABC-1234");
+        when(carService.getCarsByIds(List.of(5L))).thenReturn(List.of(car));
+
+        ChangeFeedResponse response = service.getChanges(1L, 10L);
+
+        assertEquals(13L, response.nextToken());
+        assertFalse(response.resetRequired());
+        assertEquals(2, response.changes().size());
+        ChangeFeedEntry deleted = response.changes().get(0);
+        assertEquals(6L, deleted.id());
+        assertEquals(ChangeType.DELETED, deleted.change());
+        assertNull(deleted.car());
+        ChangeFeedEntry updated = response.changes().get(1);
+        assertEquals(5L, updated.id());
+        assertEquals("ABC-1234", updated.car().getLicensePlate());
+    }
+
+    /**
+     * Sem alterações, a resposta é vazia e o token avança até o fim do log.
+     */
+    @Test
+    void testGetChanges_NothingChanged() {
+        when(repository.findChanges(eq(1L), eq(10L), any(), any())).thenReturn(List.of());
+        when(repository.findMaxId(any())).thenReturn(40L);
+
+        ChangeFeedResponse response = service.getChanges(1L, 10L);
+
+        assertTrue(response.changes().isEmpty());
+        assertEquals(40L, response.nextToken());
+        assertFalse(response.resetRequired());
+        verify(carService, never()).getCarsByIds(any());
+    }
+
+    /**
+     * Um token anterior à compactação exige recarga completa.
+     */
+    @Test
+    void testGetChanges_TokenBeforeCompaction() {
+        when(repository.findMaxId(any())).thenReturn(100L);
+        when(repository.deleteUpTo(100L)).thenReturn(100);
+        assertEquals(100, service.compact());
+
+        ChangeFeedResponse response = service.getChanges(1L, 10L);
+
+        assertTrue(response.resetRequired());
+        assertEquals(100L, response.nextToken());
+        verify(repository, never()).findChanges(anyLong(), anyLong(), any(), any());
+    }
+
+    private static ChangeLogEntry entry(Long id, ChangeLogEntry.EntityType type, Long entityId, ChangeType change) {
+        return new ChangeLogEntry(id, type, entityId, 1L, change, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,121 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link EventStreamServiceImpl}.
+ */
+class EventStreamServiceImplTest {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private CarService carService;
+    private RecordingEmitter emitter;
+    private EventStreamServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        carService = Mockito.mock(CarService.class);
+        emitter = new RecordingEmitter();
+        // buffer de 1 ID por assinante; os envios só rodam quando o teste executa as tarefas
+        service = new EventStreamServiceImpl(Mockito.mock(UserRepository.class), carService,
+                new SimpleMeterRegistry(), 1, 0L, tasks::add) {
+            @Override
+            SseEmitter createEmitter() {
+                return emitter;
+            }
+        };
+    }
+
+    /**
+     * Alterações repetidas do mesmo carro viram um evento; IDs além do buffer geram um único resync.
+     */
+    @Test
+    void testCarChanges_CoalescedAndBounded() {
+        service.subscribeCars(1L);
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.UPDATED));
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.UPDATED));
+        service.onCarChanged(new CarChangedEvent(6L, 1L, ChangeType.UPDATED));
+        service.onCarChanged(new CarChangedEvent(7L, 2L, ChangeType.UPDATED));
+        when(carService.getCarsByIds(List.of(5L))).thenReturn(List.of(buildCar(5L, 1L)));
+
+        assertEquals(1, tasks.size(), "Deveria haver uma única tarefa de envio por assinante");
+        runTasks();
+
+        assertEquals(3, emitter.frames.size());
+        assertTrue(emitter.frames.get(0).contains("event:resync"));
+        assertTrue(emitter.frames.get(1).contains("event:car\n"));
+        assertTrue(emitter.frames.get(2).contains(":heartbeat"));
+        verify(carService, times(1)).getCarsByIds(List.of(5L));
+    }
+
+    /**
+     * Um stream encerrado deixa de receber eventos e sai da contagem de assinantes.
+     */
+    @Test
+    void testCompletedStream_Unsubscribed() {
+        service.subscribeCars(1L);
+        runTasks();
+        assertEquals(1, service.getSubscriberCount());
+
+        emitter.failSends = true;
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.DELETED));
+        runTasks();
+
+        assertEquals(0, service.getSubscriberCount());
+        service.onCarChanged(new CarChangedEvent(5L, 1L, ChangeType.DELETED));
+        assertTrue(tasks.isEmpty());
+    }
+
+    private void runTasks() {
+        for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+            task.run();
+        }
+    }
+
+    private static Car buildCar(Long id, Long ownerId) {
+        UserEntity owner = new UserEntity();
+        owner.setId(ownerId);
+        Car car = new Car();
+        car.setId(id);
+        car.setUser(owner);
+        return car;
+    }
+
+    /**
+     * Emitter que guarda o texto de cada evento em vez de escrever na resposta.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new ArrayList<>();
+        private boolean failSends;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failSends) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder frame = new StringBuilder();
+            builder.build().forEach(part -> frame.append(part.getData()));
+            frames.add(frame.toString());
+        }
+    }
+}
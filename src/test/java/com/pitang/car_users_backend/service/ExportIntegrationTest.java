@@ -0,0 +1,129 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.dto.ExportFormat;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração das exportações em fluxo, com fetch size 1 para exercitar a limpeza
+ * do contexto de persistência a cada bloco.
+ */
+@SpringBootTest(properties = "app.export.fetch-size=1")
+class ExportIntegrationTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserEntity user;
+
+    /**
+     * Persiste um usuário com dois carros.
+     */
+    @BeforeEach
+    void setUp() {
+        UserEntity entity = new UserEntity();
+        entity.setFirstName("Export");
+        entity.setLastName("User");
+        entity.setEmail("export@test.com");
+        entity.setBirthday(LocalDate.of(1990, 1, 1));
+        entity.setLogin("exporter");
+        entity.setPassword("secret");
+        entity.setPhone("123456789");
+        entity.getCars().add(car(entity, "EXP-0001", "Fiesta"));
+        entity.getCars().add(car(entity, "EXP-0002", "Ka, \"Sport\""));
+        user = userRepository.save(entity);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * NDJSON: um objeto por linha, sem a senha.
+     */
+    @Test
+    void testExportUsers_Ndjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportUsers(ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, rows);
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].contains("\"login\":\"exporter\""));
+        assertTrue(lines[0].contains("\"birthday\":\"1990-01-01\""));
+        assertFalse(lines[0].contains("password"));
+    }
+
+    /**
+     * CSV: cabeçalho, uma linha por carro com o ID do dono e valores com vírgula/aspas escapados.
+     */
+    @Test
+    void testExportCars_Csv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportCars(user.getId(), ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, rows);
+        assertEquals("id,userId,licensePlate,model,year,color,usageCount,photoUrl,version", lines[0]);
+        assertTrue(lines[1].contains("," + user.getId() + ",EXP-0001,Fiesta,"));
+        assertTrue(lines[2].contains(",\"Ka, \"\"Sport\"\"\","));
+    }
+
+    /**
+     * Apenas os carros do usuário informado são exportados.
+     */
+    @Test
+    void testExportCars_OnlyCallerCars() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportCars(user.getId() + 1000, ExportFormat.NDJSON, out);
+
+        assertEquals(0, rows);
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Uma falha de escrita (cliente desconectado) interrompe a exportação.
+     */
+    @Test
+    void testExportCars_WriteFailureStopsExport() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> exportService.exportCars(user.getId(), ExportFormat.NDJSON, broken));
+    }
+
+    private Car car(UserEntity owner, String licensePlate, String model) {
+        Car car = new Car();
+        car.setLicensePlate(licensePlate);
+        car.setModel(model);
+        car.setYear(2020);
+        car.setColor("Red");
+        car.setUser(owner);
+        return car;
+    }
+}
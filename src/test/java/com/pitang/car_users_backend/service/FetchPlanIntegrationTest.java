@@ -0,0 +1,191 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.Mapper.CarMapper;
+import com.pitang.car_users_backend.Mapper.UserMapper;
+import com.pitang.car_users_backend.dto.UserFieldSelection;
+import com.pitang.car_users_backend.dto.UserResponse;
+import com.pitang.car_users_backend.model.Car;
+import com.pitang.car_users_backend.model.UserEntity;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração que reproduzem os caminhos dos controllers fora de transação
+ * (open-in-view desabilitado): qualquer associação não carregada pelo plano de busca
+ * explícito resulta em {@code LazyInitializationException}.
+ */
+@SpringBootTest
+class FetchPlanIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserEntity user;
+
+    /**
+     * Persiste um usuário com dois carros.
+     */
+    @BeforeEach
+    void setUp() {
+        UserEntity entity = new UserEntity();
+        entity.setFirstName("Fetch");
+        entity.setLastName("Plan");
+        entity.setEmail("fetch@test.com");
+        entity.setBirthday(LocalDate.of(1990, 1, 1));
+        entity.setLogin("fetchplan");
+        entity.setPassword("secret");
+        entity.setPhone("123456789");
+        entity.getCars().add(car(entity, "FPL-0001"));
+        entity.getCars().add(car(entity, "FPL-0002"));
+        user = userRepository.save(entity);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * GET /api/users/{id} e GET /api/me.
+     */
+    @Test
+    void testGetUserById_MapsCarsOutsideTransaction() {
+        UserEntity loaded = userService.getUserById(user.getId());
+        UserResponse response = assertDoesNotThrow(() -> UserMapper.toResponse(loaded));
+        assertEquals(2, response.getCars().size());
+    }
+
+    /**
+     * GET /api/users e GET /api/users/ordered.
+     */
+    @Test
+    void testGetAllUsers_MapsCarsOutsideTransaction() {
+        List<UserEntity> users = userService.getAllUsers();
+        assertDoesNotThrow(() -> users.forEach(UserMapper::toResponse));
+    }
+
+    /**
+     * GET /api/users/{id}?fields=id,firstName,photoUrl: apenas as colunas pedidas, sem carros.
+     */
+    @Test
+    void testGetUserView_OnlySelectedFields() {
+        UserFieldSelection selection = UserFieldSelection.parse("id,firstName,photoUrl", null).orElseThrow();
+
+        Map<String, Object> view = userService.getUserView(user.getId(), selection);
+
+        assertEquals(List.of("id", "firstName", "photoUrl"), List.copyOf(view.keySet()));
+        assertEquals("Fetch", view.get("firstName"));
+    }
+
+    /**
+     * GET /api/users/ordered?fields=login&include=cars: carros buscados em lote e mapeados fora de transação.
+     */
+    @Test
+    void testGetUserViews_IncludeCars() {
+        UserFieldSelection selection = UserFieldSelection.parse("login", "cars").orElseThrow();
+
+        List<Map<String, Object>> views = userService.getUserViews(selection, true, null);
+
+        assertEquals(1, views.size());
+        assertEquals(List.of("login", "cars"), List.copyOf(views.get(0).keySet()));
+        assertEquals(2, ((List<?>) views.get(0).get("cars")).size());
+    }
+
+    /**
+     * GET /api/users/ordered?fields=login&include=cars&limit=1: o limite é aplicado na consulta, antes dos carros.
+     */
+    @Test
+    void testGetUserViews_LimitAppliedInQuery() {
+        UserEntity other = new UserEntity();
+        other.setFirstName("Other");
+        other.setLastName("Plan");
+        other.setEmail("other@test.com");
+        other.setBirthday(LocalDate.of(1990, 1, 1));
+        other.setLogin("otherplan");
+        other.setPassword("secret");
+        other.setPhone("123456789");
+        other.setTotalUsageCount(5);
+        userRepository.save(other);
+        UserFieldSelection selection = UserFieldSelection.parse("login", "cars").orElseThrow();
+
+        List<Map<String, Object>> views = userService.getUserViews(selection, true, 1);
+
+        assertEquals(1, views.size());
+        assertEquals("otherplan", views.get(0).get("login"));
+        assertEquals(List.of(), views.get(0).get("cars"));
+    }
+
+    /**
+     * PUT /api/users/{id} sem carros no payload.
+     */
+    @Test
+    void testUpdateUser_MapsCarsOutsideTransaction() {
+        UserEntity update = new UserEntity();
+        update.setFirstName("Fetch2");
+        update.setLastName("Plan");
+        update.setEmail("fetch2@test.com");
+        update.setBirthday(LocalDate.of(1990, 1, 1));
+        update.setLogin("fetchplan");
+        update.setPhone("123456789");
+
+        UserEntity updated = userService.updateUser(user.getId(), update);
+        UserResponse response = assertDoesNotThrow(() -> UserMapper.toResponse(updated));
+        assertEquals(2, response.getCars().size());
+    }
+
+    /**
+     * POST /api/users/{id}/photo.
+     */
+    @Test
+    void testUpdateUserPhoto_MapsCarsOutsideTransaction() {
+        UserEntity updated = userService.updateUserPhoto(user.getId(), "/api/users/" + user.getId() + "/photo");
+        assertDoesNotThrow(() -> UserMapper.toResponse(updated));
+    }
+
+    /**
+     * GET /api/cars/{id}: verificação de posse e mapeamento fora de transação.
+     */
+    @Test
+    void testGetCarUserById_MapsOutsideTransaction() {
+        Long carId = user.getCars().get(0).getId();
+        Car car = carService.getCarUserById(carId);
+        assertEquals(user.getId(), assertDoesNotThrow(() -> car.getUser().getId()));
+        assertDoesNotThrow(() -> CarMapper.toResponse(car));
+    }
+
+    /**
+     * GET /api/cars.
+     */
+    @Test
+    void testGetCarsByLoggedUser_MapsOutsideTransaction() {
+        List<Car> cars = carService.getCarsByLoggedUser(user.getId());
+        assertEquals(2, cars.size());
+        assertDoesNotThrow(() -> cars.forEach(CarMapper::toResponse));
+    }
+
+    private Car car(UserEntity owner, String licensePlate) {
+        Car car = new Car();
+        car.setLicensePlate(licensePlate);
+        car.setModel("Fiesta");
+        car.setYear(2020);
+        car.setColor("Red");
+        car.setUser(owner);
+        return car;
+    }
+}
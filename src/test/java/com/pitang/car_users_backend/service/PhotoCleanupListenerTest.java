@@ -0,0 +1,65 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para {@link PhotoCleanupListener}.
+ */
+class PhotoCleanupListenerTest {
+
+    @TempDir
+    Path uploads;
+
+    private Path carsDir;
+    private Path usersDir;
+    private PhotoCleanupListener listener;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        carsDir = Files.createDirectories(uploads.resolve("cars"));
+        usersDir = Files.createDirectories(uploads.resolve("users"));
+        // executor síncrono: a limpeza roda na própria thread do teste
+        listener = new PhotoCleanupListener(carsDir, usersDir, Runnable::run);
+    }
+
+    /**
+     * Apenas as fotos dos IDs excluídos são removidas; prefixos parecidos (car_10 x car_1) são preservados.
+     */
+    @Test
+    void testDeletedIds_RemovePhotos() throws IOException {
+        Path car1 = Files.createFile(carsDir.resolve("car_1.png"));
+        Path car10 = Files.createFile(carsDir.resolve("car_10.jpg"));
+        Path user7 = Files.createFile(usersDir.resolve("user_7.png"));
+
+        listener.onCarChanged(new CarChangedEvent(1L, 7L, ChangeType.DELETED));
+        listener.onUserChanged(new UserChangedEvent(7L, ChangeType.DELETED));
+
+        assertFalse(Files.exists(car1));
+        assertTrue(Files.exists(car10));
+        assertFalse(Files.exists(user7));
+    }
+
+    /**
+     * Alterações que não são exclusões não tocam nos arquivos.
+     */
+    @Test
+    void testUpdatedCar_KeepsPhoto() throws IOException {
+        Path car1 = Files.createFile(carsDir.resolve("car_1.png"));
+
+        listener.onCarChanged(new CarChangedEvent(1L, 7L, ChangeType.UPDATED));
+
+        assertTrue(Files.exists(car1));
+    }
+}
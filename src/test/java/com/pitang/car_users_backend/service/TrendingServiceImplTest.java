@@ -0,0 +1,94 @@
+package com.pitang.car_users_backend.service;
+
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.CarUsedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.model.ChangeLogEntry.EntityType;
+import com.pitang.car_users_backend.model.TrendingScore;
+import com.pitang.car_users_backend.repository.CarRepository;
+import com.pitang.car_users_backend.repository.TrendingScoreRepository;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link TrendingServiceImpl}.
+ */
+class TrendingServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private TrendingScoreRepository repository;
+    private TrendingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(TrendingScoreRepository.class);
+        service = new TrendingServiceImpl(repository, Mockito.mock(CarRepository.class),
+                Mockito.mock(UserRepository.class), Mockito.mock(UserService.class),
+                Mockito.mock(PlatformTransactionManager.class), 24);
+    }
+
+    /**
+     * Um uso de uma meia-vida atrás vale metade de um uso agora; a ordem não depende do instante da consulta.
+     */
+    @Test
+    void testWeight_HalvesEveryHalfLife() {
+        double now = service.weight(NOW, 1);
+        double dayAgo = service.weight(NOW.minusDays(1), 1);
+
+        assertEquals(1.0, now - dayAgo, 1e-9);
+        assertEquals(now, TrendingServiceImpl.logSum(dayAgo, dayAgo), 1e-9,
+                "Dois usos de uma meia-vida atrás deveriam valer um uso agora");
+        assertEquals(now + 1, service.weight(NOW, 2), 1e-9);
+    }
+
+    /**
+     * A gravação combina o acumulado com a pontuação gravada e cria as que faltam, para carro e dono.
+     */
+    @Test
+    void testFlush_MergesWithStoredScores() {
+        TrendingScore stored = new TrendingScore(1L, EntityType.CAR, 5L, service.weight(NOW.minusDays(1), 2));
+        when(repository.findByEntityTypeAndEntityIdIn(eq(EntityType.CAR), anyCollection())).thenReturn(List.of(stored));
+        when(repository.findByEntityTypeAndEntityIdIn(eq(EntityType.USER), anyCollection())).thenReturn(List.of());
+
+        service.onCarUsed(new CarUsedEvent(5L, 10L, NOW, 1));
+        service.flush();
+
+        assertEquals(service.weight(NOW, 2), stored.getScore(), 1e-9);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TrendingScore>> created = ArgumentCaptor.forClass(List.class);
+        verify(repository, Mockito.times(2)).saveAll(created.capture());
+        TrendingScore user = created.getAllValues().get(1).get(0);
+        assertEquals(EntityType.USER, user.getEntityType());
+        assertEquals(10L, user.getEntityId());
+        assertEquals(service.weight(NOW, 1), user.getScore(), 1e-9);
+    }
+
+    /**
+     * Carros removidos têm a pontuação descartada e apagada na próxima gravação.
+     */
+    @Test
+    void testFlush_DeletesRemovedCars() {
+        service.onCarUsed(new CarUsedEvent(5L, null, NOW, 1));
+        service.onCarChanged(new CarChangedEvent(5L, 10L, ChangeType.DELETED));
+        service.flush();
+
+        verify(repository, never()).findByEntityTypeAndEntityIdIn(eq(EntityType.CAR), anyCollection());
+        verify(repository).deleteByEntityIds(EntityType.CAR, Set.of(5L));
+    }
+}
@@ -0,0 +1,123 @@
+package com.pitang.car_users_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.UsageBatchAck;
+import com.pitang.car_users_backend.dto.UsageEncoding;
+import com.pitang.car_users_backend.dto.UsageEvent;
+import com.pitang.car_users_backend.dto.UsageIngestSummary;
+import com.pitang.car_users_backend.repository.CarRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link UsageIngestionServiceImpl}.
+ */
+class UsageIngestionServiceImplTest {
+
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    private CarRepository carRepository;
+    private BufferedUsageService bufferedUsageService;
+    private SimpleMeterRegistry meterRegistry;
+    private UsageIngestionServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        carRepository = Mockito.mock(CarRepository.class);
+        bufferedUsageService = Mockito.mock(BufferedUsageService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(bufferedUsageService.record(anyLong(), anyList())).thenReturn(41L, 42L);
+        when(bufferedUsageService.awaitDurable(anyLong(), anyLong())).thenReturn(true);
+        service = new UsageIngestionServiceImpl(carRepository, bufferedUsageService, new ObjectMapper(),
+                meterRegistry, 3, 1000);
+    }
+
+    /**
+     * Linhas malformadas, inválidas ou de carros de outro usuário são rejeitadas; a posse de cada carro
+     * é consultada uma única vez por requisição.
+     */
+    @Test
+    void testIngest_NdjsonValidatesOwnershipPerBatch() throws Exception {
+        when(carRepository.findOwnedIds(10L, Set.of(1L, 2L))).thenReturn(Set.of(1L));
+        String body = """
+                {"carId":1,"count":2,"timestamp":1700000000000}
+                {"carId":2,"count":1,"timestamp":1700000000000}
+                not json
+
+                {"carId":1,"count":0,"timestamp":1700000000000}
+                {"carId":1,"count":5,"timestamp":1700000000000}
+                """;
+        List<UsageBatchAck> acks = new ArrayList<>();
+
+        UsageIngestSummary summary = service.ingest(10L, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                UsageEncoding.NDJSON, acks::add);
+
+        assertEquals(2, summary.accepted());
+        assertEquals(3, summary.rejected());
+        assertEquals(2, summary.batches());
+        assertEquals(new UsageBatchAck(1, 1, 2, 41L, true, acks.get(0).eventsPerSecond()), acks.get(0));
+        assertEquals(new UsageBatchAck(2, 1, 1, 42L, true, acks.get(1).eventsPerSecond()), acks.get(1));
+        verify(bufferedUsageService).record(10L, List.of(new UsageEvent(1L, 2, TIMESTAMP)));
+        verify(bufferedUsageService).record(10L, List.of(new UsageEvent(1L, 5, TIMESTAMP)));
+        verify(carRepository, times(1)).findOwnedIds(Mockito.eq(10L), Mockito.anyCollection());
+        assertEquals(2, meterRegistry.counter("usage.ingest.events", "result", "accepted").count());
+        assertEquals(3, meterRegistry.counter("usage.ingest.events", "result", "rejected").count());
+    }
+
+    /**
+     * O formato binário tem registros de 20 bytes; um registro final incompleto é rejeitado.
+     */
+    @Test
+    void testIngest_BinaryWithTruncatedRecord() throws Exception {
+        when(carRepository.findOwnedIds(10L, Set.of(7L))).thenReturn(Set.of(7L));
+        ByteBuffer body = ByteBuffer.allocate(UsageEncoding.BINARY_EVENT_SIZE * 2 + 6);
+        body.putLong(7L).putInt(3).putLong(TIMESTAMP);
+        body.putLong(7L).putInt(1).putLong(TIMESTAMP + 1);
+        // 6 dos 20 bytes do terceiro registro
+        body.putInt(0).putShort((short) 7);
+        List<UsageBatchAck> acks = new ArrayList<>();
+
+        UsageIngestSummary summary = service.ingest(10L, new ByteArrayInputStream(body.array()),
+                UsageEncoding.BINARY, acks::add);
+
+        assertEquals(2, summary.accepted());
+        assertEquals(1, summary.rejected());
+        assertEquals(1, acks.size());
+        verify(bufferedUsageService).record(10L, List.of(new UsageEvent(7L, 3, TIMESTAMP),
+                new UsageEvent(7L, 1, TIMESTAMP + 1)));
+    }
+
+    /**
+     * Um lote sem eventos aceitos é confirmado sem passar pelo log.
+     */
+    @Test
+    void testIngest_AllRejectedSkipsLog() throws Exception {
+        when(carRepository.findOwnedIds(10L, Set.of(9L))).thenReturn(Set.of());
+        String body = "{\"carId\":9,\"count\":1,\"timestamp\":1700000000000}\n";
+        List<UsageBatchAck> acks = new ArrayList<>();
+
+        service.ingest(10L, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), UsageEncoding.NDJSON,
+                acks::add);
+
+        assertEquals(1, acks.size());
+        assertNull(acks.get(0).lsn());
+        assertFalse(acks.get(0).durable());
+        verify(bufferedUsageService, Mockito.never()).record(anyLong(), anyList());
+    }
+}
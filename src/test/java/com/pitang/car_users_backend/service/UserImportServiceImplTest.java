@@ -0,0 +1,116 @@
+package com.pitang.car_users_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.UserImportResult;
+import com.pitang.car_users_backend.dto.UserImportSummary;
+import com.pitang.car_users_backend.exception.UserErrorCode;
+import com.pitang.car_users_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link UserImportServiceImpl}.
+ */
+class UserImportServiceImplTest {
+
+    private UserRepository repository;
+    private CarService carService;
+    private PasswordEncoder passwordEncoder;
+    private UserImportServiceImpl importService;
+
+    /**
+     * Configura mocks e instancia o service com blocos de duas linhas.
+     */
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(UserRepository.class);
+        carService = Mockito.mock(CarService.class);
+        passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+        // o e-mail da primeira linha já está gravado quando o segundo bloco é verificado
+        when(repository.findExistingEmails(any())).thenReturn(Set.of(), Set.of("first@test.com"));
+        when(repository.findExistingLogins(any())).thenReturn(Set.of("taken"));
+        when(carService.findExistingLicensePlates(any())).thenReturn(Set.of());
+        importService = new UserImportServiceImpl(repository, carService, passwordEncoder,
+                Mockito.mock(ApplicationEventPublisher.class), Mockito.mock(PlatformTransactionManager.class),
+                new ObjectMapper().findAndRegisterModules(), 2, 2, 512);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    /**
+     * Linhas válidas são gravadas em lote; linhas malformadas, inválidas ou repetidas são reportadas
+     * individualmente, na ordem do arquivo, sem interromper a importação.
+     */
+    @Test
+    void testImportUsers_ReportsEachLine() throws Exception {
+        String ndjson = String.join("\n",
+                user("first", "first@test.com", "AAA-0001"),
+                "{not json",
+                "",
+                user("taken", "taken@test.com", "AAA-0002"),
+                user("second", "first@test.com", "AAA-0003"),
+                user("third", "third@test.com", "AAA-0004"));
+
+        List<UserImportResult> results = new ArrayList<>();
+        UserImportSummary summary = importService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), results::addAll);
+
+        assertEquals(2, summary.imported());
+        assertEquals(3, summary.failed());
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), results.stream().map(UserImportResult::getLine).toList());
+        assertEquals(List.of(201, 400, 400, 400, 201), results.stream().map(UserImportResult::getStatus).toList());
+        assertEquals(UserErrorCode.LOGIN_ALREADY_EXISTS.getCode(), results.get(2).getErrorCode());
+        assertEquals(UserErrorCode.EMAIL_ALREADY_EXISTS.getCode(), results.get(3).getErrorCode());
+        verify(passwordEncoder, times(2)).encode(anyString());
+        verify(repository, times(2)).saveAll(any());
+    }
+
+    /**
+     * Uma linha acima do tamanho máximo é rejeitada sem ser guardada, e a leitura continua na linha seguinte.
+     */
+    @Test
+    void testImportUsers_RejectsLineAboveMaximumLength() throws Exception {
+        String ndjson = String.join("\r\n",
+                "{\"firstName\":\"" + "x".repeat(1000) + "\"}",
+                user("first", "first@test.com", "AAA-0001"));
+
+        List<UserImportResult> results = new ArrayList<>();
+        UserImportSummary summary = importService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), results::addAll);
+
+        assertEquals(1, summary.imported());
+        assertEquals(1, summary.failed());
+        assertEquals(List.of(400, 201), results.stream().map(UserImportResult::getStatus).toList());
+        assertEquals(UserErrorCode.INVALID_FIELDS.getCode(), results.get(0).getErrorCode());
+        assertEquals("first", results.get(1).getLogin());
+    }
+
+    private String user(String login, String email, String licensePlate) {
+        return "{\"firstName\":\"Import\",\"lastName\":\"User\",\"email\":\"" + email + "\","
+                + "\"birthday\":\"1990-01-01\",\"login\":\"" + login + "\",\"password\":\"secret1\","
+                + "\"phone\":\"123456789\",\"cars\":[{\"year\":2020,\"licensePlate\":\"" + licensePlate + "\","
+                + "\"model\":\"Fiesta\",\"color\":\"Red\"}]}";
+    }
+}
@@ -1,26 +1,43 @@
 package com.pitang.car_users_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.event.UserChangedEvent;
+import com.pitang.car_users_backend.exception.CarErrorCode;
+import com.pitang.car_users_backend.exception.CarException;
 import com.pitang.car_users_backend.exception.UserErrorCode;
 import com.pitang.car_users_backend.exception.UserException;
+import com.pitang.car_users_backend.model.Car;
 import com.pitang.car_users_backend.model.UserEntity;
 import com.pitang.car_users_backend.repository.UserRepository;
+import com.pitang.car_users_backend.util.ETagUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.pitang.car_users_backend.util.UserValidationUtil.isValid;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +49,8 @@ class UserServiceImplTest {
 
     private UserRepository repository;
     private PasswordEncoder passwordEncoder;
+    private ApplicationEventPublisher eventPublisher;
+    private PlatformTransactionManager transactionManager;
     private UserServiceImpl userService;
 
     /**
@@ -41,7 +60,10 @@ class UserServiceImplTest {
     void setUp() {
         repository = Mockito.mock(UserRepository.class);
         passwordEncoder = Mockito.mock(PasswordEncoder.class);
-        userService = new UserServiceImpl(repository, passwordEncoder);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        userService = new UserServiceImpl(repository, passwordEncoder, eventPublisher, new SimpleMeterRegistry(),
+                transactionManager);
     }
 
     /**
@@ -110,7 +132,7 @@ class UserServiceImplTest {
         existing.setPhone("123456789");
         existing.setCreatedAt(LocalDateTime.now());
 
-        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(existing));
         when(repository.save(existing)).thenReturn(existing);
         when(passwordEncoder.encode("newpwd")).thenReturn("hashedNew");
 
@@ -130,12 +152,94 @@ class UserServiceImplTest {
         assertEquals("hashedNew", updated.getPassword());
     }
 
+    /**
+     * Atualização com carros: um único findAllById, atualização do carro existente,
+     * inserção do novo e remoção do carro ausente no payload.
+     */
+    @Test
+    void testUpdateUser_ReconcilesCarsWithSingleLookup() {
+        CarService carService = Mockito.mock(CarService.class);
+        userService.setCarService(carService);
+
+        UserEntity existing = buildExistingUser();
+        Car kept = buildCar(1L, "AAA-1111", existing);
+        Car removed = buildCar(2L, "BBB-2222", existing);
+        existing.getCars().add(kept);
+        existing.getCars().add(removed);
+
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(existing));
+        when(repository.save(existing)).thenReturn(existing);
+        when(carService.getCarsByIds(Set.of(1L))).thenReturn(List.of(kept));
+        when(carService.findExistingLicensePlates(Set.of("CCC-3333"))).thenReturn(Set.of());
+
+        Car keptUpdate = buildCar(1L, "AAA-9999", null);
+        Car newCar = buildCar(null, "CCC-3333", null);
+        UserEntity updateData = buildUpdateData();
+        updateData.setCars(new ArrayList<>(List.of(keptUpdate, newCar)));
+
+        UserEntity updated = userService.updateUser(1L, updateData);
+
+        assertEquals(2, updated.getCars().size());
+        assertSame(kept, updated.getCars().get(0));
+        assertEquals("AAA-9999", kept.getLicensePlate());
+        assertSame(existing, newCar.getUser());
+        assertFalse(updated.getCars().contains(removed));
+        verify(carService).getCarsByIds(Set.of(1L));
+        verify(carService, never()).getCarById(any());
+        verify(carService, never()).updateCar(any(), any());
+        verify(carService, never()).createCar(any());
+        verify(eventPublisher).publishEvent(new CarChangedEvent(1L, 1L, ChangeType.UPDATED, CarFacts.of(kept)));
+        verify(eventPublisher).publishEvent(new CarChangedEvent(2L, 1L, ChangeType.DELETED));
+    }
+
+    /**
+     * Falha ao atualizar carros quando um deles pertence a outro usuário.
+     */
+    @Test
+    void testUpdateUser_CarFromAnotherUser() {
+        CarService carService = Mockito.mock(CarService.class);
+        userService.setCarService(carService);
+
+        UserEntity existing = buildExistingUser();
+        UserEntity other = new UserEntity();
+        other.setId(2L);
+        Car foreign = buildCar(5L, "DDD-4444", other);
+
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(existing));
+        when(carService.getCarsByIds(Set.of(5L))).thenReturn(List.of(foreign));
+
+        UserEntity updateData = buildUpdateData();
+        updateData.setCars(new ArrayList<>(List.of(buildCar(5L, "DDD-4444", null))));
+
+        UserException ex = assertThrows(UserException.class, () -> userService.updateUser(1L, updateData));
+        assertEquals(UserErrorCode.INVALID_FIELDS.getMessage(), ex.getMessage());
+    }
+
+    /**
+     * Falha ao atualizar carros quando a placa de um carro novo já existe.
+     */
+    @Test
+    void testUpdateUser_NewCarLicensePlateExists() {
+        CarService carService = Mockito.mock(CarService.class);
+        userService.setCarService(carService);
+
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(buildExistingUser()));
+        when(carService.getCarsByIds(Set.of())).thenReturn(List.of());
+        when(carService.findExistingLicensePlates(Set.of("EEE-5555"))).thenReturn(Set.of("EEE-5555"));
+
+        UserEntity updateData = buildUpdateData();
+        updateData.setCars(new ArrayList<>(List.of(buildCar(null, "EEE-5555", null))));
+
+        CarException ex = assertThrows(CarException.class, () -> userService.updateUser(1L, updateData));
+        assertEquals(CarErrorCode.LICENSE_PLATE_EXISTS.getMessage(), ex.getMessage());
+    }
+
     /**
      * Falha ao atualizar usuário não encontrado.
      */
     @Test
     void testUpdateUser_NotFound() {
-        when(repository.findById(999L)).thenReturn(Optional.empty());
+        when(repository.findWithCarsById(999L)).thenReturn(Optional.empty());
 
         UserEntity userData = new UserEntity();
         userData.setEmail("ok@test.com");
@@ -145,15 +249,122 @@ class UserServiceImplTest {
         assertEquals(UserErrorCode.USER_NOT_FOUND.getMessage(), ex.getMessage());
     }
 
+    /**
+     * Falha ao atualizar usuário com If-Match desatualizado (versão alterada por outra requisição).
+     */
+    @Test
+    void testUpdateUser_StaleIfMatch() {
+        UserEntity existing = buildExistingUser();
+        existing.setVersion(4L);
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(existing));
+
+        String staleETag = ETagUtil.forUser(buildExistingUser());
+
+        UserException ex = assertThrows(UserException.class,
+                () -> userService.updateUser(1L, buildUpdateData(), staleETag));
+        assertEquals(UserErrorCode.PRECONDITION_FAILED, ex.getErrorCode());
+        verify(repository, never()).save(any(UserEntity.class));
+    }
+
+    /**
+     * Merge patch altera apenas os campos presentes e não recodifica a senha ausente.
+     */
+    @Test
+    void testPatchUser_OnlyChangesPresentFields() throws Exception {
+        UserEntity existing = buildExistingUser();
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(existing));
+
+        JsonNode patch = new ObjectMapper().readTree("{\"firstName\":\"Patched\",\"photoUrl\":null}");
+        UserEntity patched = userService.patchUser(1L, patch, null);
+
+        assertEquals("Patched", patched.getFirstName());
+        assertEquals("User", patched.getLastName());
+        assertEquals("old@test.com", patched.getEmail());
+        assertEquals("oldpwd", patched.getPassword());
+        assertNull(patched.getPhotoUrl());
+        verify(passwordEncoder, never()).encode(any());
+        verify(repository).flush();
+        verify(eventPublisher).publishEvent(new UserChangedEvent(1L, ChangeType.UPDATED));
+    }
+
+    /**
+     * Merge patch recodifica a senha apenas quando ela está presente.
+     */
+    @Test
+    void testPatchUser_RehashesPasswordWhenPresent() throws Exception {
+        UserEntity existing = buildExistingUser();
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(existing));
+        when(passwordEncoder.encode("newsecret")).thenReturn("hashed");
+
+        JsonNode patch = new ObjectMapper().readTree("{\"password\":\"newsecret\"}");
+        UserEntity patched = userService.patchUser(1L, patch, null);
+
+        assertEquals("hashed", patched.getPassword());
+    }
+
+    /**
+     * Merge patch não aceita null em campo obrigatório.
+     */
+    @Test
+    void testPatchUser_NullRequiredField() throws Exception {
+        when(repository.findWithCarsById(1L)).thenReturn(Optional.of(buildExistingUser()));
+
+        JsonNode patch = new ObjectMapper().readTree("{\"email\":null}");
+
+        UserException ex = assertThrows(UserException.class, () -> userService.patchUser(1L, patch, null));
+        assertEquals(UserErrorCode.MISSING_FIELDS, ex.getErrorCode());
+        verify(repository, never()).flush();
+    }
+
     /**
      * Deleção de usuário com sucesso.
      */
     @Test
     void testDeleteUser_Success() {
+        CarService carService = Mockito.mock(CarService.class);
+        userService.setCarService(carService);
         when(repository.existsById(5L)).thenReturn(true);
 
         userService.deleteUser(5L);
-        verify(repository).deleteById(5L);
+        verify(carService).deleteCarsByUserId(5L);
+        verify(repository).deleteByIdInBulk(5L);
+        verify(repository, never()).deleteById(any());
+        verify(eventPublisher).publishEvent(new UserChangedEvent(5L, ChangeType.DELETED));
+    }
+
+    private UserEntity buildExistingUser() {
+        UserEntity existing = new UserEntity();
+        existing.setId(1L);
+        existing.setFirstName("Old");
+        existing.setLastName("User");
+        existing.setBirthday(LocalDate.of(1990, 1, 1));
+        existing.setEmail("old@test.com");
+        existing.setLogin("olduser");
+        existing.setPassword("oldpwd");
+        existing.setPhone("123456789");
+        return existing;
+    }
+
+    private UserEntity buildUpdateData() {
+        UserEntity updateData = new UserEntity();
+        updateData.setFirstName("New");
+        updateData.setLastName("User");
+        updateData.setBirthday(LocalDate.of(1990, 1, 1));
+        updateData.setEmail("new@test.com");
+        updateData.setLogin("newuser");
+        updateData.setPhone("123456789");
+        return updateData;
+    }
+
+    private Car buildCar(Long id, String licensePlate, UserEntity owner) {
+        Car car = new Car();
+        car.setId(id);
+        car.setLicensePlate(licensePlate);
+        car.setModel("Fiesta");
+        car.setYear(2020);
+        car.setColor("Red");
+        car.setUser(owner);
+        return car;
     }
 
     /**
@@ -174,7 +385,7 @@ class UserServiceImplTest {
     void testGetUserById_Found() {
         UserEntity user = new UserEntity();
         user.setId(123L);
-        when(repository.findById(123L)).thenReturn(Optional.of(user));
+        when(repository.findWithCarsById(123L)).thenReturn(Optional.of(user));
 
         UserEntity result = userService.getUserById(123L);
         assertNotNull(result);
@@ -212,7 +423,7 @@ class UserServiceImplTest {
         UserEntity user = new UserEntity();
         user.setId(userId);
 
-        when(repository.findById(userId)).thenReturn(Optional.of(user));
+        when(repository.existsById(userId)).thenReturn(true);
 
         Path uploadPath = Paths.get("uploads/users").toAbsolutePath().normalize();
         Files.createDirectories(uploadPath);
@@ -231,7 +442,7 @@ class UserServiceImplTest {
      */
     @Test
     void testGetUserPhotoResource_NotFound() {
-        when(repository.findById(99L)).thenReturn(Optional.empty());
+        when(repository.existsById(99L)).thenReturn(false);
         assertThrows(UserException.class, () -> userService.getUserPhotoResource(99L));
     }
 
@@ -245,7 +456,7 @@ class UserServiceImplTest {
         UserEntity user = new UserEntity();
         user.setId(userId);
 
-        when(repository.findById(userId)).thenReturn(Optional.of(user));
+        when(repository.findWithCarsById(userId)).thenReturn(Optional.of(user));
         when(repository.save(any(UserEntity.class))).thenReturn(user);
 
         MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", "image data".getBytes());
@@ -254,6 +465,8 @@ class UserServiceImplTest {
 
         assertNotNull(result);
         assertEquals("/api/users/" + userId + "/photo", result.getPhotoUrl());
+        // só a atualização da URL roda em transação
+        verify(transactionManager).commit(any());
 
         Path uploadPath = Paths.get("uploads/users").toAbsolutePath().normalize();
         Files.deleteIfExists(uploadPath.resolve("user_" + userId + ".jpg"));
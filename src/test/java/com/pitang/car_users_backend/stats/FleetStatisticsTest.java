@@ -0,0 +1,93 @@
+package com.pitang.car_users_backend.stats;
+
+import com.pitang.car_users_backend.dto.CarFacts;
+import com.pitang.car_users_backend.dto.CarGroupTotals;
+import com.pitang.car_users_backend.dto.CarStats;
+import com.pitang.car_users_backend.dto.CarStatsGroup;
+import com.pitang.car_users_backend.event.CarChangedEvent;
+import com.pitang.car_users_backend.event.ChangeType;
+import com.pitang.car_users_backend.repository.CarRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para {@link FleetStatistics}.
+ */
+class FleetStatisticsTest {
+
+    private CarRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private FleetStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(CarRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = new FleetStatistics(repository, meterRegistry);
+        when(repository.findAllFacts()).thenReturn(List.of(
+                new CarFacts(1L, 10L, "Gol", 2020, "Preto", 4),
+                new CarFacts(2L, 10L, "Gol", 2021, "Branco", 1),
+                new CarFacts(3L, 10L, "Uno", 2020, "Preto", 0)));
+        statistics.rebuild();
+    }
+
+    /**
+     * Criação, alteração de modelo, uso e remoção movem a contribuição do carro entre os grupos.
+     */
+    @Test
+    void testCarChanges_UpdateGroupsIncrementally() {
+        statistics.onCarChanged(new CarChangedEvent(4L, 10L, ChangeType.CREATED,
+                new CarFacts(4L, 10L, "Uno", 2022, "Prata", 0)));
+        statistics.onCarChanged(new CarChangedEvent(2L, 10L, ChangeType.UPDATED,
+                new CarFacts(2L, 10L, "Uno", 2021, "Branco", 1)));
+        statistics.onCarChanged(new CarChangedEvent(1L, 10L, ChangeType.UPDATED,
+                new CarFacts(1L, 10L, "Gol", 2020, "Preto", 7)));
+        statistics.onCarChanged(new CarChangedEvent(3L, 10L, ChangeType.DELETED));
+
+        CarStats stats = statistics.getStats();
+
+        assertEquals(3, stats.cars());
+        assertEquals(8, stats.usage());
+        assertEquals(List.of(new CarStatsGroup<>("Uno", 2, 1), new CarStatsGroup<>("Gol", 1, 7)), stats.byModel());
+        assertEquals(List.of(new CarStatsGroup<>(2020, 1, 7), new CarStatsGroup<>(2021, 1, 1),
+                new CarStatsGroup<>(2022, 1, 0)), stats.byYear());
+        assertTrue(stats.byColor().contains(new CarStatsGroup<>("Preto", 1, 7)));
+        verify(repository, Mockito.never()).findGroupTotals();
+    }
+
+    /**
+     * Totais iguais aos do banco não disparam reconstrução; uma divergência é contada e corrigida.
+     */
+    @Test
+    void testCheckDrift_RebuildsOnDivergence() {
+        when(repository.findGroupTotals()).thenReturn(List.of(
+                new CarGroupTotals("Gol", 2020, "Preto", 1, 4),
+                new CarGroupTotals("Gol", 2021, "Branco", 1, 1),
+                new CarGroupTotals("Uno", 2020, "Preto", 1, 0)));
+        assertFalse(statistics.checkDrift());
+
+        // alteração que não passou pelo serviço: só o banco tem o uso novo
+        when(repository.findGroupTotals()).thenReturn(List.of(
+                new CarGroupTotals("Gol", 2020, "Preto", 1, 9),
+                new CarGroupTotals("Gol", 2021, "Branco", 1, 1),
+                new CarGroupTotals("Uno", 2020, "Preto", 1, 0)));
+        when(repository.findAllFacts()).thenReturn(List.of(
+                new CarFacts(1L, 10L, "Gol", 2020, "Preto", 9),
+                new CarFacts(2L, 10L, "Gol", 2021, "Branco", 1),
+                new CarFacts(3L, 10L, "Uno", 2020, "Preto", 0)));
+
+        assertTrue(statistics.checkDrift());
+        assertEquals(1, meterRegistry.counter("car.stats.drift").count());
+        assertEquals(10, statistics.getStats().usage());
+        verify(repository, times(2)).findAllFacts();
+    }
+}
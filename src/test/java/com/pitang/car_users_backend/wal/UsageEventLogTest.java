@@ -0,0 +1,123 @@
+package com.pitang.car_users_backend.wal;
+
+import com.pitang.car_users_backend.dto.UsageEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para {@link UsageEventLog}.
+ */
+class UsageEventLogTest {
+
+    private static final long SEGMENT_BYTES = 4L * UsageEventLog.RECORD_SIZE;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Os registros gravados voltam na reabertura, com LSNs em sequência; os já aplicados são pulados.
+     */
+    @Test
+    void testOpen_ReplaysRecordsAfterAppliedLsn() throws Exception {
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 1000, -1, (event, lsn) -> fail())) {
+            assertEquals(-1, log.lastLsn());
+            assertEquals(0, log.segmentCount(), "Nenhum arquivo deveria ser criado antes da primeira escrita");
+            assertEquals(2, log.appendAll(List.of(new UsageEvent(1L, 1, 100L), new UsageEvent(2L, 3, 200L),
+                    new UsageEvent(1L, 2, 300L))));
+        }
+
+        List<UsageEvent> replayed = new ArrayList<>();
+        List<Long> lsns = new ArrayList<>();
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 1000, 0, (event, lsn) -> {
+            replayed.add(event);
+            lsns.add(lsn);
+        })) {
+            assertEquals(List.of(new UsageEvent(2L, 3, 200L), new UsageEvent(1L, 2, 300L)), replayed);
+            assertEquals(List.of(1L, 2L), lsns);
+            assertEquals(3, log.appendAll(List.of(new UsageEvent(5L, 1, 400L))),
+                    "O LSN deveria continuar de onde o log parou");
+        }
+    }
+
+    /**
+     * Um registro interrompido no meio da escrita encerra a reaplicação do segmento.
+     */
+    @Test
+    void testOpen_StopsAtTornRecord() throws Exception {
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 1000, -1, (event, lsn) -> { })) {
+            log.appendAll(List.of(new UsageEvent(1L, 1, 100L), new UsageEvent(2L, 1, 200L),
+                    new UsageEvent(3L, 1, 300L)));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(UsageEventLog.RECORD_SIZE + 4L);
+            file.writeInt(0xCAFE);
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 1000, -1,
+                (event, lsn) -> replayed.add(event.carId()))) {
+            assertEquals(List.of(1L), replayed);
+        }
+    }
+
+    /**
+     * Segmentos cheios trocam de arquivo; a compactação apaga os que foram totalmente aplicados.
+     */
+    @Test
+    void testCompact_DeletesAppliedSegments() throws Exception {
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 1000, -1, (event, lsn) -> { })) {
+            List<UsageEvent> events = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                events.add(new UsageEvent(i, 1, i));
+            }
+            assertEquals(9, log.appendAll(events));
+            assertEquals(3, log.segmentCount());
+
+            log.compact(5);
+            assertEquals(2, log.segmentCount(), "Só o primeiro segmento (LSN 0 a 3) estava todo aplicado");
+            log.compact(9);
+            assertEquals(1, log.segmentCount(), "O segmento em escrita deveria ser mantido");
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 1000, 7, (event, lsn) -> replayed.add(lsn))) {
+            assertEquals(List.of(8L, 9L), replayed);
+        }
+    }
+
+    /**
+     * O commit em grupo libera quem aguarda a gravação em disco.
+     */
+    @Test
+    void testAwaitDurable_ReleasedByGroupCommit() throws Exception {
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 5, -1, (event, lsn) -> { })) {
+            long lsn = log.appendAll(List.of(new UsageEvent(1L, 1, 100L)));
+            assertTrue(log.awaitDurable(lsn, 5000));
+            assertFalse(log.awaitDurable(lsn + 1, 20), "Um LSN ainda não gravado não deveria estar em disco");
+        }
+    }
+
+    /**
+     * Sem segmentos em disco, a numeração continua depois do último LSN aplicado.
+     */
+    @Test
+    void testOpen_EmptyDirectoryStartsAfterAppliedLsn() throws Exception {
+        try (UsageEventLog log = UsageEventLog.open(dir, SEGMENT_BYTES, 1000, 41, (event, lsn) -> fail())) {
+            assertEquals(41, log.lastLsn());
+            assertEquals(42, log.appendAll(List.of(new UsageEvent(1L, 1, 100L))));
+        }
+    }
+}